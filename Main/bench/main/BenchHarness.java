@@ -0,0 +1,156 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Harness đo kiểu JMH (warmup + nhiều iteration, mỗi iteration chạy lặp tới ít nhất iterMs),
+ * kết quả ghi ra JSON + CSV để so sánh giữa các lần build.
+ *
+ * Cấu hình bằng system property:
+ * - bench.warmup     : số iteration warmup (mặc định 3)
+ * - bench.iterations : số iteration đo (mặc định 5)
+ * - bench.iterMs     : thời gian tối thiểu mỗi iteration (mặc định 200)
+ * - bench.filter     : regex chọn benchmark theo tên (mặc định tất cả)
+ */
+public class BenchHarness {
+
+    /** 1 lần gọi = opsPerCall thao tác; trả về giá trị bất kỳ để JIT không bỏ vòng lặp. */
+    public interface Op {
+        long run() throws Exception;
+    }
+
+    /** Kết quả 1 benchmark với 1 kích thước catalog. */
+    public static class Result {
+        final String name;
+        final int size;
+        final long opsPerCall;
+        final double[] nsPerOp; // mỗi iteration 1 giá trị
+
+        Result(String name, int size, long opsPerCall, double[] nsPerOp) {
+            this.name = name;
+            this.size = size;
+            this.opsPerCall = opsPerCall;
+            this.nsPerOp = nsPerOp;
+        }
+
+        double mean() {
+            double sum = 0;
+            for (double v : nsPerOp) sum += v;
+            return sum / nsPerOp.length;
+        }
+
+        double min() {
+            return Arrays.stream(nsPerOp).min().orElse(0);
+        }
+
+        double max() {
+            return Arrays.stream(nsPerOp).max().orElse(0);
+        }
+
+        double stdev() {
+            double m = mean(), sum = 0;
+            for (double v : nsPerOp) sum += (v - m) * (v - m);
+            return nsPerOp.length > 1 ? Math.sqrt(sum / (nsPerOp.length - 1)) : 0;
+        }
+
+        double opsPerSecond() {
+            return 1e9 / mean();
+        }
+    }
+
+    private final int warmup = Integer.getInteger("bench.warmup", 3);
+    private final int iterations = Math.max(1, Integer.getInteger("bench.iterations", 5));
+    private final long iterNanos = Long.getLong("bench.iterMs", 200L) * 1_000_000L;
+    private final Pattern filter = Pattern.compile(System.getProperty("bench.filter", ".*"));
+    private final List<Result> results = new ArrayList<>();
+    private long sink;
+
+    public boolean enabled(String name) {
+        return filter.matcher(name).find();
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    /** Đo op, in 1 dòng kết quả; bỏ qua nếu tên không khớp bench.filter. */
+    public Result run(String name, int size, long opsPerCall, Op op) throws Exception {
+        if (!enabled(name)) return null;
+        for (int i = 0; i < warmup; i++) {
+            iteration(op, opsPerCall);
+        }
+        double[] ns = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            ns[i] = iteration(op, opsPerCall);
+        }
+        Result r = new Result(name, size, opsPerCall, ns);
+        results.add(r);
+        System.out.printf(Locale.ROOT, "%-18s %10d %16.1f %12.1f %16.0f%n",
+                name, size, r.mean(), r.stdev(), r.opsPerSecond());
+        return r;
+    }
+
+    // ns/op của 1 iteration
+    private double iteration(Op op, long opsPerCall) throws Exception {
+        long calls = 0;
+        long t0 = System.nanoTime(), elapsed;
+        do {
+            sink ^= op.run();
+            calls++;
+            elapsed = System.nanoTime() - t0;
+        } while (elapsed < iterNanos);
+        return elapsed / (double) (calls * opsPerCall);
+    }
+
+    public static void printHeader() {
+        System.out.printf("%-18s %10s %16s %12s %16s%n", "benchmark", "size", "ns/op", "stdev", "ops/s");
+    }
+
+    public void writeCsv(File f) throws IOException {
+        try (PrintWriter pw = new PrintWriter(f, StandardCharsets.UTF_8.name())) {
+            pw.println("benchmark,size,ops_per_call,iterations,mean_ns_per_op,stdev_ns,min_ns_per_op,max_ns_per_op,ops_per_s");
+            for (Result r : results) {
+                pw.printf(Locale.ROOT, "%s,%d,%d,%d,%.3f,%.3f,%.3f,%.3f,%.1f%n", r.name, r.size, r.opsPerCall,
+                        r.nsPerOp.length, r.mean(), r.stdev(), r.min(), r.max(), r.opsPerSecond());
+            }
+        }
+    }
+
+    // cùng tinh thần với output -rf json của JMH: 1 phần tử cho mỗi (benchmark, size)
+    public void writeJson(File f) throws IOException {
+        try (PrintWriter pw = new PrintWriter(f, StandardCharsets.UTF_8.name())) {
+            pw.println("[");
+            for (int i = 0; i < results.size(); i++) {
+                Result r = results.get(i);
+                pw.printf(Locale.ROOT, "  {\"benchmark\": \"%s\", \"params\": {\"size\": %d}, \"mode\": \"avgt\", "
+                                + "\"unit\": \"ns/op\", \"opsPerCall\": %d, \"score\": %.3f, \"scoreError\": %.3f, "
+                                + "\"min\": %.3f, \"max\": %.3f, \"opsPerSecond\": %.1f, \"rawData\": %s}%s%n",
+                        r.name, r.size, r.opsPerCall, r.mean(), r.stdev(), r.min(), r.max(), r.opsPerSecond(),
+                        rawJson(r.nsPerOp), i + 1 < results.size() ? "," : "");
+            }
+            pw.println("]");
+        }
+    }
+
+    private static String rawJson(double[] values) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(String.format(Locale.ROOT, "%.3f", values[i]));
+        }
+        return sb.append(']').toString();
+    }
+
+    // in ra để JIT không coi các kết quả là vô dụng
+    public long getSink() {
+        return sink;
+    }
+}
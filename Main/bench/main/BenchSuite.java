@@ -0,0 +1,247 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Bộ benchmark chính: parse / format dòng dữ liệu, load / save, tìm kiếm, dashboard,
+ * thành tiền qua PricingEngine (luật mặc định / pricing_rules.txt), bán hàng và export, với catalog sinh sẵn nhiều kích thước.
+ * Kết quả in ra màn hình và ghi <bench.out>.json / <bench.out>.csv trong thư mục làm việc.
+ *
+ * Chạy: ant bench-suite
+ *       ant bench-suite -Dbench.sizes=1000,10000000 -Dbench.jvmargs=-Xmx5g -Dbench.filter=search
+ */
+public class BenchSuite {
+
+    // số dòng / sản phẩm tối đa cho các benchmark theo từng dòng (không phụ thuộc kích thước catalog)
+    private static final int SAMPLE = 100_000;
+    private static final int SELLS_PER_CALL = 1000;
+
+    public static void main(String[] args) throws Exception {
+        String sizesProp = System.getProperty("bench.sizes", "1000,10000,100000,1000000");
+        String out = System.getProperty("bench.out", "bench-results");
+
+        BenchHarness h = new BenchHarness();
+        BenchHarness.printHeader();
+        for (String s : sizesProp.split(",")) {
+            run(h, Integer.parseInt(s.trim()));
+        }
+
+        File json = new File(out + ".json");
+        File csv = new File(out + ".csv");
+        h.writeJson(json);
+        h.writeCsv(csv);
+        InputLogger.flush();
+        SalesHistoryWriter.flush();
+        System.out.println("Results: " + json.getAbsolutePath() + ", " + csv.getAbsolutePath()
+                + (h.getSink() == 42 ? "" : "."));
+    }
+
+    // ~1000 luật: mặc định theo loại, vài brand (1 luật có khung giờ), bậc số lượng, SKU của 1 phần mẫu
+    private static void writePricingRules(File f, Product[] sample) throws IOException {
+        try (PrintWriter pw = new PrintWriter(f, "UTF-8")) {
+            pw.println("DEFAULT;*");
+            pw.println("BRAND;Apple;0.03;;2020-01-01;2099-12-31");
+            pw.println("BRAND;Samsung;0.02");
+            pw.println("ALL;*;0.02;3");
+            pw.println("ALL;*;0.04;4");
+            for (int i = 0; i < sample.length && i < 1000; i += 7) {
+                pw.println("SKU;" + sample[i].getId() + ";0.01");
+            }
+            pw.println("STUDENT;*;0.05");
+        }
+    }
+
+    private static void run(BenchHarness h, int size) throws Exception {
+        File dir = new File("suite-" + size);
+        dir.mkdirs();
+        File dataFile = new File(dir, InventoryService.FILE_NAME);
+        File snapshot = new File(dir, InventoryService.SNAPSHOT_FILE);
+        File journal = new File(dir, InventoryService.JOURNAL_FILE);
+        snapshot.delete();
+        journal.delete();
+        CatalogGenerator.writeDataFile(dataFile, size, 0);
+
+        InventoryService service = new InventoryService(dir);
+        service.load();
+
+        Product[] sample = sample(service.listAll(), SAMPLE);
+        String[] lines = new String[sample.length];
+        for (int i = 0; i < sample.length; i++) {
+            lines[i] = sample[i].toDataLine();
+        }
+
+        h.run("dataLine.parse", size, lines.length, () -> {
+            long n = 0;
+            for (String line : lines) {
+                n += Product.fromDataLine(line).getQuantity();
+            }
+            return n;
+        });
+
+        h.run("dataLine.format", size, sample.length, () -> {
+            long n = 0;
+            for (Product p : sample) {
+                n += p.toDataLine().length();
+            }
+            return n;
+        });
+
+        // ghi vào 1 builder dùng lại (đường DataLineWriter của save / journal)
+        StringBuilder reused = new StringBuilder(128);
+        h.run("dataLine.append", size, sample.length, () -> {
+            long n = 0;
+            for (Product p : sample) {
+                reused.setLength(0);
+                p.appendDataLine(reused);
+                n += reused.length();
+            }
+            return n;
+        });
+
+        // luật mặc định (không có pricing_rules.txt): giảm theo loại
+        File rules = new File(dir, PricingEngine.FILE_NAME);
+        rules.delete();
+        service.getPricing().reload();
+        h.run("finalPrice", size, sample.length, () -> {
+            long total = 0;
+            for (int i = 0; i < sample.length; i++) {
+                total += service.getPricing().chainFor(sample[i]).getFinalPrice(1 + (i & 3));
+            }
+            return total;
+        });
+
+        // cùng phép tính qua PricingEngine: luật theo loại / brand / SKU / bậc số lượng / khung giờ
+        if (h.enabled("finalPrice.rules")) {
+            writePricingRules(rules, sample);
+            service.getPricing().reload();
+            LocalDateTime now = LocalDateTime.now();
+            h.run("finalPrice.rules", size, sample.length, () -> {
+                long total = 0;
+                for (int i = 0; i < sample.length; i++) {
+                    total += service.getPricing().chainFor(sample[i]).finalPrice(1 + (i & 3), now);
+                }
+                return total;
+            });
+        }
+
+        // load từ products.txt (không có snapshot / journal)
+        h.run("load.text", size, 1, () -> {
+            snapshot.delete();
+            return service.load().getProducts();
+        });
+
+        // save đầy đủ: products.txt + snapshot + xóa journal
+        h.run("save.compact", size, 1, () -> {
+            service.compact();
+            return snapshot.length();
+        });
+
+        // load từ snapshot nhị phân (mới hơn products.txt sau compact)
+        if (h.enabled("load.snapshot")) {
+            service.compact();
+            h.run("load.snapshot", size, 1, () -> service.load().getProducts());
+        }
+        if (service.size() != size) service.load();
+
+        SearchCriteria[] queries = {
+                new SearchCriteria("pro", null, -1, -1),
+                new SearchCriteria("apple", "Laptop", -1, -1),
+                new SearchCriteria("", "Phone", 5_000_000 * Money.SCALE, 10_000_000 * Money.SCALE),
+                new SearchCriteria("gaming", null, 20_000_000 * Money.SCALE, -1),
+                new SearchCriteria("xiaomi note", "Phone", -1, 15_000_000 * Money.SCALE),
+        };
+        h.run("search", size, queries.length, () -> {
+            long n = 0;
+            for (SearchCriteria c : queries) {
+                n += service.search(c).size();
+            }
+            return n;
+        });
+
+        h.run("dashboard", size, 1, () -> {
+            DashboardStats d = service.dashboard();
+            return d.getTotalQuantity() + d.getTopByPrice().size();
+        });
+
+        if (h.enabled("sell")) {
+            String[] ids = sellableIds(service, sample, 1024);
+            h.run("sell", size, SELLS_PER_CALL, () -> {
+                long n = 0;
+                for (int i = 0; i < SELLS_PER_CALL; i++) {
+                    n += service.sell(ids[i & (ids.length - 1)], 1, (i & 7) == 0 ? "S" + i : null).getStockLeft();
+                }
+                return n;
+            });
+        }
+
+        if (h.enabled("export")) {
+            ProductManager manager = new ProductManager(service);
+            h.run("export", size, 1, () -> {
+                quiet(manager::exportInventorySnapshot);
+                return 1;
+            });
+        }
+
+        // dọn file lớn, giữ lại kết quả
+        service.close();
+        dataFile.delete();
+        snapshot.delete();
+        journal.delete();
+        rules.delete();
+        new File("inventory_list.txt").delete();
+    }
+
+    // lấy đều tối đa n sản phẩm theo thứ tự ID
+    private static Product[] sample(Collection<Product> all, int n) {
+        int step = Math.max(1, all.size() / n);
+        List<Product> list = new ArrayList<>(Math.min(n, all.size()));
+        int i = 0;
+        for (Product p : all) {
+            if (i++ % step == 0 && list.size() < n) list.add(p);
+        }
+        return list.toArray(new Product[0]);
+    }
+
+    // ID sản phẩm active, tồn kho đủ lớn để bán suốt benchmark (số phần tử là lũy thừa của 2)
+    // (sample có thể là bản cũ trước các lần load lại, lấy sản phẩm hiện tại qua ID)
+    private static String[] sellableIds(InventoryService service, Product[] sample, int n) {
+        List<String> ids = new ArrayList<>();
+        Random rnd = new Random(42);
+        while (ids.size() < n) {
+            Product p = service.findById(sample[rnd.nextInt(sample.length)].getId());
+            if (!p.isActive()) continue;
+            p.setQuantity(Integer.MAX_VALUE / 2);
+            service.getCatalog().update(p);
+            ids.add(p.getId());
+        }
+        return ids.toArray(new String[0]);
+    }
+
+    // export in 1 dòng "Exported ..." mỗi lần gọi, tắt đi khi đo
+    private static void quiet(Runnable action) {
+        PrintStream old = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+        try {
+            action.run();
+        } finally {
+            System.setOut(old);
+        }
+    }
+}
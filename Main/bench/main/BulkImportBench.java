@@ -0,0 +1,95 @@
+package main;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Import file nhà cung cấp (2/3 là SKU đã có, 1/3 SKU mới, 1% dòng lỗi):
+ * InventoryService.importFile (theo lô, lưu 1 lần) so với thêm / sửa từng dòng qua service rồi save().
+ * Kiểm tra 2 cách cho cùng catalog, thoát mã 1 nếu lệch.
+ * Chạy: ant bench -Dbench.main=main.BulkImportBench -Dbench.size=300000
+ */
+public class BulkImportBench {
+
+    public static void main(String[] args) throws Exception {
+        int size = Integer.parseInt(System.getProperty("bench.size", "200000"));
+        File feed = new File("import-feed.txt");
+        CatalogGenerator.writeDataFile(feed, size + size / 2, 100);
+
+        InventoryService bulk = service("import-bulk", size);
+        long t0 = System.nanoTime();
+        BulkImporter.Report r = bulk.importFile(feed);
+        double bulkMs = (System.nanoTime() - t0) / 1e6;
+        System.out.println("bulk:    " + r);
+
+        InventoryService rows = service("import-rows", size);
+        t0 = System.nanoTime();
+        int rejected = 0;
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new FileInputStream(feed), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                Product p;
+                try {
+                    p = Product.fromDataLine(line);
+                } catch (NumberFormatException e) {
+                    p = null;
+                }
+                if (p == null) {
+                    rejected++;
+                } else if (rows.contains(p.getId())) {
+                    ProductUpdate u = new ProductUpdate();
+                    u.setName(p.getName());
+                    u.setBrand(p.getBrand());
+                    u.setPrice(p.getPrice());
+                    u.setQuantity(p.getQuantity());
+                    u.setActive(p.isActive());
+                    if (p instanceof Laptop) u.setWarrantyMonths(((Laptop) p).getWarrantyMonths());
+                    else u.setSupport5G(((Phone) p).isSupport5G());
+                    rows.updateProduct(p.getId(), u);
+                } else {
+                    rows.addProduct(p);
+                }
+            }
+        }
+        rows.save();
+        double rowsMs = (System.nanoTime() - t0) / 1e6;
+        System.out.printf("per-row: rejected=%d, time=%.1fms%n", rejected, rowsMs);
+        System.out.printf("bulk %.1fms vs per-row %.1fms (x%.1f)%n", bulkMs, rowsMs, rowsMs / bulkMs);
+
+        if (!dataLines(bulk).equals(dataLines(rows)) || r.getRejected() != rejected) {
+            System.out.println("MISMATCH: bulk=" + bulk.size() + ", per-row=" + rows.size());
+            System.exit(1);
+        }
+        bulk.close();
+        rows.close();
+        InputLogger.flush();
+        feed.delete();
+        new File(feed.getPath() + ".rejects").delete();
+    }
+
+    // thư mục dữ liệu mới với size sản phẩm đầu tiên của feed
+    private static InventoryService service(String dirName, int size) throws Exception {
+        File dir = new File(dirName);
+        dir.mkdirs();
+        new File(dir, InventoryService.SNAPSHOT_FILE).delete();
+        new File(dir, InventoryService.JOURNAL_FILE).delete();
+        CatalogGenerator.writeDataFile(new File(dir, InventoryService.FILE_NAME), size, 0);
+        InventoryService service = new InventoryService(dir);
+        service.load();
+        return service;
+    }
+
+    private static List<String> dataLines(InventoryService service) {
+        List<String> lines = new ArrayList<>(service.size());
+        for (Product p : service.listAll()) {
+            lines.add(p.toDataLine());
+        }
+        return lines;
+    }
+}
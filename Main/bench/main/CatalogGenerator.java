@@ -0,0 +1,55 @@
+package main;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Sinh catalog giả cho benchmark (ID dạng L0000001 / P0000002, seed cố định).
+ */
+public class CatalogGenerator {
+
+    static final String[] BRANDS = {"Apple", "Asus", "HP", "Acer", "Dell", "Lenovo", "Samsung", "XiaoMi", "Nokia", "Oppo"};
+    static final String[] WORDS = {"Pro", "Air", "Gaming", "Ultra", "Lite", "Max", "Mini", "Plus", "Note", "Book"};
+
+    public static Product product(int i, Random rnd) {
+        String brand = BRANDS[rnd.nextInt(BRANDS.length)];
+        String name = brand + " " + WORDS[rnd.nextInt(WORDS.length)] + " " + (i % 1000);
+        double price = 100_000 * (1 + rnd.nextInt(400));
+        int qty = rnd.nextInt(50);
+        boolean active = rnd.nextInt(10) != 0;
+        if ((i & 1) == 0) {
+            return new Laptop(String.format("L%07d", i), name, brand, price, qty, active, 12 * (1 + rnd.nextInt(3)));
+        }
+        return new Phone(String.format("P%07d", i), name, brand, price, qty, active, rnd.nextBoolean());
+    }
+
+    public static ProductCatalog catalog(int size) {
+        Random rnd = new Random(42);
+        ProductCatalog c = new ProductCatalog();
+        for (int i = 0; i < size; i++) {
+            c.add(product(i, rnd));
+        }
+        return c;
+    }
+
+    // ghi file products.txt giả; badEvery > 0 thì cứ badEvery dòng chèn 1 dòng lỗi
+    public static File writeDataFile(File f, int size, int badEvery) throws IOException {
+        Random rnd = new Random(42);
+        try (Writer w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(f), StandardCharsets.UTF_8), 1 << 16)) {
+            DataLineWriter lines = new DataLineWriter(w, "\n");
+            for (int i = 0; i < size; i++) {
+                lines.write(product(i, rnd));
+                if (badEvery > 0 && i % badEvery == 0) {
+                    w.write("Laptop;BAD" + i + ";Broken;X;not-a-number;1;true;12\n");
+                }
+            }
+        }
+        return f;
+    }
+}
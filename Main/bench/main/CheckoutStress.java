@@ -0,0 +1,127 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Stress nhiều quầy bán cùng lúc trên 1 catalog (bán lẻ từng SKU xen với đơn nhiều dòng):
+ * kiểm tra tồn kho không bao giờ âm và (tồn đầu - đã bán) == tồn cuối cho từng SKU,
+ * tổng tồn kho tăng dần (InventoryAggregates) khớp với tính lại từ đầu.
+ * Sai thì thoát với mã 1 (ant bench báo lỗi).
+ * Chạy: ant bench -Dbench.main=main.CheckoutStress -Dbench.threads=8
+ */
+public class CheckoutStress {
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.parseInt(System.getProperty("bench.threads", "8"));
+        int skus = Integer.parseInt(System.getProperty("bench.skus", "50"));
+        int attempts = Integer.parseInt(System.getProperty("bench.attempts", "200000"));
+        int initialStock = 1000;
+
+        ProductCatalog catalog = new ProductCatalog();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < skus; i++) {
+            Product p = new Phone(String.format("P%04d", i), "Phone " + i, "Brand", 1.0e6, initialStock, true, true);
+            catalog.add(p);
+            products.add(p);
+        }
+
+        AtomicLongArray sold = new AtomicLongArray(skus);
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong negativeSeen = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] lanes = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            lanes[t] = new Thread(() -> {
+                Random rnd = new Random(seed);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < attempts; i++) {
+                    if ((i & 3) == 0) {
+                        order(catalog, products, rnd, sold, rejected);
+                        continue;
+                    }
+                    int idx = rnd.nextInt(skus);
+                    Product p = catalog.findById(products.get(idx).getId().toLowerCase());
+                    int q = 1 + rnd.nextInt(5);
+                    int left = catalog.decreaseStock(p, q, null);
+                    if (left >= 0) {
+                        sold.addAndGet(idx, q);
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                    // đọc không lock, giống dashboard / search chạy song song
+                    if (p.getQuantity() < 0) negativeSeen.incrementAndGet();
+                }
+            }, "lane-" + t);
+            lanes[t].start();
+        }
+
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread lane : lanes) lane.join();
+        long nanos = System.nanoTime() - t0;
+
+        int violations = 0;
+        for (int i = 0; i < skus; i++) {
+            Product p = products.get(i);
+            if (p.getQuantity() < 0 || initialStock - sold.get(i) != p.getQuantity()) {
+                violations++;
+                System.out.printf("VIOLATION %s: stock=%d, sold=%d%n", p.getId(), p.getQuantity(), sold.get(i));
+            }
+        }
+        long totalQty = 0;
+        long totalValue = 0; // cent: tổng tăng dần phải khớp đúng
+        for (Product p : products) {
+            totalQty += p.getQuantity();
+            totalValue += Money.times(p.getPriceCents(), p.getQuantity());
+        }
+        InventoryAggregates agg = catalog.getAggregates();
+        if (agg.getTotalQuantity() != totalQty || agg.getTotalValue() != totalValue) {
+            violations++;
+            System.out.printf("VIOLATION aggregates: qty=%d (expected %d), value=%s (expected %s)%n",
+                    agg.getTotalQuantity(), totalQty, Money.format(agg.getTotalValue()), Money.format(totalValue));
+        }
+
+        long ops = (long) threads * attempts;
+        System.out.printf("threads=%d skus=%d attempts=%d rejected=%d  %.0f checkouts/s%n",
+                threads, skus, ops, rejected.get(), ops * 1e9 / nanos);
+        System.out.printf("negative reads=%d, violations=%d%n", negativeSeen.get(), violations);
+        if (violations > 0 || negativeSeen.get() > 0) {
+            System.exit(1);
+        }
+        System.out.println("OK: stock never went negative");
+    }
+
+    // đơn 2-4 SKU khác nhau, trừ kho tất cả hoặc không dòng nào
+    private static void order(ProductCatalog catalog, List<Product> products, Random rnd,
+                              AtomicLongArray sold, AtomicLong rejected) {
+        int n = 2 + rnd.nextInt(3);
+        List<Integer> idx = new ArrayList<>();
+        while (idx.size() < n) {
+            int i = rnd.nextInt(products.size());
+            if (!idx.contains(i)) idx.add(i);
+        }
+        List<Product> lines = new ArrayList<>();
+        int[] qty = new int[n];
+        for (int k = 0; k < n; k++) {
+            lines.add(products.get(idx.get(k)));
+            qty[k] = 1 + rnd.nextInt(5);
+        }
+        if (catalog.decreaseStockAll(lines, qty, null) >= 0) {
+            rejected.incrementAndGet();
+            return;
+        }
+        for (int k = 0; k < n; k++) {
+            sold.addAndGet(idx.get(k), qty[k]);
+        }
+    }
+}
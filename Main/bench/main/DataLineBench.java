@@ -0,0 +1,132 @@
+package main;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Parse / ghi dòng products.txt: ns/dòng và số byte cấp phát trên heap mỗi dòng
+ * (ThreadMXBean.getThreadAllocatedBytes của luồng đang chạy).
+ * - parse: String.split(";") + parseDouble (cách cũ) / Product.fromDataLine / 1 DataLineTokenizer dùng lại
+ *   (giá đọc bằng moneyField ra cent)
+ * - ghi:   toDataLine + Writer.write(String) / DataLineWriter (builder + char[] dùng lại)
+ * Kiểm tra 2 cách ghi ra cùng nội dung, thoát mã 1 nếu lệch.
+ * Chạy: ant bench -Dbench.main=main.DataLineBench -Dbench.size=1000000
+ */
+public class DataLineBench {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private interface Body {
+        long run() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int size = Integer.parseInt(System.getProperty("bench.size", "1000000"));
+        Random rnd = new Random(42);
+        Product[] products = new Product[size];
+        String[] lines = new String[size];
+        for (int i = 0; i < size; i++) {
+            products[i] = CatalogGenerator.product(i, rnd);
+            lines[i] = products[i].toDataLine();
+        }
+
+        measure("parse  split + parseDouble", size, () -> {
+            long n = 0;
+            for (String line : lines) n += legacyParse(line).getQuantity();
+            return n;
+        });
+        measure("parse  Product.fromDataLine", size, () -> {
+            long n = 0;
+            for (String line : lines) n += Product.fromDataLine(line).getQuantity();
+            return n;
+        });
+        DataLineTokenizer tk = new DataLineTokenizer();
+        measure("parse  reused tokenizer", size, () -> {
+            long n = 0;
+            for (String line : lines) {
+                tk.split(line, 0, line.length());
+                n += tk.intField(DataLineTokenizer.QUANTITY) + tk.moneyField(DataLineTokenizer.PRICE);
+            }
+            return n;
+        });
+        measure("parse  reused tokenizer + Product", size, () -> {
+            long n = 0;
+            for (String line : lines) {
+                tk.split(line, 0, line.length());
+                n += tk.toProduct().getQuantity();
+            }
+            return n;
+        });
+
+        File a = new File("dataline-bench-a.txt");
+        File b = new File("dataline-bench-b.txt");
+        measure("write  toDataLine + write(String)", size, () -> {
+            try (Writer w = writer(a)) {
+                for (Product p : products) {
+                    w.write(p.toDataLine());
+                    w.write('\n');
+                }
+            }
+            return a.length();
+        });
+        measure("write  DataLineWriter", size, () -> {
+            try (Writer w = writer(b)) {
+                DataLineWriter out = new DataLineWriter(w, "\n");
+                for (Product p : products) out.write(p);
+            }
+            return b.length();
+        });
+        boolean same = Arrays.equals(Files.readAllBytes(a.toPath()), Files.readAllBytes(b.toPath()));
+        a.delete();
+        b.delete();
+        if (!same) {
+            System.out.println("MISMATCH: DataLineWriter output differs from toDataLine");
+            System.exit(1);
+        }
+    }
+
+    private static Writer writer(File f) throws Exception {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(f), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    // tốt nhất 5 lần (sau 2 lần chạy nóng), in ns/dòng và byte cấp phát / dòng
+    private static void measure(String label, int size, Body body) throws Exception {
+        long sink = 0;
+        for (int i = 0; i < 2; i++) sink += body.run();
+        long bestNanos = Long.MAX_VALUE, bestBytes = Long.MAX_VALUE;
+        long tid = Thread.currentThread().getId();
+        for (int i = 0; i < 5; i++) {
+            long b0 = THREADS.getThreadAllocatedBytes(tid);
+            long t0 = System.nanoTime();
+            sink += body.run();
+            long nanos = System.nanoTime() - t0;
+            long bytes = THREADS.getThreadAllocatedBytes(tid) - b0;
+            bestNanos = Math.min(bestNanos, nanos);
+            bestBytes = Math.min(bestBytes, bytes);
+        }
+        System.out.printf("%-36s %8.1f ns/line %8.1f B/line%s%n", label,
+                (double) bestNanos / size, (double) bestBytes / size, sink == 42 ? " " : "");
+    }
+
+    // cách cũ của Product.fromDataLine
+    private static Product legacyParse(String line) {
+        String[] parts = line.split(";");
+        if (parts.length != 8) return null;
+        double price = Double.parseDouble(parts[4]);
+        int qty = Integer.parseInt(parts[5]);
+        boolean active = Boolean.parseBoolean(parts[6]);
+        if (parts[0].equalsIgnoreCase("Laptop")) {
+            return new Laptop(parts[1], parts[2], parts[3], price, qty, active, Integer.parseInt(parts[7]));
+        }
+        return new Phone(parts[1], parts[2], parts[3], price, qty, active, Boolean.parseBoolean(parts[7]));
+    }
+}
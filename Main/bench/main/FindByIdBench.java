@@ -0,0 +1,70 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Micro benchmark: findById bằng index (ProductCatalog) so với scan tuyến tính kiểu cũ.
+ * Chạy: ant bench  (hoặc -Dbench.sizes=1000,100000,1000000)
+ */
+public class FindByIdBench {
+
+    private static final int LOOKUPS = 200_000;
+
+    public static void main(String[] args) {
+        String sizesProp = System.getProperty("bench.sizes", "1000,10000,100000,500000");
+        System.out.printf("%-10s | %-16s | %-16s%n", "size", "index ns/op", "linear ns/op");
+        for (String s : sizesProp.split(",")) {
+            int size = Integer.parseInt(s.trim());
+            run(size);
+        }
+    }
+
+    private static void run(int size) {
+        ProductCatalog catalog = new ProductCatalog();
+        List<Product> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Product p = new Laptop(String.format("L%07d", i), "Laptop " + i, "Brand", 1.0e7, 5, true, 12);
+            catalog.add(p);
+            list.add(p);
+        }
+
+        Random rnd = new Random(42);
+        String[] ids = new String[1024];
+        for (int i = 0; i < ids.length; i++) {
+            // trộn hoa/thường để đúng với tra cứu không phân biệt hoa thường
+            String id = String.format("L%07d", rnd.nextInt(size));
+            ids[i] = (i % 2 == 0) ? id : id.toLowerCase();
+        }
+
+        // warm up
+        long sink = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            sink += catalog.findById(ids[i & 1023]).getQuantity();
+        }
+        long t0 = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            sink += catalog.findById(ids[i & 1023]).getQuantity();
+        }
+        double indexNs = (System.nanoTime() - t0) / (double) LOOKUPS;
+
+        // scan tuyến tính tốn O(n) nên giảm số lần đo cho catalog lớn
+        int linearLookups = Math.max(100, Math.min(LOOKUPS, 50_000_000 / size));
+        long t1 = System.nanoTime();
+        for (int i = 0; i < linearLookups; i++) {
+            sink += linearFind(list, ids[i & 1023]).getQuantity();
+        }
+        double linearNs = (System.nanoTime() - t1) / (double) linearLookups;
+
+        System.out.printf("%-10d | %16.1f | %16.1f%n", size, indexNs, linearNs);
+        if (sink == 42) System.out.println(); // tránh JIT bỏ vòng lặp
+    }
+
+    private static Product linearFind(List<Product> list, String id) {
+        for (Product p : list) {
+            if (p.getId().equalsIgnoreCase(id)) return p;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,73 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tìm kiếm theo keyword: index trigram (ProductCatalog.findByKeyword) so với scan kiểu cũ.
+ * Kiểm tra 2 cách cho cùng kết quả (kể cả sau khi sửa / xóa sản phẩm), thoát mã 1 nếu lệch.
+ * Chạy: ant bench -Dbench.main=main.KeywordSearchBench -Dbench.size=1000000
+ */
+public class KeywordSearchBench {
+
+    private static final String[] KEYWORDS = {"pro", "gaming", "apple air", "xiaomi note 12", "ultra 99", "zzz"};
+
+    public static void main(String[] args) {
+        int size = Integer.parseInt(System.getProperty("bench.size", "200000"));
+        ProductCatalog catalog = CatalogGenerator.catalog(size);
+
+        // sửa / xóa bớt để kiểm tra index cập nhật tăng dần
+        Random rnd = new Random(7);
+        List<Product> all = new ArrayList<>(catalog.all());
+        for (int i = 0; i < size / 100; i++) {
+            Product p = all.get(rnd.nextInt(all.size()));
+            if (i % 2 == 0) {
+                p.setName("Renamed Ultra " + i);
+                catalog.update(p);
+            } else {
+                catalog.remove(p);
+            }
+        }
+
+        System.out.printf("%-16s | %-8s | %-14s | %-14s%n", "keyword", "found", "index us/op", "scan us/op");
+        for (String kw : KEYWORDS) {
+            List<Product> indexed = catalog.findByKeyword(kw);
+            List<Product> scanned = scan(catalog, kw);
+            if (!indexed.equals(scanned)) {
+                System.out.println("MISMATCH for '" + kw + "': index=" + indexed.size() + ", scan=" + scanned.size());
+                System.exit(1);
+            }
+            double indexUs = time(() -> catalog.findByKeyword(kw).size());
+            double scanUs = time(() -> scan(catalog, kw).size());
+            System.out.printf("%-16s | %-8d | %14.1f | %14.1f%n", kw, indexed.size(), indexUs, scanUs);
+        }
+    }
+
+    private static List<Product> scan(ProductCatalog catalog, String keyword) {
+        List<Product> result = new ArrayList<>();
+        for (Product p : catalog.all()) {
+            String target = (p.getName() + " " + p.getBrand()).toLowerCase();
+            if (target.contains(keyword)) result.add(p);
+        }
+        return result;
+    }
+
+    private interface Query {
+        int run();
+    }
+
+    // us/op, chạy lặp ít nhất 300ms sau 1 lần warmup
+    private static double time(Query q) {
+        long sink = q.run();
+        int n = 0;
+        long t0 = System.nanoTime(), elapsed;
+        do {
+            sink += q.run();
+            n++;
+            elapsed = System.nanoTime() - t0;
+        } while (elapsed < 300_000_000L);
+        if (sink == 42) System.out.println();
+        return elapsed / 1e3 / n;
+    }
+}
@@ -0,0 +1,49 @@
+package main;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Đo tốc độ load products.txt (lines/s) theo số luồng của ProductFileLoader,
+ * so với đọc snapshot nhị phân (CatalogSnapshot) của cùng catalog.
+ * Chạy: ant bench -Dbench.main=main.LoadBench -Dbench.lines=2000000
+ */
+public class LoadBench {
+
+    public static void main(String[] args) throws Exception {
+        int lines = Integer.parseInt(System.getProperty("bench.lines", "1000000"));
+        File f = File.createTempFile("products-bench", ".txt");
+        f.deleteOnExit();
+        CatalogGenerator.writeDataFile(f, lines, 10_000);
+        System.out.printf("file=%s, size=%.1f MB%n", f, f.length() / 1e6);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            ProductFileLoader loader = new ProductFileLoader(pool, 1 << 20);
+            loader.load(f); // warm up
+            ProductFileLoader.Result best = null;
+            for (int i = 0; i < 3; i++) {
+                ProductFileLoader.Result r = loader.load(f);
+                if (best == null || r.getNanos() < best.getNanos()) best = r;
+            }
+            System.out.printf("threads=%-3d %s%n", threads, best);
+            pool.shutdown();
+        }
+
+        List<Product> products = new ProductFileLoader().load(f).getProducts();
+        File snap = File.createTempFile("products-bench", ".bin");
+        snap.deleteOnExit();
+        CatalogSnapshot.write(snap, products);
+        CatalogSnapshot.read(snap); // warm up
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long t0 = System.nanoTime();
+            CatalogSnapshot.read(snap);
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        System.out.printf("snapshot    records=%d, size=%.1f MB, time=%.1fms, %.0f records/s%n",
+                products.size(), snap.length() / 1e6, best / 1e6, products.size() * 1e9 / best);
+    }
+}
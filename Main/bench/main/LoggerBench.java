@@ -0,0 +1,51 @@
+package main;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDateTime;
+
+/**
+ * Độ trễ mỗi lần gọi log: InputLogger (hàng đợi + luồng ghi nền) so với cách cũ
+ * (mở FileWriter, printf, đóng file ngay trên luồng gọi).
+ * Chạy: ant bench -Dbench.main=main.LoggerBench
+ */
+public class LoggerBench {
+
+    public static void main(String[] args) {
+        int n = Integer.parseInt(System.getProperty("bench.events", "50000"));
+
+        for (int round = 0; round < 2; round++) { // round 0 = warm up
+            long t0 = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                syncLog("BENCH_SYNC", "event " + i);
+            }
+            long syncNs = System.nanoTime() - t0;
+
+            long t1 = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                InputLogger.log("BENCH_ASYNC", "event " + i);
+            }
+            long offerNs = System.nanoTime() - t1;
+            InputLogger.flush();
+            long drainedNs = System.nanoTime() - t1;
+
+            if (round == 1) {
+                System.out.printf("events=%d%n", n);
+                System.out.printf("sync  open/printf/close : %8.0f ns/call%n", syncNs / (double) n);
+                System.out.printf("async offer             : %8.0f ns/call%n", offerNs / (double) n);
+                System.out.printf("async offer + drain     : %8.0f ns/call%n", drainedNs / (double) n);
+                System.out.printf("dropped                 : %d%n", InputLogger.getDroppedCount());
+            }
+        }
+    }
+
+    // cách ghi log cũ, để so sánh
+    private static void syncLog(String action, String detail) {
+        try (PrintWriter pw = new PrintWriter(new FileWriter("input_log_sync.txt", true))) {
+            pw.printf("[%s] %-20s | %s%n", LocalDateTime.now().toString().replace('T', ' '), action, detail);
+        } catch (IOException e) {
+            System.err.println("Could not write log: " + e.getMessage());
+        }
+    }
+}
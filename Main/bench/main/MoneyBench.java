@@ -0,0 +1,183 @@
+package main;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+/**
+ * Tiền double (cách cũ) so với cent long (Money) và BigDecimal:
+ * - tính tiền 1 dòng bán: giá * số lượng, trừ giảm giá theo tỉ lệ
+ * - cộng dồn doanh thu của size dòng bán (như dashboard / báo cáo)
+ * In ns/dòng và độ lệch của tổng double so với tổng chính xác.
+ * Kiểm tra long khớp BigDecimal (HALF_UP tới cent) từng dòng và cả tổng, Money.parse / append đọc ghi
+ * lại đúng, thoát mã 1 nếu lệch.
+ * Chạy: ant bench -Dbench.main=main.MoneyBench -Dbench.size=1000000
+ */
+public class MoneyBench {
+
+    private static final double RATE = 0.1;
+    private static final long PPM = Money.ppm(RATE);
+    private static final BigDecimal RATE_BD = BigDecimal.valueOf(RATE);
+
+    private interface Body {
+        long run();
+    }
+
+    public static void main(String[] args) {
+        int size = Integer.parseInt(System.getProperty("bench.size", "1000000"));
+        Random rnd = new Random(11);
+        // giá có phần lẻ (x.99, x.95...) như giá bán lẻ, số lượng 1..4
+        long[] cents = new long[size];
+        double[] prices = new double[size];
+        BigDecimal[] decimals = new BigDecimal[size];
+        int[] qty = new int[size];
+        for (int i = 0; i < size; i++) {
+            cents[i] = 100L * (1 + rnd.nextInt(50_000_000)) - (rnd.nextInt(4) == 0 ? 1 : 5);
+            prices[i] = Money.toDouble(cents[i]);
+            decimals[i] = BigDecimal.valueOf(cents[i], 2);
+            qty[i] = 1 + rnd.nextInt(4);
+        }
+        if (!checkLines(cents, decimals, qty) || !checkParse(rnd)) System.exit(1);
+
+        // tiền của từng dòng (double / long / BigDecimal) để đo riêng phần cộng dồn
+        double[] lineDouble = new double[size];
+        long[] lineLong = new long[size];
+        BigDecimal[] lineDecimal = new BigDecimal[size];
+
+        System.out.printf("%-34s %10s %10s %10s%n", "size=" + size, "double", "long", "BigDecimal");
+        double dNs = measure(size, () -> {
+            long n = 0;
+            for (int i = 0; i < size; i++) {
+                double total = prices[i] * qty[i];
+                lineDouble[i] = total - total * RATE;
+                n += (long) lineDouble[i];
+            }
+            return n;
+        });
+        double lNs = measure(size, () -> {
+            long n = 0;
+            for (int i = 0; i < size; i++) {
+                long total = Money.times(cents[i], qty[i]);
+                lineLong[i] = total - Money.discount(total, PPM);
+                n += lineLong[i];
+            }
+            return n;
+        });
+        double bNs = measure(size, () -> {
+            long n = 0;
+            for (int i = 0; i < size; i++) {
+                BigDecimal total = decimals[i].multiply(BigDecimal.valueOf(qty[i]));
+                lineDecimal[i] = total.subtract(total.multiply(RATE_BD).setScale(2, RoundingMode.HALF_UP));
+                n += lineDecimal[i].signum();
+            }
+            return n;
+        });
+        System.out.printf("%-34s %7.1f ns %7.1f ns %7.1f ns%n", "line price (qty, -10%)", dNs, lNs, bNs);
+
+        double[] sumD = new double[1];
+        long[] sumL = new long[1];
+        BigDecimal[] sumB = new BigDecimal[1];
+        dNs = measure(size, () -> {
+            double s = 0;
+            for (double v : lineDouble) s += v;
+            sumD[0] = s;
+            return (long) s;
+        });
+        lNs = measure(size, () -> {
+            long s = 0;
+            for (long v : lineLong) s += v;
+            sumL[0] = s;
+            return s;
+        });
+        bNs = measure(size, () -> {
+            BigDecimal s = BigDecimal.ZERO;
+            for (BigDecimal v : lineDecimal) s = s.add(v);
+            sumB[0] = s;
+            return s.signum();
+        });
+        System.out.printf("%-34s %7.2f ns %7.2f ns %7.2f ns%n", "sum of line totals", dNs, lNs, bNs);
+
+        BigDecimal exact = BigDecimal.valueOf(sumL[0], 2);
+        if (exact.compareTo(sumB[0]) != 0) {
+            System.out.println("MISMATCH total: long=" + exact.toPlainString() + ", BigDecimal=" + sumB[0].toPlainString());
+            System.exit(1);
+        }
+        // cùng các dòng đã đúng tới cent, chỉ cộng bằng double: phần lệch do cộng dồn
+        double sumCentDoubles = 0;
+        for (long v : lineLong) sumCentDoubles += Money.toDouble(v);
+        System.out.println("exact total " + Money.toString(sumL[0])
+                + ", double path drift " + drift(sumD[0], exact)
+                + ", double sum of exact lines drift " + drift(sumCentDoubles, exact));
+    }
+
+    private static String drift(double total, BigDecimal exact) {
+        return new BigDecimal(total).subtract(exact).setScale(6, RoundingMode.HALF_EVEN).toPlainString();
+    }
+
+    // từng dòng: long phải bằng BigDecimal làm tròn HALF_UP tới cent
+    private static boolean checkLines(long[] cents, BigDecimal[] decimals, int[] qty) {
+        for (int i = 0; i < cents.length; i++) {
+            long total = Money.times(cents[i], qty[i]);
+            long got = total - Money.discount(total, PPM);
+            BigDecimal t = decimals[i].multiply(BigDecimal.valueOf(qty[i]));
+            BigDecimal expected = t.subtract(t.multiply(RATE_BD).setScale(2, RoundingMode.HALF_UP));
+            if (BigDecimal.valueOf(got, 2).compareTo(expected) != 0) {
+                System.out.println("MISMATCH line " + i + ": long=" + Money.toString(got) + ", BigDecimal=" + expected);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // parse phải khớp BigDecimal HALF_UP, append rồi parse lại ra đúng số, ofDouble(toDouble(c)) == c;
+    // dấu ',' chỉ nhận khi chọn rõ decimalSeparator
+    private static boolean checkParse(Random rnd) {
+        for (String bad : new String[]{"1,000", "99,95", "1.000,5"}) {
+            try {
+                System.out.println("MISMATCH parse(\"" + bad + "\") = " + Money.parse(bad) + ", expected an error");
+                return false;
+            } catch (NumberFormatException expected) {
+                // đúng
+            }
+        }
+        if (Money.parse("99,95", 0, 5, ',') != 9995) {
+            System.out.println("MISMATCH parse(\"99,95\", ',')");
+            return false;
+        }
+        String[] fixed = {"0", "-0.0", "2.8E7", "1.5E-2", "0.005", "0.004999", "+12.345", "1.", ".5",
+                "123456789012.34", "-7.125", "28000000.00"};
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200_000 + fixed.length; i++) {
+            String s;
+            if (i < fixed.length) s = fixed[i];
+            else if ((i & 3) == 0) s = Double.toString(rnd.nextInt(1_000_000_000) / 100.0);
+            else if ((i & 3) == 1) s = Double.toString(100_000.0 * (1 + rnd.nextInt(400)));
+            else if ((i & 3) == 2) s = Double.toString(rnd.nextDouble() * 1e7);
+            else s = (rnd.nextInt(2_000_000) - 1_000_000) + "." + rnd.nextInt(1000);
+            long got = Money.parse(s);
+            long expected = new BigDecimal(s).setScale(2, RoundingMode.HALF_UP).unscaledValue()
+                    .longValueExact();
+            sb.setLength(0);
+            Money.append(sb, got);
+            if (got != expected || Money.parse(sb) != got || Money.ofDouble(Money.toDouble(got)) != got) {
+                System.out.println("MISMATCH parse(\"" + s + "\") = " + got + ", expected " + expected + ", text " + sb);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // tốt nhất 5 lần (sau 2 lần chạy nóng), ns / phần tử
+    private static double measure(int size, Body body) {
+        long sink = 0;
+        for (int i = 0; i < 2; i++) sink += body.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long t0 = System.nanoTime();
+            sink += body.run();
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        if (sink == 42) System.out.print(' ');
+        return (double) best / size;
+    }
+}
@@ -0,0 +1,96 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Xem danh sách theo trang: copy cả catalog rồi subList (cách list cũ) so với cursor trên catalog,
+ * và cảnh báo low stock: quét lại cả catalog so với tập được giữ sẵn trong InventoryAggregates.
+ * Kiểm tra đi hết các trang (kế rồi lùi) ra đúng thứ tự ID và 2 cách low stock ra cùng kết quả, thoát mã 1 nếu lệch.
+ * Chạy: ant bench -Dbench.main=main.PagingBench -Dbench.size=1000000
+ */
+public class PagingBench {
+
+    private static final int PAGE = 20;
+    private static final int PAGES = 1000;
+
+    public static void main(String[] args) {
+        int size = Integer.parseInt(System.getProperty("bench.size", "1000000"));
+        ProductCatalog catalog = CatalogGenerator.catalog(size);
+        if (!checkPaging(catalog) || !checkLowStock(catalog)) System.exit(1);
+
+        double copyNs = Double.MAX_VALUE, cursorNs = Double.MAX_VALUE;
+        double scanMs = Double.MAX_VALUE, setMs = Double.MAX_VALUE;
+        long sink = 0;
+        for (int round = 0; round < 5; round++) {
+            // trang ở giữa danh sách, mỗi lần xem 1 trang
+            int from = size / 2;
+            long t0 = System.nanoTime();
+            for (int i = 0; i < 20; i++) {
+                List<Product> all = new ArrayList<>(catalog.all());
+                sink += all.subList(from, Math.min(all.size(), from + PAGE)).size();
+            }
+            copyNs = Math.min(copyNs, (System.nanoTime() - t0) / 20.0);
+
+            String jumpId = new ArrayList<>(catalog.all()).get(from).getId();
+            t0 = System.nanoTime();
+            ProductPage page = catalog.page(jumpId, PAGE);
+            for (int i = 0; i < PAGES && page.hasNext(); i++) {
+                page = catalog.pageAfter(page.getLastId(), PAGE);
+                sink += page.getItems().size();
+            }
+            cursorNs = Math.min(cursorNs, (System.nanoTime() - t0) / (double) PAGES);
+
+            t0 = System.nanoTime();
+            sink += scanLowStock(catalog).size();
+            scanMs = Math.min(scanMs, (System.nanoTime() - t0) / 1e6);
+
+            t0 = System.nanoTime();
+            sink += new ArrayList<>(catalog.getAggregates().getLowStock()).size();
+            setMs = Math.min(setMs, (System.nanoTime() - t0) / 1e6);
+        }
+
+        System.out.printf("products=%d, page of %d: copy+subList %.1fms vs cursor %.1fus (x%.0f)%n",
+                size, PAGE, copyNs / 1e6, cursorNs / 1e3, copyNs / cursorNs);
+        System.out.printf("products=%d, low stock (%d items): scan %.2fms vs maintained set %.3fms%n",
+                size, catalog.getAggregates().getLowStock().size(), scanMs, setMs);
+        System.out.println("(sink=" + sink + ")");
+    }
+
+    // đi hết các trang bằng cursor phải ra đúng thứ tự all(), lùi lại cũng vậy
+    private static boolean checkPaging(ProductCatalog catalog) {
+        List<Product> expected = new ArrayList<>(catalog.all());
+        List<ProductPage> pages = new ArrayList<>();
+        List<Product> seen = new ArrayList<>();
+        ProductPage page = catalog.page(null, PAGE);
+        while (true) {
+            pages.add(page);
+            seen.addAll(page.getItems());
+            if (!page.hasNext()) break;
+            page = catalog.pageAfter(page.getLastId(), PAGE);
+        }
+        boolean ok = seen.equals(expected) && !pages.get(0).hasPrevious();
+        for (int i = pages.size() - 1; ok && i > 0; i--) {
+            page = catalog.pageBefore(pages.get(i).getFirstId(), PAGE);
+            ok = page.getItems().equals(pages.get(i - 1).getItems()) && page.hasNext();
+        }
+        if (!ok) System.out.println("MISMATCH: cursor paging differs from ID order");
+        return ok;
+    }
+
+    private static boolean checkLowStock(ProductCatalog catalog) {
+        boolean ok = scanLowStock(catalog).equals(new ArrayList<>(catalog.getAggregates().getLowStock()));
+        if (!ok) System.out.println("MISMATCH: maintained low stock set differs from full scan");
+        return ok;
+    }
+
+    // cách cũ: duyệt lại cả catalog
+    private static List<Product> scanLowStock(ProductCatalog catalog) {
+        List<Product> result = new ArrayList<>();
+        for (Product p : catalog.all()) {
+            int limit = catalog.getAggregates().getThreshold(p.getTypeCode());
+            if (p.getQuantity() > 0 && p.getQuantity() < limit) result.add(p);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,108 @@
+package main;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Phân tích sales_history.txt lớn: SalesHistoryAnalyzer (mmap, tách trường trên byte, song song)
+ * so với BufferedReader + SalesHistoryWriter.parse từng dòng.
+ * Kiểm tra cùng doanh thu theo ngày / số lượng theo sản phẩm, thoát mã 1 nếu lệch.
+ * Chạy: ant bench -Dbench.main=main.SalesAnalyzerBench -Dbench.size=5000000
+ */
+public class SalesAnalyzerBench {
+
+    public static void main(String[] args) throws Exception {
+        int size = Integer.parseInt(System.getProperty("bench.size", "2000000"));
+        int skus = 2000;
+        File file = new File("sales-analyzer-bench.txt");
+        generate(file, size, skus);
+        System.out.printf("file: %d lines, %.1f MB, %d CPU(s)%n",
+                size, file.length() / 1048576.0, Runtime.getRuntime().availableProcessors());
+
+        SalesHistoryAnalyzer.Result r = null;
+        double analyzerMs = Double.MAX_VALUE, readerMs = Double.MAX_VALUE;
+        TreeMap<LocalDate, Long> readerDays = null;
+        Map<String, Long> readerUnits = null;
+        for (int round = 0; round < 3; round++) {
+            long t0 = System.nanoTime();
+            r = new SalesHistoryAnalyzer().analyze(file, 10);
+            analyzerMs = Math.min(analyzerMs, (System.nanoTime() - t0) / 1e6);
+
+            t0 = System.nanoTime();
+            readerDays = new TreeMap<>();
+            readerUnits = new HashMap<>();
+            try (BufferedReader br = new BufferedReader(
+                    new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    SalesHistoryWriter.Sale s = SalesHistoryWriter.parse(line);
+                    if (s == null) continue;
+                    readerDays.merge(s.time.toLocalDate(), s.finalAmount, Long::sum);
+                    readerUnits.merge(s.id, (long) s.quantity, Long::sum);
+                }
+            }
+            readerMs = Math.min(readerMs, (System.nanoTime() - t0) / 1e6);
+        }
+
+        System.out.println("analyzer: " + r);
+        System.out.printf("analyzer %.1fms vs reader + parse %.1fms (x%.1f)%n", analyzerMs, readerMs, readerMs / analyzerMs);
+        Runtime rt = Runtime.getRuntime();
+        System.out.printf("heap used after run: %.1f MB%n", (rt.totalMemory() - rt.freeMemory()) / 1048576.0);
+
+        boolean ok = r.getDays().size() == readerDays.size() && r.getBadLines() == 1;
+        for (SalesHistoryAnalyzer.DayTotals d : r.getDays()) {
+            Long expected = readerDays.get(d.getDay());
+            if (expected == null || expected != d.getFinalAmount()) ok = false; // cent: phải khớp đúng
+        }
+        for (SalesHistoryAnalyzer.ProductTotals p : r.getTopSellers()) {
+            if (readerUnits.get(p.getId()) != p.getUnits()) ok = false;
+        }
+        if (!ok) {
+            System.out.println("MISMATCH");
+            System.exit(1);
+        }
+        file.delete();
+    }
+
+    // ~1 năm lịch sử, tên sản phẩm có ký tự tiếng Việt và có tên chứa " | ", 1 dòng hỏng
+    private static void generate(File file, int size, int skus) throws Exception {
+        Random rnd = new Random(3);
+        Product[] products = new Product[skus];
+        for (int i = 0; i < skus; i++) {
+            String name = (i % 97 == 0 ? "Máy Đặc biệt | Pro " : "Sản phẩm ") + i;
+            products[i] = i % 2 == 0
+                    ? new Laptop(String.format("L%05d", i), name, "Dell", 1.0e6 + i * 1000, 5, true, 12)
+                    : new Phone(String.format("P%05d", i), name, "Apple", 5.0e5 + i * 777, 5, true, true);
+        }
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 8, 0);
+        long step = 365L * 86_400_000_000_000L / size;
+        StringBuilder sb = new StringBuilder(256);
+        try (Writer w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+            for (int i = 0; i < size; i++) {
+                Product p = products[rnd.nextInt(skus)];
+                int qty = 1 + rnd.nextInt(4);
+                long origin = Money.times(p.getPriceCents(), qty);
+                long prod = Money.discount(origin, 100_000);
+                long base = origin - prod;
+                long fin = rnd.nextInt(5) == 0 ? base - Money.discount(base, 50_000) : base;
+                sb.setLength(0);
+                SalesHistoryWriter.formatLine(new SalesHistoryWriter.Sale(start.plusNanos(step * i), p, qty, origin, prod, fin), sb);
+                w.write(sb.append('\n').toString());
+                if (i == size / 2) w.write("broken line\n");
+            }
+        }
+    }
+}
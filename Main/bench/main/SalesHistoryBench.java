@@ -0,0 +1,67 @@
+package main;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDateTime;
+
+/**
+ * Throughput ghi lịch sử bán hàng khi nhiều quầy bán cùng lúc:
+ * group commit (AsyncLineWriter, từng mức durability) so với mở / ghi / đóng file mỗi sale.
+ * Chạy: ant bench -Dbench.main=main.SalesHistoryBench -Dbench.threads=8
+ */
+public class SalesHistoryBench {
+
+    private static final Product PRODUCT = new Laptop("L001", "MacBook Air M2", "Apple", 2.8E7, 5, true, 24);
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.parseInt(System.getProperty("bench.threads", "4"));
+        int perThread = Integer.parseInt(System.getProperty("bench.sales", "5000"));
+
+        report("open/printf/close per sale", threads, perThread, SalesHistoryBench::syncRecord, null);
+        for (AsyncLineWriter.Durability d : AsyncLineWriter.Durability.values()) {
+            File f = new File("sales_bench_" + d + ".txt");
+            f.delete();
+            AsyncLineWriter<SalesHistoryWriter.Sale> w = new AsyncLineWriter<>("bench-" + d, f, 4096,
+                    AsyncLineWriter.OverflowPolicy.BLOCK, d, 10,
+                    (s, sb) -> sb.append(s.id).append(" | Qty=").append(s.quantity));
+            report("group commit " + d, threads, perThread, () -> w.offer(newSale()), w);
+            w.close();
+        }
+    }
+
+    private static SalesHistoryWriter.Sale newSale() {
+        return new SalesHistoryWriter.Sale(LocalDateTime.now(), PRODUCT, 1, 2_800_000_000L, 280_000_000L, 2_520_000_000L);
+    }
+
+    private static void report(String label, int threads, int perThread, Runnable op,
+                               AsyncLineWriter<?> writer) throws InterruptedException {
+        Thread[] ts = new Thread[threads];
+        long t0 = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            ts[i] = new Thread(() -> {
+                for (int j = 0; j < perThread; j++) op.run();
+            });
+            ts[i].start();
+        }
+        for (Thread t : ts) t.join();
+        if (writer != null) writer.flush();
+        long nanos = System.nanoTime() - t0;
+        long total = (long) threads * perThread;
+        System.out.printf("%-36s threads=%d sales=%d  %10.0f sales/s%n", label, threads, total, total * 1e9 / nanos);
+    }
+
+    private static final Object LOCK = new Object();
+
+    // cách ghi cũ: mỗi sale mở file append, printf rồi đóng
+    private static void syncRecord() {
+        synchronized (LOCK) {
+            try (PrintWriter pw = new PrintWriter(new FileWriter("sales_bench_sync.txt", true))) {
+                pw.printf("%s | ID=%s | Qty=%d%n", LocalDateTime.now(), PRODUCT.getId(), 1);
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package main;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Báo cáo doanh thu 7 ngày trên lịch sử 1 năm:
+ * SalesStore (chỉ mở segment của 7 ngày) so với đọc / parse lại toàn bộ sales_history.txt.
+ * Kiểm tra 2 cách cho cùng số dòng / số lượng / doanh thu, thoát mã 1 nếu lệch.
+ * Chạy: ant bench -Dbench.main=main.SalesStoreBench -Dbench.size=1000000
+ */
+public class SalesStoreBench {
+
+    public static void main(String[] args) throws Exception {
+        int size = Integer.parseInt(System.getProperty("bench.size", "500000"));
+        int days = 365;
+        LocalDate firstDay = LocalDate.of(2025, 1, 1);
+
+        File text = new File("sales-bench-history.txt");
+        File dir = new File("sales-bench");
+        deleteDir(dir);
+        SalesStore store = new SalesStore(dir);
+        Product[] products = {
+                new Laptop("L001", "MacBook Air M2", "Apple", 2.8E7, 5, true, 24),
+                new Phone("P001", "Galaxy S24", "Samsung", 2.2E7, 5, true, true),
+                new Laptop("L002", "ThinkPad X1", "Lenovo", 3.5E7, 5, true, 36)
+        };
+        Random rnd = new Random(7);
+        long t0 = System.nanoTime();
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(text), StandardCharsets.UTF_8)) {
+            List<SalesHistoryWriter.Sale> batch = new ArrayList<>();
+            StringBuilder sb = new StringBuilder();
+            long step = 86_400_000_000_000L * days / size;
+            LocalDateTime start = firstDay.atStartOfDay();
+            for (int i = 0; i < size; i++) {
+                Product p = products[rnd.nextInt(products.length)];
+                int qty = 1 + rnd.nextInt(3);
+                long origin = Money.times(p.getPriceCents(), qty);
+                long prod = Money.discount(origin, 100_000);
+                SalesHistoryWriter.Sale s = new SalesHistoryWriter.Sale(start.plusNanos(step * i).withNano(0),
+                        p, qty, origin, prod, origin - prod);
+                batch.add(s);
+                sb.setLength(0);
+                SalesHistoryWriter.formatLine(s, sb);
+                w.write(sb.append('\n').toString());
+                if (batch.size() == 4096) {
+                    store.append(batch);
+                    batch.clear();
+                }
+            }
+            store.append(batch);
+        }
+        store.close();
+        System.out.printf("generated %d sales over %d days in %.1fms%n", size, days, (System.nanoTime() - t0) / 1e6);
+
+        LocalDateTime from = firstDay.plusDays(180).atStartOfDay();
+        LocalDateTime to = from.plusDays(7);
+        SalesStore.Report r = null;
+        double storeMs = Double.MAX_VALUE, textMs = Double.MAX_VALUE;
+        long textSales = 0, textUnits = 0;
+        long textRevenue = 0;
+        for (int round = 0; round < 5; round++) {
+            t0 = System.nanoTime();
+            r = store.query(from, to, SalesStore.GroupBy.DAY);
+            storeMs = Math.min(storeMs, (System.nanoTime() - t0) / 1e6);
+
+            t0 = System.nanoTime();
+            textSales = 0;
+            textUnits = 0;
+            textRevenue = 0;
+            try (BufferedReader br = new BufferedReader(
+                    new InputStreamReader(new FileInputStream(text), StandardCharsets.UTF_8), 1 << 16)) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    SalesHistoryWriter.Sale s = SalesHistoryWriter.parse(line);
+                    if (s == null || s.time.isBefore(from) || !s.time.isBefore(to)) continue;
+                    textSales++;
+                    textUnits += s.quantity;
+                    textRevenue += s.finalAmount;
+                }
+            }
+            textMs = Math.min(textMs, (System.nanoTime() - t0) / 1e6);
+        }
+
+        SalesStore.Totals t = r.getTotal();
+        System.out.printf("store: %d segments, %d records scanned, %d sales, %.1fms%n",
+                r.getSegmentsRead(), r.getRecordsScanned(), t.getSales(), storeMs);
+        System.out.printf("text:  full scan, %d sales, %.1fms%n", textSales, textMs);
+        System.out.printf("store %.1fms vs text scan %.1fms (x%.1f)%n", storeMs, textMs, textMs / storeMs);
+        if (t.getSales() != textSales || t.getUnits() != textUnits
+                || t.getFinalAmount() != textRevenue) { // cent: phải khớp đúng
+            System.out.println("MISMATCH");
+            System.exit(1);
+        }
+        text.delete();
+        deleteDir(dir);
+    }
+
+    private static void deleteDir(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) f.delete();
+        }
+        dir.delete();
+    }
+}
@@ -0,0 +1,82 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tìm kiếm kết hợp keyword / type / khoảng giá: ProductCatalog.search (chọn index chọn lọc nhất)
+ * so với scan cả catalog. Kiểm tra 2 cách cho cùng kết quả (kể cả sau khi đổi giá / xóa),
+ * thoát mã 1 nếu lệch.
+ * Chạy: ant bench -Dbench.main=main.SearchPlannerBench -Dbench.size=1000000
+ */
+public class SearchPlannerBench {
+
+    private static final SearchCriteria[] QUERIES = {
+            new SearchCriteria("", null, 10_000_000 * Money.SCALE, 10_200_000 * Money.SCALE),
+            new SearchCriteria("", "Laptop", 39_000_000 * Money.SCALE, -1),
+            new SearchCriteria("", "Phone", -1, 300_000 * Money.SCALE),
+            new SearchCriteria("pro", null, 20_000_000 * Money.SCALE, 20_000_000 * Money.SCALE),
+            new SearchCriteria("xiaomi note 12", "Phone", 1_000_000 * Money.SCALE, 30_000_000 * Money.SCALE),
+            new SearchCriteria("gaming", "Laptop", 5_000_000 * Money.SCALE, 25_000_000 * Money.SCALE),
+            new SearchCriteria("ai", null, 1_000_000 * Money.SCALE, 1_500_000 * Money.SCALE),
+            new SearchCriteria("", null, 30_000_000 * Money.SCALE, 1_000_000 * Money.SCALE),
+            new SearchCriteria("", null, 1_000_000 * Money.SCALE, 30_000_000 * Money.SCALE),
+    };
+
+    public static void main(String[] args) {
+        int size = Integer.parseInt(System.getProperty("bench.size", "200000"));
+        ProductCatalog catalog = CatalogGenerator.catalog(size);
+
+        Random rnd = new Random(7);
+        List<Product> all = new ArrayList<>(catalog.all());
+        for (int i = 0; i < size / 100; i++) {
+            Product p = all.get(rnd.nextInt(all.size()));
+            if (i % 2 == 0) {
+                p.setPrice(100_000 * (1 + rnd.nextInt(400)));
+                catalog.update(p);
+            } else {
+                catalog.remove(p);
+            }
+        }
+
+        System.out.printf("%-58s | %-8s | %-12s | %-12s%n", "query", "found", "index us/op", "scan us/op");
+        for (SearchCriteria c : QUERIES) {
+            List<Product> planned = catalog.search(c);
+            List<Product> scanned = scan(catalog, c);
+            if (!planned.equals(scanned)) {
+                System.out.println("MISMATCH for " + c + ": index=" + planned.size() + ", scan=" + scanned.size());
+                System.exit(1);
+            }
+            double indexUs = time(() -> catalog.search(c).size());
+            double scanUs = time(() -> scan(catalog, c).size());
+            System.out.printf("%-58s | %-8d | %12.1f | %12.1f%n", c, planned.size(), indexUs, scanUs);
+        }
+    }
+
+    private static List<Product> scan(ProductCatalog catalog, SearchCriteria c) {
+        List<Product> result = new ArrayList<>();
+        for (Product p : catalog.all()) {
+            if (c.matches(p)) result.add(p);
+        }
+        return result;
+    }
+
+    private interface Query {
+        int run();
+    }
+
+    // us/op, chạy lặp ít nhất 300ms sau 1 lần warmup
+    private static double time(Query q) {
+        long sink = q.run();
+        int n = 0;
+        long t0 = System.nanoTime(), elapsed;
+        do {
+            sink += q.run();
+            n++;
+            elapsed = System.nanoTime() - t0;
+        } while (elapsed < 300_000_000L);
+        if (sink == 42) System.out.println();
+        return elapsed / 1e3 / n;
+    }
+}
@@ -0,0 +1,157 @@
+package main;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Vẽ bảng sản phẩm (list / export): printf từng dòng (cách cũ) so với TableRenderer,
+ * ra file (PrintWriter vs FileChannel) và ra console (System.out chuyển sang file).
+ * Kiểm tra 2 cách ra cùng từng byte và %.2f của TableRenderer khớp String.format, thoát mã 1 nếu lệch.
+ * Chạy: ant bench -Dbench.main=main.TableRenderBench -Dbench.size=1000000
+ */
+public class TableRenderBench {
+
+    private static final String LINE =
+            "+----+--------+--------+----------------+----------+--------------+------+--------+--------+";
+
+    public static void main(String[] args) throws Exception {
+        int size = Integer.parseInt(System.getProperty("bench.size", "1000000"));
+        if (!checkMoney()) System.exit(1);
+        List<Product> products = new ArrayList<>(CatalogGenerator.catalog(size).all());
+
+        File a = new File("table-bench-printf.txt");
+        File b = new File("table-bench-renderer.txt");
+        double printfMs = Double.MAX_VALUE, rendererMs = Double.MAX_VALUE;
+        double consolePrintfMs = Double.MAX_VALUE, consoleRendererMs = Double.MAX_VALUE;
+        boolean same = true;
+        PrintStream realOut = System.out;
+        for (int round = 0; round < 3; round++) {
+            long t0 = System.nanoTime();
+            try (PrintWriter pw = new PrintWriter(new FileWriter(a))) {
+                printfTable(pw, products);
+            }
+            printfMs = Math.min(printfMs, (System.nanoTime() - t0) / 1e6);
+
+            t0 = System.nanoTime();
+            try (TableRenderer t = TableRenderer.file(b)) {
+                render(t, products);
+            }
+            rendererMs = Math.min(rendererMs, (System.nanoTime() - t0) / 1e6);
+            same &= Arrays.equals(Files.readAllBytes(a.toPath()), Files.readAllBytes(b.toPath()));
+
+            // console: System.out là PrintStream (autoflush như terminal) ghi vào file
+            try (PrintStream ps = new PrintStream(new BufferedOutputStream(new FileOutputStream(a)), true)) {
+                System.setOut(ps);
+                t0 = System.nanoTime();
+                PrintWriter pw = new PrintWriter(System.out, true);
+                printfTable(pw, products);
+                pw.flush();
+                consolePrintfMs = Math.min(consolePrintfMs, (System.nanoTime() - t0) / 1e6);
+            } finally {
+                System.setOut(realOut);
+            }
+            try (PrintStream ps = new PrintStream(new BufferedOutputStream(new FileOutputStream(b)), true)) {
+                System.setOut(ps);
+                t0 = System.nanoTime();
+                TableRenderer t = TableRenderer.console();
+                render(t, products);
+                t.flush();
+                consoleRendererMs = Math.min(consoleRendererMs, (System.nanoTime() - t0) / 1e6);
+            } finally {
+                System.setOut(realOut);
+            }
+            same &= Arrays.equals(Files.readAllBytes(a.toPath()), Files.readAllBytes(b.toPath()));
+        }
+
+        System.out.printf("rows=%d, file: printf %.1fms vs renderer %.1fms (x%.1f)%n",
+                size, printfMs, rendererMs, printfMs / rendererMs);
+        System.out.printf("rows=%d, console: printf %.1fms vs renderer %.1fms (x%.1f)%n",
+                size, consolePrintfMs, consoleRendererMs, consolePrintfMs / consoleRendererMs);
+        a.delete();
+        b.delete();
+        if (!same) {
+            System.out.println("MISMATCH: renderer output differs from printf");
+            System.exit(1);
+        }
+    }
+
+    // giống ProductManager trước khi dùng TableRenderer
+    private static void printfTable(PrintWriter pw, List<Product> products) {
+        pw.println(LINE);
+        pw.printf("| %-2s | %-6s | %-6s | %-14s | %-8s | %-12s | %-4s | %-6s | %-6s |%n",
+                "No", "ID", "Type", "Name", "Brand", "Price", "Qty", "Active", "Extra");
+        pw.println(LINE);
+        int idx = 1;
+        for (Product p : products) {
+            String extra = p instanceof Laptop
+                    ? "W:" + ((Laptop) p).getWarrantyMonths() + "m"
+                    : "5G:" + (((Phone) p).isSupport5G() ? "Yes" : "No");
+            pw.printf("| %-2d | %-6s | %-6s | %-14s | %-8s | %12.2f | %-4d | %-6s | %-6s |%n",
+                    idx++, p.getId(), cut(p.getType(), 6), cut(p.getName(), 14), cut(p.getBrand(), 8),
+                    p.getPrice(), p.getQuantity(), p.isActive() ? "Yes" : "No", cut(extra, 6));
+        }
+        pw.println(LINE);
+    }
+
+    private static void render(TableRenderer t, List<Product> products) throws Exception {
+        t.line(LINE);
+        t.cell("No", 2).cell("ID", 6).cell("Type", 6).cell("Name", 14).cell("Brand", 8)
+                .cell("Price", 12).cell("Qty", 4).cell("Active", 6).cell("Extra", 6).endRow();
+        t.line(LINE);
+        int idx = 1;
+        for (Product p : products) {
+            t.cell(idx++, 2).cell(p.getId(), 6).cell(p.getType(), 6, 6).cell(p.getName(), 14, 14)
+                    .cell(p.getBrand(), 8, 8).moneyCell(p.getPriceCents(), 12).cell(p.getQuantity(), 4)
+                    .cell(p.isActive() ? "Yes" : "No", 6).startCell();
+            if (p instanceof Laptop) t.append("W:").append(((Laptop) p).getWarrantyMonths()).append('m');
+            else t.append("5G:").append(((Phone) p).isSupport5G() ? "Yes" : "No");
+            t.endCell(6, 6).endRow();
+        }
+        t.line(LINE);
+    }
+
+    private static String cut(String s, int maxLen) {
+        if (s == null) return "";
+        if (s.length() <= maxLen) return s;
+        return s.substring(0, maxLen - 3) + "...";
+    }
+
+    // moneyCell phải ra đúng như "%12.2f" của cùng số tiền (BigDecimal, không qua double)
+    private static boolean checkMoney() throws Exception {
+        long[] fixed = {0, 1, -1, 5, 10, 99, 100, -150, 2_800_000_000L, 9_999_999_999L, Long.MAX_VALUE, Long.MIN_VALUE};
+        Random rnd = new Random(1);
+        File tmp = File.createTempFile("money", ".txt");
+        int checked = 0;
+        try (TableRenderer t = TableRenderer.file(tmp)) {
+            for (int i = 0; i < 300_000 + fixed.length; i++) {
+                long cents;
+                if (i < fixed.length) cents = fixed[i];
+                else if ((i & 3) == 0) cents = rnd.nextInt(100_000_000);
+                else if ((i & 3) == 1) cents = 100L * rnd.nextInt(500_000_000) - 5;
+                else if ((i & 3) == 2) cents = rnd.nextInt(2_000_000) - 1_000_000;
+                else cents = rnd.nextLong();
+                StringBuilder sb = new StringBuilder();
+                t.appendMoney(sb, cents);
+                String expected = String.format("%.2f", BigDecimal.valueOf(cents, 2));
+                if (!expected.contentEquals(sb)) {
+                    System.out.println("MISMATCH %.2f of " + cents + " cents: renderer=" + sb + ", format=" + expected);
+                    return false;
+                }
+                checked++;
+            }
+        }
+        tmp.delete();
+        System.out.println("moneyCell matches String.format(\"%.2f\") on " + checked + " values");
+        return true;
+    }
+}
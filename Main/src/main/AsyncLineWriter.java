@@ -0,0 +1,308 @@
+package main;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Ghi file text bất đồng bộ:
+ * - luồng gọi chỉ đưa item vào hàng đợi có giới hạn (ring buffer)
+ * - 1 luồng nền lấy cả lô item, format thành chuỗi và ghi 1 lần cho cả lô
+ * - khi hàng đợi đầy thì xử lý theo OverflowPolicy
+ * - mức bền dữ liệu (chỉ write, fsync mỗi lô, fsync mỗi N ms) theo Durability
+ * File được giữ mở ở chế độ append trong suốt vòng đời writer.
+ */
+public class AsyncLineWriter<T> {
+
+    /** Cách xử lý khi hàng đợi đầy. */
+    public enum OverflowPolicy {
+        BLOCK,      // luồng gọi chờ tới khi có chỗ (không mất dữ liệu)
+        DROP,       // bỏ item mới, chỉ tăng bộ đếm
+        DROP_COUNT  // bỏ item mới và ghi 1 dòng thông báo số item bị bỏ vào file
+    }
+
+    /** Khi nào dữ liệu đã ghi được fsync xuống đĩa. */
+    public enum Durability {
+        FLUSH_PER_BATCH,  // 1 lần write cho mỗi lô, để OS tự đẩy xuống đĩa
+        FSYNC_PER_BATCH,  // write + fsync mỗi lô
+        FSYNC_INTERVAL    // write mỗi lô, fsync tối đa mỗi syncIntervalMs (group commit theo thời gian)
+    }
+
+    /** Format 1 item thành 1 dòng, hoặc vài dòng liền nhau (không gồm ký tự xuống dòng cuối). */
+    public interface LineFormatter<T> {
+        void format(T item, StringBuilder out);
+    }
+
+    /** Nhận các item của lô vừa ghi xong (chạy trên luồng nền, trước khi flush() trả về). */
+    public interface BatchListener<T> {
+        void written(List<T> items) throws IOException;
+    }
+
+    private static final int MAX_BATCH = 1024;
+    private static final Object STOP = new Object();
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private final File file;
+    private final OverflowPolicy policy;
+    private final Durability durability;
+    private final long syncIntervalNanos;
+    private final LineFormatter<T> formatter;
+    private final BlockingQueue<Object> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong pendingDropNotice = new AtomicLong();
+    private final Thread thread;
+
+    private volatile LongFunction<T> dropNotice;
+    private volatile BatchListener<T> batchListener;
+    private volatile Consumer<IOException> errorHandler;
+    private volatile boolean closed;
+    private FileOutputStream out;
+    private FileChannel channel;
+    // chỉ dùng trên luồng nền
+    private boolean unsynced;
+    private long lastSync = System.nanoTime();
+
+    public AsyncLineWriter(String name, File file, int capacity, OverflowPolicy policy, LineFormatter<T> formatter) {
+        this(name, file, capacity, policy, Durability.FLUSH_PER_BATCH, 0, formatter);
+    }
+
+    public AsyncLineWriter(String name, File file, int capacity, OverflowPolicy policy,
+                           Durability durability, long syncIntervalMs, LineFormatter<T> formatter) {
+        this.file = file;
+        this.policy = policy;
+        this.durability = durability;
+        this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, syncIntervalMs));
+        this.formatter = formatter;
+        this.queue = new ArrayBlockingQueue<>(Math.max(16, capacity));
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    // item dùng để ghi thông báo "đã bỏ n dòng" khi policy là DROP_COUNT
+    public void setDropNotice(LongFunction<T> dropNotice) {
+        this.dropNotice = dropNotice;
+    }
+
+    // ví dụ ghi thêm cả lô sang kho khác (SalesStore), lỗi IO đi qua errorHandler
+    public void setBatchListener(BatchListener<T> batchListener) {
+        this.batchListener = batchListener;
+    }
+
+    // mặc định in ra System.err
+    public void setErrorHandler(Consumer<IOException> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /** Đưa item vào hàng đợi. Trả về false nếu item bị bỏ (hàng đợi đầy hoặc writer đã đóng). */
+    public boolean offer(T item) {
+        if (closed) return false;
+        if (policy == OverflowPolicy.BLOCK) {
+            try {
+                queue.put(item);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        if (queue.offer(item)) return true;
+        dropped.incrementAndGet();
+        if (policy == OverflowPolicy.DROP_COUNT) pendingDropNotice.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Chờ tới khi mọi item đã đưa vào trước đó được ghi xuống file
+     * (và fsync nếu durability không phải FLUSH_PER_BATCH).
+     */
+    public void flush() {
+        if (closed || !thread.isAlive()) return;
+        CountDownLatch done = new CountDownLatch(1);
+        try {
+            queue.put(done);
+            done.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Ghi nốt hàng đợi rồi dừng luồng nền và đóng file. */
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            queue.put(STOP);
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Object> batch = new ArrayList<>(MAX_BATCH);
+        StringBuilder sb = new StringBuilder(8192);
+        boolean stop = false;
+        long pollNanos = Math.min(TimeUnit.MILLISECONDS.toNanos(200), syncIntervalNanos);
+        try {
+            while (!stop) {
+                Object first = queue.poll(pollNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    // rảnh: ghi nốt thông báo drop còn treo (nếu có), fsync nếu đã tới hạn
+                    appendDropNotice(sb);
+                    write(sb);
+                    afterBatch(false);
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                stop = writeBatch(batch, sb);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            afterBatch(true);
+            closeFile();
+        }
+    }
+
+    // trả về true nếu gặp STOP
+    private boolean writeBatch(List<Object> batch, StringBuilder sb) {
+        boolean stop = false;
+        BatchListener<T> listener = batchListener;
+        List<T> items = listener == null ? null : new ArrayList<>(batch.size());
+        for (Object o : batch) {
+            if (o == STOP) {
+                stop = true;
+            } else if (o instanceof CountDownLatch) {
+                write(sb);
+                notify(listener, items);
+                afterBatch(true);
+                ((CountDownLatch) o).countDown();
+            } else {
+                @SuppressWarnings("unchecked")
+                T item = (T) o;
+                append(item, sb);
+                if (items != null) items.add(item);
+            }
+        }
+        appendDropNotice(sb);
+        write(sb);
+        notify(listener, items);
+        afterBatch(false);
+        return stop;
+    }
+
+    private void notify(BatchListener<T> listener, List<T> items) {
+        if (listener == null || items.isEmpty()) return;
+        try {
+            listener.written(items);
+        } catch (IOException e) {
+            reportError(e);
+        } catch (RuntimeException e) {
+            System.err.println("Batch listener failed for " + file + ": " + e);
+        } finally {
+            items.clear();
+        }
+    }
+
+    private void append(T item, StringBuilder sb) {
+        int mark = sb.length();
+        try {
+            formatter.format(item, sb);
+            sb.append(NEW_LINE);
+        } catch (RuntimeException e) {
+            sb.setLength(mark); // bỏ phần dòng format dở
+            System.err.println("Could not format line for " + file + ": " + e);
+        }
+    }
+
+    private void appendDropNotice(StringBuilder sb) {
+        LongFunction<T> notice = dropNotice;
+        if (notice == null) return;
+        long n = pendingDropNotice.getAndSet(0);
+        if (n > 0) append(notice.apply(n), sb);
+    }
+
+    private void write(StringBuilder sb) {
+        if (sb.length() == 0) return;
+        try {
+            if (channel == null) {
+                out = new FileOutputStream(file, true);
+                channel = out.getChannel();
+            }
+            ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            while (buf.hasRemaining()) {
+                channel.write(buf);
+            }
+            unsynced = true;
+        } catch (IOException e) {
+            reportError(e);
+        } finally {
+            sb.setLength(0);
+        }
+    }
+
+    // fsync theo durability; force = true khi flush() / đóng writer
+    private void afterBatch(boolean force) {
+        if (!unsynced || channel == null || durability == Durability.FLUSH_PER_BATCH) return;
+        long now = System.nanoTime();
+        if (durability == Durability.FSYNC_INTERVAL && !force && now - lastSync < syncIntervalNanos) return;
+        try {
+            channel.force(false);
+            unsynced = false;
+            lastSync = now;
+        } catch (IOException e) {
+            reportError(e);
+        }
+    }
+
+    private void reportError(IOException e) {
+        Consumer<IOException> handler = errorHandler;
+        if (handler != null) {
+            try {
+                handler.accept(e);
+                return;
+            } catch (RuntimeException ignored) {
+                // rơi xuống in ra System.err
+            }
+        }
+        System.err.println("Could not write " + file + ": " + e.getMessage());
+    }
+
+    private void closeFile() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            reportError(e);
+        }
+        out = null;
+        channel = null;
+    }
+}
@@ -0,0 +1,253 @@
+package main;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Import hàng loạt (upsert) từ file cùng định dạng products.txt (type;id;name;brand;price;qty;active;extra).
+ * Chạy theo lô BATCH_SIZE dòng, mỗi lô đi qua các bước:
+ * - read: đọc dòng (dòng trống bị bỏ qua)
+ * - parse: DataLineTokenizer (như Product.fromDataLine)
+ * - validate: cùng điều kiện với thêm sản phẩm (ID / tên không rỗng, giá / số lượng / bảo hành >= 0)
+ * - dedupe: ID trùng trong file thì giữ dòng đầu (như khi load)
+ * - apply: ProductCatalog.upsertAll cho cả lô, ID đã có trong index thì cập nhật, chưa có thì thêm
+ *   (không ghi journal / log từng dòng, bên gọi lưu 1 lần sau khi import xong)
+ * Dòng bị loại được ghi vào file rejects: "số dòng \t lý do \t dòng gốc".
+ * Không thread-safe: mỗi lần import dùng 1 importer.
+ */
+public class BulkImporter {
+
+    public static final int BATCH_SIZE = 10_000;
+
+    private final ProductCatalog catalog;
+    private final DataLineTokenizer tk = new DataLineTokenizer();
+    // key ID -> số dòng đầu tiên có ID đó trong file
+    private final HashMap<String, Long> seen = new HashMap<>();
+
+    public BulkImporter(ProductCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /** Thống kê 1 lần import (thời gian từng bước tính bằng nano giây). */
+    public static class Report {
+        long lines;
+        long accepted;
+        long rejected;
+        long duplicates;
+        int added;
+        int updated;
+        long readNanos;
+        long parseNanos;
+        long validateNanos;
+        long dedupeNanos;
+        long applyNanos;
+        long totalNanos;
+        File rejectsFile;
+        String error;       // đọc file lỗi giữa chừng (các lô trước đó đã được áp dụng)
+        String saveError;   // áp dụng xong nhưng chưa ghi được xuống đĩa
+
+        public long getLines() {
+            return lines;
+        }
+
+        public long getAccepted() {
+            return accepted;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public long getDuplicates() {
+            return duplicates;
+        }
+
+        public int getAdded() {
+            return added;
+        }
+
+        public int getUpdated() {
+            return updated;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public double getLinesPerSecond() {
+            return totalNanos == 0 ? 0 : lines * 1e9 / totalNanos;
+        }
+
+        /** File rejects, null nếu không có dòng nào bị loại. */
+        public File getRejectsFile() {
+            return rejectsFile;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public String getSaveError() {
+            return saveError;
+        }
+
+        public String stageTimes() {
+            return String.format("read=%.1fms, parse=%.1fms, validate=%.1fms, dedupe=%.1fms, apply=%.1fms",
+                    readNanos / 1e6, parseNanos / 1e6, validateNanos / 1e6, dedupeNanos / 1e6, applyNanos / 1e6);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("lines=%d, accepted=%d (added=%d, updated=%d), rejected=%d (duplicates=%d), "
+                            + "time=%.1fms, %.0f lines/s, %s",
+                    lines, accepted, added, updated, rejected, duplicates,
+                    totalNanos / 1e6, getLinesPerSecond(), stageTimes());
+        }
+    }
+
+    // 1 dòng trong lô
+    private static final class Row {
+        final long lineNo;
+        final String line;
+        Product product;
+        String reason; // lý do bị loại, null = hợp lệ
+
+        Row(long lineNo, String line) {
+            this.lineNo = lineNo;
+            this.line = line;
+        }
+    }
+
+    /**
+     * Import file vào catalog, dòng lỗi ghi vào rejectsFile (bị xóa nếu không có dòng lỗi).
+     * Lỗi đọc file giữa chừng không ném ra mà ghi vào Report.error.
+     */
+    public Report run(File file, File rejectsFile) {
+        Report report = new Report();
+        long t0 = System.nanoTime();
+        Writer rejects = null;
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+            List<Row> batch = new ArrayList<>(BATCH_SIZE);
+            boolean more = true;
+            while (more) {
+                long t = System.nanoTime();
+                more = read(br, batch, report);
+                report.readNanos += System.nanoTime() - t;
+                if (batch.isEmpty()) continue;
+
+                t = System.nanoTime();
+                parse(batch);
+                long t1 = System.nanoTime();
+                validate(batch);
+                long t2 = System.nanoTime();
+                List<Product> accepted = dedupe(batch, report);
+                long t3 = System.nanoTime();
+                int added = catalog.upsertAll(accepted);
+                long t4 = System.nanoTime();
+                report.parseNanos += t1 - t;
+                report.validateNanos += t2 - t1;
+                report.dedupeNanos += t3 - t2;
+                report.applyNanos += t4 - t3;
+                report.accepted += accepted.size();
+                report.added += added;
+                report.updated += accepted.size() - added;
+
+                for (Row r : batch) {
+                    if (r.reason == null) continue;
+                    if (rejects == null) {
+                        rejects = new BufferedWriter(new OutputStreamWriter(
+                                new FileOutputStream(rejectsFile), StandardCharsets.UTF_8));
+                    }
+                    rejects.write(r.lineNo + "\t" + r.reason + "\t" + r.line + "\n");
+                    report.rejected++;
+                }
+                batch.clear();
+            }
+        } catch (IOException e) {
+            report.error = e.getMessage();
+        } finally {
+            if (rejects != null) {
+                try {
+                    rejects.close();
+                    report.rejectsFile = rejectsFile;
+                } catch (IOException e) {
+                    if (report.error == null) report.error = "Cannot write rejects file: " + e.getMessage();
+                }
+            } else {
+                rejectsFile.delete(); // rejects của lần import trước
+            }
+        }
+        report.totalNanos = System.nanoTime() - t0;
+        return report;
+    }
+
+    // đọc tới BATCH_SIZE dòng không trống; false nếu đã hết file
+    private static boolean read(BufferedReader br, List<Row> batch, Report report) throws IOException {
+        String line;
+        while (batch.size() < BATCH_SIZE && (line = br.readLine()) != null) {
+            report.lines++;
+            if (DataLineTokenizer.isBlank(line, 0, line.length())) continue;
+            batch.add(new Row(report.lines, line));
+        }
+        return batch.size() == BATCH_SIZE;
+    }
+
+    private void parse(List<Row> batch) {
+        for (Row r : batch) {
+            try {
+                if (tk.split(r.line, 0, r.line.length())) r.product = tk.toProduct();
+                if (r.product == null) r.reason = "Invalid format (type must be Laptop/Phone, 8 fields).";
+            } catch (NumberFormatException e) {
+                r.reason = "Invalid number: " + e.getMessage();
+            }
+        }
+    }
+
+    private static void validate(List<Row> batch) {
+        for (Row r : batch) {
+            Product p = r.product;
+            if (p == null) continue;
+            String reason = null;
+            if (p.getId().trim().isEmpty()) reason = "ID must not be empty.";
+            else if (p.getName().trim().isEmpty()) reason = "Name must not be empty.";
+            else if (p.getPriceCents() < 0) reason = "Price must be >= 0.";
+            else if (p.getQuantity() < 0) reason = "Quantity must be >= 0.";
+            else if (p instanceof Laptop && ((Laptop) p).getWarrantyMonths() < 0) {
+                reason = "Warranty months must be >= 0.";
+            }
+            if (reason != null) {
+                r.reason = reason;
+                r.product = null;
+            }
+        }
+    }
+
+    // bỏ ID trùng trong file (giữ dòng đầu); ID đã có trong catalog thì là cập nhật
+    private List<Product> dedupe(List<Row> batch, Report report) {
+        List<Product> accepted = new ArrayList<>(batch.size());
+        for (Row r : batch) {
+            if (r.product == null) continue;
+            Long first = seen.putIfAbsent(ProductCatalog.key(r.product.getId()), r.lineNo);
+            if (first != null) {
+                r.reason = "Duplicate ID in file (first at line " + first + ").";
+                r.product = null;
+                report.duplicates++;
+                continue;
+            }
+            accepted.add(r.product);
+        }
+        return accepted;
+    }
+}
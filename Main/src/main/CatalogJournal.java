@@ -0,0 +1,270 @@
+package main;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Journal ghi thêm (append-only) các thay đổi của catalog, mỗi dòng 1 thay đổi:
+ * - A|dataLine   thêm sản phẩm
+ * - U|dataLine   sửa sản phẩm (ghi lại cả dòng sau khi sửa)
+ * - D|id         xóa sản phẩm
+ * - Q|id|qty     đổi tồn kho (ghi số lượng mới, không ghi chênh lệch)
+ * Dòng đầu G|generation: số thế hệ, tăng sau mỗi lần compact. Snapshot ghi lại thế hệ nó đã gồm
+ * nên khi load biết journal nào đã nằm trong snapshot mà không phải so thời điểm sửa file.
+ * Mọi thao tác đều idempotent nên replay lại journal đã được compact một phần vẫn đúng.
+ * sync() flush + fsync, chi phí tỉ lệ với số thay đổi chứ không phải kích thước catalog.
+ * Thread-safe: các phương thức ghi đồng bộ trên journal. compact() chỉ giữ lock journal lúc
+ * đổi file (products.journal -> products.journal.compacting), ghi snapshot ngoài lock
+ * nên quầy bán hàng (ghi journal khi đang giữ lock SKU) không bị chặn theo kích thước catalog.
+ */
+public class CatalogJournal {
+
+    private final File file;
+    private final File rotated;
+    // chỉ 1 compact chạy 1 lúc (khác lock của journal)
+    private final Object compactLock = new Object();
+    private FileOutputStream out;
+    private Writer writer;
+    private DataLineWriter lines;
+    private int entries;
+    private long generation = 1;
+
+    public CatalogJournal(File file) {
+        this.file = file;
+        this.rotated = new File(file.getPath() + ".compacting");
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /** Journal đang được compact; còn lại sau khi load nghĩa là lần compact trước chưa xong. */
+    public File getRotatedFile() {
+        return rotated;
+    }
+
+    // số dòng đang có trong journal (kể cả dòng đọc lại lúc replay)
+    public synchronized int getEntries() {
+        return entries;
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /** Thế hệ các dòng ghi tiếp theo (sau khi replay journal đang có trên đĩa). */
+    public synchronized void setGeneration(long generation) {
+        this.generation = generation;
+    }
+
+    /** Thế hệ ghi ở dòng G| đầu file, -1 nếu không có file hoặc journal cũ không có dòng này. */
+    public static long readGeneration(File file) throws IOException {
+        if (!file.exists()) return -1;
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line = br.readLine();
+            if (line == null || !line.startsWith("G|")) return -1;
+            try {
+                return Long.parseLong(line.substring(2));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+
+    public synchronized void recordAdd(Product p) throws IOException {
+        open().write("A|", p);
+        entries++;
+    }
+
+    public synchronized void recordUpdate(Product p) throws IOException {
+        open().write("U|", p);
+        entries++;
+    }
+
+    public synchronized void recordDelete(Product p) throws IOException {
+        DataLineWriter w = open();
+        w.begin().append("D|").append(p.getId());
+        w.end();
+        entries++;
+    }
+
+    // đường bán hàng: ghép dòng vào builder dùng lại, không tạo String
+    public synchronized void recordQuantity(Product p) throws IOException {
+        DataLineWriter w = open();
+        w.begin().append("Q|").append(p.getId()).append('|').append(p.getQuantity());
+        w.end();
+        entries++;
+    }
+
+    private DataLineWriter open() throws IOException {
+        if (writer == null) {
+            boolean empty = file.length() == 0;
+            out = new FileOutputStream(file, true);
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            lines = new DataLineWriter(writer, "\n");
+            if (empty) {
+                lines.begin().append("G|").append(generation);
+                lines.end();
+            }
+        }
+        return lines;
+    }
+
+    /** Đẩy các thay đổi đang buffer xuống đĩa (flush + fsync). */
+    public synchronized void sync() throws IOException {
+        if (writer == null) return;
+        writer.flush();
+        out.getFD().sync();
+    }
+
+    /** Ghi snapshot (hoặc bất kỳ dạng lưu đầy đủ nào) gồm journal tới thế hệ generation. */
+    public interface SnapshotWriter {
+        void write(long generation) throws IOException;
+    }
+
+    /**
+     * Compact: dưới lock journal chỉ đóng file và đổi tên thành .compacting (thế hệ g), các thay đổi
+     * sau đó ghi vào journal mới (thế hệ g + 1); ghi snapshot ngoài lock rồi xóa file .compacting.
+     * Snapshot có thể đã gồm một phần thay đổi của thế hệ g + 1, replay lại vẫn đúng vì entry idempotent.
+     * Lần compact trước lỗi (.compacting còn đó) thì nối journal hiện tại vào cuối file đó.
+     */
+    public void compact(SnapshotWriter snapshot) throws IOException {
+        synchronized (compactLock) {
+            long g = rotate();
+            snapshot.write(g);
+            Files.deleteIfExists(rotated.toPath());
+        }
+    }
+
+    // đổi file dưới lock journal, trả về thế hệ snapshot sẽ gồm
+    private synchronized long rotate() throws IOException {
+        close();
+        if (file.exists()) {
+            if (rotated.exists()) {
+                try (FileChannel src = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                     FileChannel dst = FileChannel.open(rotated.toPath(), StandardOpenOption.WRITE,
+                             StandardOpenOption.APPEND)) {
+                    long pos = 0, size = src.size();
+                    while (pos < size) {
+                        pos += src.transferTo(pos, size - pos, dst);
+                    }
+                    dst.force(true);
+                }
+                Files.delete(file.toPath());
+            } else {
+                Files.move(file.toPath(), rotated.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        entries = 0;
+        return generation++;
+    }
+
+    /** Xóa journal (đã nằm trong snapshot), các dòng ghi sau thuộc thế hệ generation. */
+    public synchronized void reset(long generation) throws IOException {
+        close();
+        new FileOutputStream(file, false).close();
+        entries = 0;
+        this.generation = generation;
+    }
+
+    public synchronized void close() throws IOException {
+        if (writer == null) return;
+        try {
+            sync();
+        } finally {
+            writer.close();
+            writer = null;
+            lines = null;
+            out = null;
+        }
+    }
+
+    /** Kết quả replay. */
+    public static class ReplayResult {
+        public final int applied;
+        public final int skipped;
+
+        ReplayResult(int applied, int skipped) {
+            this.applied = applied;
+            this.skipped = skipped;
+        }
+    }
+
+    /**
+     * Áp dụng lại journal lên catalog. Dòng hỏng (ví dụ dòng cuối bị ghi dở do crash)
+     * hoặc tham chiếu ID không tồn tại thì bỏ qua và đếm lại.
+     */
+    public synchronized ReplayResult replay(ProductCatalog catalog) throws IOException {
+        if (!file.exists()) return new ReplayResult(0, 0);
+        sync();
+        return replay(catalog, file);
+    }
+
+    /** Replay journal .compacting (trước journal hiện tại), các dòng được tính vào getEntries(). */
+    public synchronized ReplayResult replayRotated(ProductCatalog catalog) throws IOException {
+        if (!rotated.exists()) return new ReplayResult(0, 0);
+        return replay(catalog, rotated);
+    }
+
+    private ReplayResult replay(ProductCatalog catalog, File from) throws IOException {
+        int applied = 0, skipped = 0;
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new FileInputStream(from), StandardCharsets.UTF_8))) {
+            DataLineTokenizer tk = new DataLineTokenizer();
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("G|")) continue;
+                entries++;
+                try {
+                    if (apply(catalog, line, tk)) applied++;
+                    else skipped++;
+                } catch (RuntimeException e) {
+                    skipped++;
+                }
+            }
+        }
+        return new ReplayResult(applied, skipped);
+    }
+
+    private static boolean apply(ProductCatalog catalog, String line, DataLineTokenizer tk) {
+        if (line.length() < 3 || line.charAt(1) != '|') return false;
+        switch (line.charAt(0)) {
+            case 'A':
+            case 'U': {
+                // tách ngay trên line (bỏ "A|"), không cắt substring
+                Product p = tk.split(line, 2, line.length()) ? tk.toProduct() : null;
+                if (p == null) return false;
+                catalog.put(p);
+                return true;
+            }
+            case 'D': {
+                Product p = catalog.findById(line.substring(2));
+                return p != null && catalog.remove(p);
+            }
+            case 'Q': {
+                int sep = line.lastIndexOf('|');
+                if (sep < 2) return false;
+                Product p = catalog.findById(line.substring(2, sep));
+                if (p == null) return false;
+                p.setQuantity(Integer.parseInt(line.substring(sep + 1)));
+                catalog.update(p);
+                return true;
+            }
+            default:
+                return false;
+        }
+    }
+}
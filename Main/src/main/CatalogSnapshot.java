@@ -0,0 +1,287 @@
+package main;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot nhị phân của catalog (products.bin), đọc lại bằng FileChannel.read theo vị trí
+ * nên khi khởi động không phải Double.parseDouble / Integer.parseInt từng dòng.
+ * Không map file: trên Windows file đang được map thì không thay được (compact rename đè products.bin),
+ * mà Java 8 không có cách unmap chủ động.
+ *
+ * Layout (big-endian):
+ * - header 64 byte: magic, version, count, reserved, heapOffset (long), heapLength (long),
+ *   generation (long), textLength (long), textModified (long), textCrc (int), reserved
+ * - count record, mỗi record RECORD_SIZE byte:
+ *   type(1) flags(1) pad(2) quantity(4) extra(4) priceCents(8, long như Money)
+ *   idOff idLen nameOff nameLen brandOff brandLen (6 x int, offset tính từ đầu heap)
+ * - heap: chuỗi UTF-8 của id / name / brand
+ * Snapshot khác VERSION (bản 1, 2 lưu giá bằng double) không đọc: load chuyển sang products.txt,
+ * lần compact sau ghi lại bản mới.
+ */
+public class CatalogSnapshot {
+
+    private static final int MAGIC = 0x50434154; // "PCAT"
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 48;
+    private static final int READ_BLOCK = 4096; // số record mỗi lần đọc
+
+    private static final byte TYPE_LAPTOP = 1;
+    private static final byte TYPE_PHONE = 2;
+
+    private static final int FLAG_ACTIVE = 1;
+    private static final int FLAG_5G = 2;
+
+    private CatalogSnapshot() {
+    }
+
+    /**
+     * Thông tin trong header để load biết snapshot đã gồm những gì:
+     * - generation: journal (CatalogJournal.getGeneration) có số này trở xuống đã nằm trong snapshot
+     * - textLength / textModified / textCrc: products.txt được export cùng lần compact
+     *   (textLength -1: không rõ)
+     */
+    public static final class Header {
+        public static final Header NONE = new Header(0, -1, 0, 0);
+
+        private final long generation;
+        private final long textLength;
+        private final long textModified;
+        private final int textCrc;
+        int count;
+        long heapOffset;
+        long heapLength;
+
+        public Header(long generation, long textLength, long textModified, int textCrc) {
+            this.generation = generation;
+            this.textLength = textLength;
+            this.textModified = textModified;
+            this.textCrc = textCrc;
+        }
+
+        public long getGeneration() {
+            return generation;
+        }
+
+        public long getTextLength() {
+            return textLength;
+        }
+
+        public int getTextCrc() {
+            return textCrc;
+        }
+
+        /**
+         * f đúng là products.txt được export cùng snapshot: cùng độ dài và cùng thời điểm sửa
+         * (rename giữ nguyên), khác thời điểm thì so CRC32 cả file. Không rõ thì coi như đúng.
+         */
+        public boolean matchesText(File f) throws IOException {
+            if (textLength < 0) return true;
+            if (f.length() != textLength) return false;
+            return f.lastModified() == textModified || crc32(f) == textCrc;
+        }
+    }
+
+    /** Như write(file, products, header) với Header.NONE (không gắn journal / products.txt). */
+    public static int write(File file, Iterable<Product> products) throws IOException {
+        return write(file, products, Header.NONE);
+    }
+
+    /**
+     * Ghi snapshot ra file tạm, fsync rồi rename, file cũ vẫn nguyên nếu bị crash giữa chừng.
+     * Trả về số sản phẩm đã ghi (catalog có thể đang thay đổi ở luồng khác).
+     */
+    public static int write(File file, Iterable<Product> products, Header info) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        ByteArrayOutputStream heap = new ByteArrayOutputStream(1 << 16);
+        int count = 0;
+
+        try (RandomAccessFile raf = new RandomAccessFile(tmp, "rw");
+             FileChannel ch = raf.getChannel()) {
+            raf.setLength(0);
+            ByteBuffer buf = ByteBuffer.allocateDirect(RECORD_SIZE * 1024);
+            ch.position(HEADER_SIZE);
+
+            for (Product p : products) {
+                if (buf.remaining() < RECORD_SIZE) {
+                    flush(ch, buf);
+                }
+                writeRecord(buf, p, heap);
+                count++;
+            }
+            flush(ch, buf);
+
+            long heapOffset = HEADER_SIZE + (long) count * RECORD_SIZE;
+            ch.write(ByteBuffer.wrap(heap.toByteArray()), heapOffset);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(0)
+                    .putLong(heapOffset).putLong(heap.size())
+                    .putLong(info.generation).putLong(info.textLength).putLong(info.textModified)
+                    .putInt(info.textCrc).putInt(0);
+            header.flip();
+            ch.write(header, 0);
+            ch.force(true);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    /** Chỉ đọc header (kiểm tra magic / version / kích thước), không đọc record. */
+    public static Header readHeader(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel ch = raf.getChannel()) {
+            return readHeader(ch, file);
+        }
+    }
+
+    private static Header readHeader(FileChannel ch, File file) throws IOException {
+        if (ch.size() < HEADER_SIZE) throw new IOException("Snapshot too small: " + file);
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(ch, buf, 0);
+        if (buf.getInt() != MAGIC) throw new IOException("Not a catalog snapshot: " + file);
+        int version = buf.getInt();
+        if (version != VERSION) throw new IOException("Unsupported snapshot version " + version);
+        int count = buf.getInt();
+        buf.getInt();
+        long heapOffset = buf.getLong();
+        long heapLength = buf.getLong();
+        Header h = new Header(buf.getLong(), buf.getLong(), buf.getLong(), buf.getInt());
+        if (count < 0 || heapOffset != HEADER_SIZE + (long) count * RECORD_SIZE
+                || heapLength < 0 || heapLength > Integer.MAX_VALUE || heapOffset + heapLength > ch.size()) {
+            throw new IOException("Corrupted snapshot header: " + file);
+        }
+        h.count = count;
+        h.heapOffset = heapOffset;
+        h.heapLength = heapLength;
+        return h;
+    }
+
+    public static List<Product> read(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel ch = raf.getChannel()) {
+            Header header = readHeader(ch, file);
+            int count = header.count;
+            long recordsOffset = header.heapOffset - (long) count * RECORD_SIZE;
+
+            // chuỗi của mọi record: đọc 1 lần vào heap Java
+            byte[] heap = new byte[(int) header.heapLength];
+            readFully(ch, ByteBuffer.wrap(heap), header.heapOffset);
+
+            List<Product> result = new ArrayList<>(count);
+            ByteBuffer records = ByteBuffer.allocate(RECORD_SIZE * READ_BLOCK);
+            for (int first = 0; first < count; first += READ_BLOCK) {
+                int n = Math.min(READ_BLOCK, count - first);
+                records.clear().limit(n * RECORD_SIZE);
+                readFully(ch, records, recordsOffset + (long) first * RECORD_SIZE);
+                for (int j = 0; j < n; j++) {
+                    result.add(readRecord(records, j * RECORD_SIZE, heap, first + j));
+                }
+            }
+            return result;
+        }
+    }
+
+    private static Product readRecord(ByteBuffer records, int base, byte[] heap, int index) throws IOException {
+        byte type = records.get(base);
+        int flags = records.get(base + 1);
+        int qty = records.getInt(base + 4);
+        int extra = records.getInt(base + 8);
+        long priceCents = records.getLong(base + 12);
+
+        String id = string(heap, records.getInt(base + 20), records.getInt(base + 24), index);
+        String name = string(heap, records.getInt(base + 28), records.getInt(base + 32), index);
+        String brand = string(heap, records.getInt(base + 36), records.getInt(base + 40), index);
+        boolean active = (flags & FLAG_ACTIVE) != 0;
+
+        Product p;
+        if (type == TYPE_LAPTOP) {
+            p = new Laptop(id, name, brand, 0, qty, active, extra);
+        } else if (type == TYPE_PHONE) {
+            p = new Phone(id, name, brand, 0, qty, active, (flags & FLAG_5G) != 0);
+        } else {
+            throw new IOException("Unknown product type " + type + " at record " + index);
+        }
+        p.setPriceCents(priceCents);
+        return p;
+    }
+
+    /** CRC32 của cả file (đọc tuần tự, buffer 64 KB). */
+    public static int crc32(File f) throws IOException {
+        CRC32 crc = new CRC32();
+        try (RandomAccessFile raf = new RandomAccessFile(f, "r");
+             FileChannel ch = raf.getChannel()) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16);
+            while (ch.read(buf) >= 0) {
+                buf.flip();
+                crc.update(buf);
+                buf.clear();
+            }
+        }
+        return (int) crc.getValue();
+    }
+
+    // đọc theo vị trí cho tới khi đầy buf (FileChannel.read có thể trả về ít hơn)
+    private static void readFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, position);
+            if (n < 0) throw new IOException("Unexpected end of snapshot");
+            position += n;
+        }
+        buf.flip();
+    }
+
+    private static void writeRecord(ByteBuffer buf, Product p, ByteArrayOutputStream heap) {
+        byte type;
+        int flags = p.isActive() ? FLAG_ACTIVE : 0;
+        int extra = 0;
+        if (p instanceof Laptop) {
+            type = TYPE_LAPTOP;
+            extra = ((Laptop) p).getWarrantyMonths();
+        } else if (p instanceof Phone) {
+            type = TYPE_PHONE;
+            if (((Phone) p).isSupport5G()) flags |= FLAG_5G;
+        } else {
+            throw new IllegalArgumentException("Unsupported product type: " + p.getType());
+        }
+
+        buf.put(type).put((byte) flags).putShort((short) 0);
+        buf.putInt(p.getQuantity()).putInt(extra).putLong(p.getPriceCents());
+        putString(buf, p.getId(), heap);
+        putString(buf, p.getName(), heap);
+        putString(buf, p.getBrand(), heap);
+        buf.putInt(0); // pad tới RECORD_SIZE
+    }
+
+    private static void putString(ByteBuffer buf, String s, ByteArrayOutputStream heap) {
+        byte[] bytes = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        buf.putInt(heap.size()).putInt(bytes.length);
+        heap.write(bytes, 0, bytes.length);
+    }
+
+    private static void flush(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            ch.write(buf);
+        }
+        buf.clear();
+    }
+
+    private static String string(byte[] heap, int off, int len, int index) throws IOException {
+        if (off < 0 || len < 0 || off > heap.length - len) {
+            throw new IOException("Corrupted string at record " + index);
+        }
+        return new String(heap, off, len, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,60 @@
+package main;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Số liệu tồn kho cho dashboard (kết quả InventoryService.dashboard). Giá trị tính bằng cent (Money).
+ */
+public class DashboardStats {
+
+    private final long totalQuantity;
+    private final long totalValue;
+    private final long laptopQuantity;
+    private final long laptopValue;
+    private final long phoneQuantity;
+    private final long phoneValue;
+    private final List<Product> topByPrice;
+
+    public DashboardStats(long totalQuantity, long totalValue,
+                          long laptopQuantity, long laptopValue,
+                          long phoneQuantity, long phoneValue,
+                          List<Product> topByPrice) {
+        this.totalQuantity = totalQuantity;
+        this.totalValue = totalValue;
+        this.laptopQuantity = laptopQuantity;
+        this.laptopValue = laptopValue;
+        this.phoneQuantity = phoneQuantity;
+        this.phoneValue = phoneValue;
+        this.topByPrice = Collections.unmodifiableList(topByPrice);
+    }
+
+    public long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public long getTotalValue() {
+        return totalValue;
+    }
+
+    public long getLaptopQuantity() {
+        return laptopQuantity;
+    }
+
+    public long getLaptopValue() {
+        return laptopValue;
+    }
+
+    public long getPhoneQuantity() {
+        return phoneQuantity;
+    }
+
+    public long getPhoneValue() {
+        return phoneValue;
+    }
+
+    // sản phẩm giá cao nhất, giảm dần
+    public List<Product> getTopByPrice() {
+        return topByPrice;
+    }
+}
@@ -0,0 +1,144 @@
+package main;
+
+/**
+ * Tách 1 dòng products.txt (type;id;name;brand;price;qty;active;extra) theo ';'
+ * mà không dùng String.split (regex + mảng + 8 substring mỗi dòng).
+ * - chỉ lưu vị trí đầu/cuối của từng trường, dùng lại được cho nhiều dòng
+ * - int / boolean / tiền (cent, Money.parse) parse trực tiếp trên ký tự, chỉ tạo String cho id, name
+ * - brand lấy bản chuẩn từ ProductDictionary (không tạo String nếu brand đã gặp)
+ * Không thread-safe: mỗi luồng dùng 1 tokenizer riêng.
+ */
+public class DataLineTokenizer {
+
+    public static final int FIELD_COUNT = 8;
+
+    public static final int TYPE = 0;
+    public static final int ID = 1;
+    public static final int NAME = 2;
+    public static final int BRAND = 3;
+    public static final int PRICE = 4;
+    public static final int QUANTITY = 5;
+    public static final int ACTIVE = 6;
+    public static final int EXTRA = 7;
+
+    private final int[] starts = new int[FIELD_COUNT];
+    private final int[] ends = new int[FIELD_COUNT];
+    private CharSequence src;
+
+    /**
+     * Tách dòng src[from, to). Trả về false nếu là dòng trống hoặc không đủ 8 trường
+     * (giống split(";") cũ: các trường rỗng ở cuối dòng không được tính).
+     */
+    public boolean split(CharSequence s, int from, int to) {
+        src = s;
+        if (isBlank(s, from, to)) return false;
+
+        int field = 0;
+        int start = from;
+        for (int i = from; i < to && field < FIELD_COUNT; i++) {
+            if (s.charAt(i) == ';') {
+                starts[field] = start;
+                ends[field] = i;
+                field++;
+                start = i + 1;
+            }
+        }
+        if (field < FIELD_COUNT) {
+            if (field < FIELD_COUNT - 1) return false;
+            // trường cuối kéo tới hết dòng
+            starts[EXTRA] = start;
+            ends[EXTRA] = to;
+        }
+        if (starts[EXTRA] == ends[EXTRA]) {
+            // extra rỗng: split(";") chỉ giữ nó nếu sau đó còn ký tự khác ';'
+            for (int i = ends[EXTRA]; i < to; i++) {
+                if (s.charAt(i) != ';') return true;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    public String text(int field) {
+        return src.subSequence(starts[field], ends[field]).toString();
+    }
+
+    public String brandField() {
+        return ProductDictionary.canonicalBrand(src, starts[BRAND], ends[BRAND]);
+    }
+
+    public boolean fieldEqualsIgnoreCase(int field, String value) {
+        int len = ends[field] - starts[field];
+        if (len != value.length()) return false;
+        for (int i = 0; i < len; i++) {
+            char a = src.charAt(starts[field] + i);
+            char b = value.charAt(i);
+            if (a != b && Character.toLowerCase(a) != Character.toLowerCase(b)) return false;
+        }
+        return true;
+    }
+
+    // giống Integer.parseInt nhưng không tạo substring
+    public int intField(int field) {
+        int i = starts[field];
+        int end = ends[field];
+        if (i >= end) throw new NumberFormatException("empty int field " + field);
+
+        boolean negative = false;
+        char first = src.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+            if (i >= end) throw new NumberFormatException("For input string: \"" + text(field) + "\"");
+        }
+        long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long value = 0;
+        for (; i < end; i++) {
+            int d = src.charAt(i) - '0';
+            if (d < 0 || d > 9) throw new NumberFormatException("For input string: \"" + text(field) + "\"");
+            value = value * 10 + d;
+            if (value > limit) throw new NumberFormatException("For input string: \"" + text(field) + "\"");
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /** Số tiền ra cent (Money.parse trên đúng đoạn của field, không tạo substring). */
+    public long moneyField(int field) {
+        return Money.parse(src, starts[field], ends[field]);
+    }
+
+    // giống Boolean.parseBoolean: chỉ "true" (không phân biệt hoa thường) là true
+    public boolean booleanField(int field) {
+        return fieldEqualsIgnoreCase(field, "true");
+    }
+
+    /**
+     * Tạo Product từ dòng vừa split. Trả về null nếu type không hợp lệ,
+     * ném NumberFormatException nếu số sai định dạng.
+     */
+    public Product toProduct() {
+        boolean laptop = fieldEqualsIgnoreCase(TYPE, "Laptop");
+        if (!laptop && !fieldEqualsIgnoreCase(TYPE, "Phone")) return null;
+
+        long price = moneyField(PRICE);
+        int qty = intField(QUANTITY);
+        boolean active = booleanField(ACTIVE);
+
+        Product p;
+        if (laptop) {
+            int warranty = intField(EXTRA);
+            p = new Laptop(text(ID), text(NAME), brandField(), 0, qty, active, warranty);
+        } else {
+            p = new Phone(text(ID), text(NAME), brandField(), 0, qty, active, booleanField(EXTRA));
+        }
+        p.setPriceCents(price);
+        return p;
+    }
+
+    public static boolean isBlank(CharSequence s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) > ' ') return false;
+        }
+        return true;
+    }
+}
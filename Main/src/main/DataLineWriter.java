@@ -0,0 +1,54 @@
+package main;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Ghi nhiều dòng dữ liệu sản phẩm (products.txt, journal) mà không tạo String cho mỗi dòng:
+ * - 1 StringBuilder + 1 char[] dùng lại cho mọi dòng, Product.appendDataLine ghi thẳng vào builder
+ * - dòng được copy sang char[] rồi Writer.write(char[], ...) (Writer.append(CharSequence) sẽ gọi toString)
+ * Không thread-safe: bên gọi tự đồng bộ (ví dụ CatalogJournal ghi trong synchronized).
+ */
+public class DataLineWriter {
+
+    private final Writer out;
+    private final String newLine;
+    private final StringBuilder sb = new StringBuilder(128);
+    private char[] chars = new char[128];
+
+    public DataLineWriter(Writer out, String newLine) {
+        this.out = out;
+        this.newLine = newLine;
+    }
+
+    public Writer getWriter() {
+        return out;
+    }
+
+    /** Ghi 1 dòng dữ liệu sản phẩm. */
+    public void write(Product p) throws IOException {
+        p.appendDataLine(begin());
+        end();
+    }
+
+    /** Ghi prefix + dòng dữ liệu sản phẩm (ví dụ "A|" của journal). */
+    public void write(String prefix, Product p) throws IOException {
+        p.appendDataLine(begin().append(prefix));
+        end();
+    }
+
+    /** Builder rỗng cho 1 dòng tự ghép, gọi end() để ghi ra. */
+    public StringBuilder begin() {
+        sb.setLength(0);
+        return sb;
+    }
+
+    /** Ghi dòng đang ghép trong builder + ký tự xuống dòng. */
+    public void end() throws IOException {
+        sb.append(newLine);
+        int len = sb.length();
+        if (chars.length < len) chars = new char[Math.max(len, chars.length * 2)];
+        sb.getChars(0, len, chars, 0);
+        out.write(chars, 0, len);
+    }
+}
@@ -10,5 +10,6 @@ package main;
  * @author btoan
  */
 public interface Discountable {
-    double getFinalPrice(int quantity);
+    /** Thành tiền cho quantity sản phẩm, đơn vị cent (Money). */
+    long getFinalPrice(int quantity);
 }
@@ -1,29 +1,68 @@
 package main;
 
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.File;
 import java.time.LocalDateTime;
 
+/**
+ * Ghi log thao tác vào input_log.txt.
+ * log() chỉ đưa 1 entry vào hàng đợi; luồng nền của AsyncLineWriter format thời gian
+ * và ghi theo lô. Có shutdown hook để ghi nốt log khi thoát chương trình.
+ *
+ * Cấu hình bằng system property:
+ * - log.buffer   : sức chứa hàng đợi (mặc định 8192)
+ * - log.overflow : BLOCK | DROP | DROP_COUNT khi hàng đợi đầy (mặc định BLOCK)
+ */
 public class InputLogger {
 
     private static final String LOG_FILE = "input_log.txt";
 
-    public static void log(String action, String detail) {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(LOG_FILE, true))) {
-            LocalDateTime now = LocalDateTime.now();
-            pw.printf("[%s] %-20s | %s%n",
-                    now.toString().replace('T', ' '),
-                    action,
-                    detail);
-        } catch (IOException e) {
-            System.err.println("Could not write log: " + e.getMessage());
-        } catch (Exception e) {
-            System.err.println("Unexpected log error: " + e.getMessage());
+    private static final AsyncLineWriter<Entry> WRITER = createWriter();
+
+    private static class Entry {
+        final LocalDateTime time;
+        final String action;
+        final String detail;
+
+        Entry(LocalDateTime time, String action, String detail) {
+            this.time = time;
+            this.action = action;
+            this.detail = detail;
         }
     }
 
+    private static AsyncLineWriter<Entry> createWriter() {
+        int capacity = Integer.getInteger("log.buffer", 8192);
+        AsyncLineWriter.OverflowPolicy policy;
+        try {
+            policy = AsyncLineWriter.OverflowPolicy.valueOf(
+                    System.getProperty("log.overflow", "BLOCK").trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown log.overflow value, using BLOCK.");
+            policy = AsyncLineWriter.OverflowPolicy.BLOCK;
+        }
+
+        AsyncLineWriter<Entry> w = new AsyncLineWriter<>("input-logger", new File(LOG_FILE), capacity, policy,
+                (e, sb) -> sb.append(String.format("[%s] %-20s | %s",
+                        e.time.toString().replace('T', ' '), e.action, e.detail)));
+        w.setDropNotice(n -> new Entry(LocalDateTime.now(), "LOG_DROPPED", n + " log message(s) dropped, buffer full"));
+        Runtime.getRuntime().addShutdownHook(new Thread(w::close, "input-logger-shutdown"));
+        return w;
+    }
+
+    public static void log(String action, String detail) {
+        WRITER.offer(new Entry(LocalDateTime.now(), action, detail));
+    }
+
     public static void log(String message) {
         log("INFO", message);
     }
+
+    /** Chờ tới khi các log đã gọi trước đó được ghi xuống file. */
+    public static void flush() {
+        WRITER.flush();
+    }
+
+    public static long getDroppedCount() {
+        return WRITER.getDroppedCount();
+    }
 }
@@ -0,0 +1,207 @@
+package main;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tổng tồn kho (số lượng + giá trị, tổng và theo loại) được cập nhật tăng dần
+ * mỗi khi thêm / sửa / xóa / bán, nên dashboard không phải duyệt cả catalog.
+ *
+ * Mỗi sản phẩm giữ lại phần đã cộng vào tổng (Contribution: quantity, price lúc cộng);
+ * khi sản phẩm thay đổi thì trừ phần cũ, cộng phần mới. Giá trị cộng bằng cent (Money) trong LongAdder
+ * nên cộng / trừ bao nhiêu lần cũng không trôi số. Contribution tự đồng bộ trên chính nó
+ * nên không lồng với lock của catalog hay lock của SKU.
+ * Cùng lúc đó giữ tập sản phẩm sắp hết hàng (0 < tồn kho < ngưỡng của loại) theo ID,
+ * nên cảnh báo low stock không phải duyệt lại cả catalog.
+ * Mỗi Contribution nhớ mức tồn kho (StockLevel) lần trước: khi sửa / bán làm đổi mức thì
+ * báo cho các StockLevelListener ngay lúc đó, O(1) cho mỗi thay đổi.
+ *
+ * Ngưỡng low stock theo loại, cấu hình bằng system property (mặc định 3):
+ * - lowstock.laptop, lowstock.phone, lowstock.other
+ */
+public class InventoryAggregates {
+
+    public static final int LAPTOP = ProductDictionary.TYPE_LAPTOP;
+    public static final int PHONE = ProductDictionary.TYPE_PHONE;
+    public static final int OTHER = ProductDictionary.TYPE_OTHER;
+
+    public static final int DEFAULT_LOW_STOCK_LIMIT = 3;
+
+    /** Mức tồn kho so với ngưỡng của loại. */
+    public enum StockLevel {
+        OK,   // tồn kho >= ngưỡng
+        LOW,  // 0 < tồn kho < ngưỡng
+        OUT   // hết hàng
+    }
+
+    /**
+     * Nhận sự kiện khi 1 SKU đổi mức tồn kho (ví dụ vừa bán xuống dưới ngưỡng, hoặc vừa nhập thêm hàng).
+     * Chạy ngay trong luồng vừa sửa / bán, khi đang giữ lock của Contribution: phải nhanh, không chặn
+     * (ví dụ chỉ đưa vào hàng đợi như LowStockAlertLog).
+     */
+    public interface StockLevelListener {
+        void levelChanged(Product p, StockLevel from, StockLevel to, int threshold);
+    }
+
+    private final LongAdder[] quantity = {new LongAdder(), new LongAdder(), new LongAdder()};
+    private final LongAdder[] value = {new LongAdder(), new LongAdder(), new LongAdder()};
+    private final ConcurrentHashMap<String, Contribution> contributions = new ConcurrentHashMap<>();
+    // key ID -> sản phẩm sắp hết hàng, theo ID tăng dần
+    private final ConcurrentSkipListMap<String, Product> lowStock = new ConcurrentSkipListMap<>();
+    private final CopyOnWriteArrayList<StockLevelListener> listeners = new CopyOnWriteArrayList<>();
+    // ngưỡng theo type code, copy-on-write khi đổi
+    private volatile int[] thresholds = {
+            Integer.getInteger("lowstock.laptop", DEFAULT_LOW_STOCK_LIMIT),
+            Integer.getInteger("lowstock.phone", DEFAULT_LOW_STOCK_LIMIT),
+            Integer.getInteger("lowstock.other", DEFAULT_LOW_STOCK_LIMIT)};
+
+    private static final class Contribution {
+        final int type;
+        int quantity;
+        long price; // cent
+        boolean live = true;
+        Product product;
+        StockLevel level;
+
+        Contribution(int type) {
+            this.type = type;
+        }
+    }
+
+    public void add(String key, Product p) {
+        Contribution c = new Contribution(p.getTypeCode());
+        synchronized (c) {
+            contributions.put(key, c);
+            apply(c, p.getQuantity(), p.getPriceCents());
+            // thêm mới / load chỉ đặt mức ban đầu, không phải sự kiện "vừa xuống dưới ngưỡng"
+            c.product = p;
+            c.level = levelOf(c.type, c.quantity);
+            trackLowStock(key, c);
+        }
+    }
+
+    public void remove(String key) {
+        Contribution c = contributions.remove(key);
+        if (c == null) return;
+        synchronized (c) {
+            if (!c.live) return;
+            apply(c, 0, 0);
+            lowStock.remove(key);
+            c.live = false;
+        }
+    }
+
+    // gọi sau khi quantity / price của sản phẩm đổi (sửa, bán, replay journal)
+    public void refresh(String key, Product p) {
+        Contribution c = contributions.get(key);
+        if (c == null) return;
+        synchronized (c) {
+            if (!c.live) return;
+            apply(c, p.getQuantity(), p.getPriceCents());
+            c.product = p;
+            updateLevel(key, c);
+        }
+    }
+
+    public void clear() {
+        contributions.clear();
+        lowStock.clear();
+        for (int t = 0; t < quantity.length; t++) {
+            quantity[t].reset();
+            value[t].reset();
+        }
+    }
+
+    public void addListener(StockLevelListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(StockLevelListener listener) {
+        listeners.remove(listener);
+    }
+
+    public int getThreshold(int type) {
+        return thresholds[type];
+    }
+
+    /**
+     * Đổi ngưỡng low stock của 1 loại, xếp lại mức của các sản phẩm loại đó
+     * (duyệt 1 lần, chỉ khi cấu hình đổi) và báo sự kiện cho SKU đổi mức.
+     */
+    public void setThreshold(int type, int limit) {
+        int[] next = thresholds.clone();
+        next[type] = limit;
+        thresholds = next;
+        contributions.forEach((key, c) -> {
+            if (c.type != type) return;
+            synchronized (c) {
+                if (c.live) updateLevel(key, c);
+            }
+        });
+    }
+
+    private StockLevel levelOf(int type, int qty) {
+        if (qty <= 0) return StockLevel.OUT;
+        return qty < thresholds[type] ? StockLevel.LOW : StockLevel.OK;
+    }
+
+    // gọi trong synchronized (c)
+    private void updateLevel(String key, Contribution c) {
+        StockLevel from = c.level;
+        c.level = levelOf(c.type, c.quantity);
+        trackLowStock(key, c);
+        if (from != c.level) {
+            int threshold = thresholds[c.type];
+            for (StockLevelListener l : listeners) {
+                try {
+                    l.levelChanged(c.product, from, c.level, threshold);
+                } catch (RuntimeException e) {
+                    // tồn kho đã đổi xong, listener lỗi không được làm hỏng thao tác bán / sửa
+                    InputLogger.log("STOCK_LISTENER_ERROR", e.toString());
+                }
+            }
+        }
+    }
+
+    private void trackLowStock(String key, Contribution c) {
+        if (c.level == StockLevel.LOW) {
+            lowStock.put(key, c.product);
+        } else {
+            lowStock.remove(key);
+        }
+    }
+
+    // thay phần đã cộng của c bằng (qty, price)
+    private void apply(Contribution c, int qty, long price) {
+        quantity[c.type].add((long) qty - c.quantity);
+        value[c.type].add(Money.times(price, qty) - Money.times(c.price, c.quantity));
+        c.quantity = qty;
+        c.price = price;
+    }
+
+    public long getTotalQuantity() {
+        return quantity[LAPTOP].sum() + quantity[PHONE].sum() + quantity[OTHER].sum();
+    }
+
+    /** Tổng giá trị tồn kho, cent. */
+    public long getTotalValue() {
+        return value[LAPTOP].sum() + value[PHONE].sum() + value[OTHER].sum();
+    }
+
+    public long getQuantity(int type) {
+        return quantity[type].sum();
+    }
+
+    public long getValue(int type) {
+        return value[type].sum();
+    }
+
+    /** Sản phẩm 0 < tồn kho < ngưỡng của loại, theo ID tăng dần (chỉ đọc, weakly consistent). */
+    public Collection<Product> getLowStock() {
+        return Collections.unmodifiableCollection(lowStock.values());
+    }
+}
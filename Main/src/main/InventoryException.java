@@ -0,0 +1,27 @@
+package main;
+
+/**
+ * Lỗi nghiệp vụ của InventoryService (không tìm thấy, hết hàng, giá trị sai...).
+ * code + detail dùng để ghi InputLogger giống các action cũ (ví dụ SELL_FAIL, "ID=L001 not found").
+ */
+public class InventoryException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String code;
+    private final String detail;
+
+    public InventoryException(String code, String message, String detail) {
+        super(message);
+        this.code = code;
+        this.detail = detail;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+}
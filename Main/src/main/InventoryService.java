@@ -0,0 +1,837 @@
+package main;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Nghiệp vụ kho hàng không phụ thuộc Scanner / console:
+ * - load / save (products.txt + snapshot products.bin + journal products.journal)
+ * - thêm / sửa / xóa / bán với tham số và kết quả có kiểu (ProductUpdate, SaleRequest, Invoice...)
+ * - tìm kiếm, dashboard
+ * - import hàng loạt (BulkImporter) từ file cùng định dạng products.txt
+ * Lỗi nghiệp vụ ném InventoryException (code + detail để ghi log), thao tác thành công
+ * được ghi InputLogger (và sales_history.txt khi bán) ngay trong service.
+ * ProductManager chỉ còn là lớp nhập / in cho menu console.
+ */
+public class InventoryService {
+
+    public static final String FILE_NAME = "products.txt";
+    public static final String SNAPSHOT_FILE = "products.bin";
+    public static final String JOURNAL_FILE = "products.journal";
+
+    // journal dài hơn mức này (và dài hơn cả catalog) thì compact vào snapshot
+    private static final int COMPACT_MIN_ENTRIES = 1000;
+
+    // giảm giá thêm cho sinh viên (5%) khi chưa có pricing_rules.txt
+    public static final double STUDENT_DISCOUNT_RATE = 0.05;
+
+    private final ProductCatalog catalog = new ProductCatalog();
+    private final File dataFile;
+    private final File snapshotFile;
+    private final CatalogJournal journal;
+    // giảm giá theo pricing_rules.txt (cạnh file dữ liệu), tự nạp lại khi file đổi
+    private final PricingEngine pricing;
+
+    // bulk import đã áp dụng vào catalog nhưng compact lỗi: save() sau phải compact lại
+    private volatile boolean compactPending;
+
+    // nhận cảnh báo không làm hỏng thao tác (ví dụ không ghi được journal)
+    private volatile Consumer<String> warningHandler;
+
+    // low_stock.txt, bật sau khi load để replay journal không ghi lại cảnh báo cũ
+    private LowStockAlertLog lowStockLog;
+
+    /** Dữ liệu nằm ở thư mục hiện tại (như chương trình console). */
+    public InventoryService() {
+        this(null);
+    }
+
+    public InventoryService(File dataDir) {
+        this.dataFile = new File(dataDir, FILE_NAME);
+        this.snapshotFile = new File(dataDir, SNAPSHOT_FILE);
+        this.journal = new CatalogJournal(new File(dataDir, JOURNAL_FILE));
+        this.pricing = new PricingEngine(new File(dataDir, PricingEngine.FILE_NAME));
+    }
+
+    public void setWarningHandler(Consumer<String> warningHandler) {
+        this.warningHandler = warningHandler;
+        pricing.setWarningHandler(warningHandler);
+    }
+
+    public PricingEngine getPricing() {
+        return pricing;
+    }
+
+    /** Dừng luồng theo dõi pricing_rules.txt của service và đóng journal (flush + fsync). */
+    public void close() {
+        pricing.close();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            recordJournalError(e);
+        }
+    }
+
+    public File getDataFile() {
+        return dataFile;
+    }
+
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    // ===== FILE I/O =====
+
+    /** Kết quả load(), để lớp giao diện tự quyết định in gì. */
+    public static class LoadReport {
+        public enum Source { SNAPSHOT, TEXT, NONE }
+
+        Source source = Source.NONE;
+        int products;           // số sản phẩm đọc từ snapshot / file text (trước khi replay journal)
+        long badLines;
+        int duplicates;
+        String snapshotError;   // đọc snapshot lỗi, đã chuyển sang products.txt
+        String loadError;       // đọc products.txt lỗi
+        String journalStaleBase; // file dữ liệu này bị sửa ngoài chương trình, journal đã bỏ qua
+        boolean journalReplayed;
+        int journalApplied;
+        int journalSkipped;
+        String journalError;
+
+        public Source getSource() {
+            return source;
+        }
+
+        public int getProducts() {
+            return products;
+        }
+
+        public long getBadLines() {
+            return badLines;
+        }
+
+        public int getDuplicates() {
+            return duplicates;
+        }
+
+        public String getSnapshotError() {
+            return snapshotError;
+        }
+
+        public String getLoadError() {
+            return loadError;
+        }
+
+        public boolean isJournalStale() {
+            return journalStaleBase != null;
+        }
+
+        public String getJournalStaleBase() {
+            return journalStaleBase;
+        }
+
+        public boolean isJournalReplayed() {
+            return journalReplayed;
+        }
+
+        public int getJournalApplied() {
+            return journalApplied;
+        }
+
+        public int getJournalSkipped() {
+            return journalSkipped;
+        }
+
+        public String getJournalError() {
+            return journalError;
+        }
+    }
+
+    // products.bin (snapshot nhị phân) là nguồn chính khi khởi động,
+    // products.txt vẫn dùng để import (nếu bị sửa ngoài chương trình hoặc snapshot hỏng) và export.
+    // Sau đó replay products.journal (các thay đổi chưa compact).
+    // Header snapshot ghi thế hệ journal và độ dài / CRC32 của products.txt export cùng lúc,
+    // nên biết file nào mới mà không dựa vào thời điểm sửa file.
+    public LoadReport load() {
+        LoadReport report = new LoadReport();
+        pricing.start(); // nạp pricing_rules.txt lúc khởi động, không để tới lần bán đầu
+        catalog.clear();
+        CatalogSnapshot.Header header = readSnapshotHeader(report);
+        finishTextExport(header);
+
+        boolean textEdited = header != null && dataFile.exists() && !matchesText(header, dataFile);
+        File base = null;
+        if (header != null && !textEdited) {
+            if (loadSnapshot(report)) {
+                base = snapshotFile;
+            } else {
+                catalog.clear(); // snapshot hỏng -> đọc lại từ file text (cùng nội dung, cùng thế hệ)
+            }
+        }
+        if (base == null) {
+            if (dataFile.exists()) {
+                importTextFile(report);
+            } else {
+                InputLogger.log("LOAD_FILE", "File not found, start empty.");
+            }
+        }
+        // không có snapshot: products.txt không biết đã gồm journal nào, replay cả (entry idempotent)
+        long baseGeneration = header == null ? 0 : header.getGeneration();
+        replayJournal(baseGeneration, textEdited, report);
+        return report;
+    }
+
+    private CatalogSnapshot.Header readSnapshotHeader(LoadReport report) {
+        if (!snapshotFile.exists()) return null;
+        try {
+            return CatalogSnapshot.readHeader(snapshotFile);
+        } catch (IOException e) {
+            report.snapshotError = e.getMessage();
+            InputLogger.log("LOAD_SNAPSHOT_ERROR", e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean matchesText(CatalogSnapshot.Header header, File f) {
+        try {
+            return header.matchesText(f);
+        } catch (IOException e) {
+            InputLogger.log("LOAD_FILE_ERROR", e.getMessage());
+            return true; // không đọc được products.txt thì vẫn dùng snapshot
+        }
+    }
+
+    // compact bị ngắt sau khi ghi snapshot nhưng trước khi rename products.txt.tmp: rename nốt;
+    // bị ngắt lúc đang export (snapshot cũ chưa gồm file này): bỏ file tạm
+    private void finishTextExport(CatalogSnapshot.Header header) {
+        File tmp = exportTempFile();
+        if (!tmp.exists()) return;
+        try {
+            if (header != null && header.getTextLength() >= 0 && header.matchesText(tmp)) {
+                Files.move(tmp.toPath(), dataFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                InputLogger.log("EXPORT_RECOVERED", tmp.getName() + " -> " + dataFile.getName());
+            } else {
+                Files.delete(tmp.toPath());
+                InputLogger.log("EXPORT_DISCARDED", tmp.getName());
+            }
+        } catch (IOException e) {
+            InputLogger.log("EXPORT_RECOVER_ERROR", e.getMessage());
+        }
+    }
+
+    private boolean loadSnapshot(LoadReport report) {
+        try {
+            long t0 = System.nanoTime();
+            List<Product> list = CatalogSnapshot.read(snapshotFile);
+            for (Product p : list) {
+                catalog.add(p);
+            }
+            report.source = LoadReport.Source.SNAPSHOT;
+            report.products = catalog.size();
+            InputLogger.log("LOAD_SNAPSHOT", String.format("Loaded %d products from %s in %.1fms",
+                    catalog.size(), snapshotFile.getName(), (System.nanoTime() - t0) / 1e6));
+            return true;
+        } catch (IOException e) {
+            report.snapshotError = e.getMessage();
+            InputLogger.log("LOAD_SNAPSHOT_ERROR", e.getMessage());
+        } catch (Exception e) {
+            report.snapshotError = "Unexpected error: " + e.getMessage();
+            InputLogger.log("LOAD_SNAPSHOT_EXCEPTION", e.toString());
+        }
+        return false;
+    }
+
+    private void importTextFile(LoadReport report) {
+        try {
+            // parse song song, dòng lỗi bị bỏ qua và đếm lại
+            ProductFileLoader.Result r = new ProductFileLoader().load(dataFile);
+            int duplicates = 0;
+            for (Product p : r.getProducts()) {
+                if (!catalog.add(p)) duplicates++; // trùng ID thì giữ bản ghi đầu tiên
+            }
+            report.source = LoadReport.Source.TEXT;
+            report.products = catalog.size();
+            report.badLines = r.getBadLines();
+            report.duplicates = duplicates;
+            InputLogger.log("LOAD_FILE", "Loaded " + catalog.size() + " products."
+                    + (duplicates > 0 ? " Skipped " + duplicates + " duplicate ID(s)." : "")
+                    + " " + r);
+        } catch (IOException e) {
+            report.loadError = e.getMessage();
+            InputLogger.log("LOAD_FILE_ERROR", e.getMessage());
+        } catch (Exception e) {
+            report.loadError = "Unexpected error: " + e.getMessage();
+            InputLogger.log("LOAD_FILE_EXCEPTION", e.toString());
+        }
+    }
+
+    private void replayJournal(long baseGeneration, boolean textEdited, LoadReport report) {
+        File jf = journal.getFile();
+        File rotated = journal.getRotatedFile();
+        try {
+            journal.sync();
+            if (textEdited) {
+                // products.txt bị thay ngoài chương trình -> journal (tính trên snapshot) không còn khớp
+                journal.close();
+                boolean discarded = discardJournal(rotated) | discardJournal(jf);
+                journal.setGeneration(baseGeneration + 1);
+                if (discarded) {
+                    report.journalStaleBase = dataFile.getName();
+                    InputLogger.log("JOURNAL_STALE", "base=" + dataFile.getName());
+                }
+                return;
+            }
+            // compact trước chưa xong (.compacting còn lại): replay trước journal hiện tại,
+            // lần save sau compact lại
+            long generation = baseGeneration;
+            if (rotated.exists()) {
+                long g = CatalogJournal.readGeneration(rotated);
+                if (g >= 0 && g <= baseGeneration) {
+                    Files.delete(rotated.toPath());
+                    InputLogger.log("JOURNAL_OBSOLETE", rotated.getName() + ": generation=" + g
+                            + ", snapshot=" + baseGeneration);
+                } else {
+                    recordReplay(report, rotated, journal.replayRotated(catalog));
+                    generation = Math.max(generation, g);
+                    compactPending = true;
+                }
+            }
+            if (!jf.exists() || jf.length() == 0) {
+                journal.setGeneration(generation + 1);
+                return;
+            }
+            long g = CatalogJournal.readGeneration(jf);
+            if (g >= 0 && g <= baseGeneration) {
+                // compact bị ngắt sau khi ghi snapshot: journal này đã nằm trong snapshot
+                journal.reset(generation + 1);
+                InputLogger.log("JOURNAL_OBSOLETE", jf.getName() + ": generation=" + g + ", snapshot=" + baseGeneration);
+                return;
+            }
+            recordReplay(report, jf, journal.replay(catalog));
+            journal.setGeneration(g >= 0 ? g : generation + 1);
+        } catch (IOException e) {
+            report.journalError = e.getMessage();
+            InputLogger.log("JOURNAL_REPLAY_ERROR", e.getMessage());
+        }
+    }
+
+    private void recordReplay(LoadReport report, File f, CatalogJournal.ReplayResult r) {
+        report.journalReplayed = true;
+        report.journalApplied += r.applied;
+        report.journalSkipped += r.skipped;
+        InputLogger.log("JOURNAL_REPLAY", f.getName() + ": applied=" + r.applied + ", skipped=" + r.skipped);
+    }
+
+    // đổi tên thành .old để còn xem lại (journal đã đóng), trả về false nếu không có gì để bỏ
+    private static boolean discardJournal(File f) throws IOException {
+        if (!f.exists()) return false;
+        if (f.length() == 0) {
+            Files.delete(f.toPath());
+            return false;
+        }
+        File old = new File(f.getPath() + ".old");
+        old.delete();
+        if (!f.renameTo(old)) Files.delete(f.toPath());
+        return true;
+    }
+
+    /**
+     * Chỉ fsync journal (O(số thay đổi)); khi journal đủ dài thì compact vào snapshot.
+     * Trả về số sản phẩm hiện có.
+     */
+    public int save() throws IOException {
+        journal.sync();
+        if (compactPending || !snapshotFile.exists()
+                || journal.getEntries() >= Math.max(COMPACT_MIN_ENTRIES, catalog.size())) {
+            compact();
+        }
+        InputLogger.log("SAVE_FILE", "Saved " + catalog.size() + " products, journal=" + journal.getEntries() + " entries.");
+        return catalog.size();
+    }
+
+    // Thứ tự: export products.txt.tmp (fsync) -> snapshot (ghi thế hệ journal + độ dài / CRC32 của
+    // file tạm) -> rename file tạm thành products.txt -> xóa journal. Crash ở bước nào thì load
+    // vẫn nhận ra (file tạm / thế hệ journal trong header) và cho kết quả đúng.
+    // Quầy khác vẫn bán trong lúc compact: journal chỉ bị khóa lúc đổi file, export chạy ngoài lock
+    // và thay đổi mới ghi vào journal thế hệ sau; mọi entry đều idempotent nên không mất gì.
+    public void compact() throws IOException {
+        int entries = journal.getEntries();
+        try {
+            journal.compact(generation -> {
+                File tmp = exportTempFile();
+                CatalogSnapshot.write(snapshotFile, catalog.all(), exportTextFile(tmp, generation));
+                Files.move(tmp.toPath(), dataFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            });
+        } catch (IOException e) {
+            compactPending = true; // journal đã đổi sang .compacting, save() sau phải compact lại
+            throw e;
+        }
+        compactPending = false;
+        InputLogger.log("COMPACT", "Compacted " + entries + " journal entries into snapshot of " + catalog.size() + " products.");
+    }
+
+    /**
+     * Import hàng loạt (thêm mới / cập nhật theo ID), dòng lỗi ghi vào "file.rejects".
+     * Các dòng hợp lệ không ghi journal từng dòng mà được lưu bằng 1 lần compact sau khi import xong.
+     */
+    public BulkImporter.Report importFile(File file) throws InventoryException {
+        if (!file.isFile()) {
+            throw new InventoryException("IMPORT_FAIL", "File not found.", "file=" + file);
+        }
+        BulkImporter.Report r = new BulkImporter(catalog).run(file, new File(file.getPath() + ".rejects"));
+        if (r.getAccepted() > 0) {
+            try {
+                compact();
+            } catch (IOException e) {
+                compactPending = true;
+                r.saveError = e.getMessage();
+                InputLogger.log("IMPORT_SAVE_ERROR", e.getMessage());
+            }
+        }
+        if (r.getError() != null) InputLogger.log("IMPORT_READ_ERROR", "file=" + file + ", " + r.getError());
+        InputLogger.log("IMPORT", "file=" + file + ", " + r);
+        return r;
+    }
+
+    private File exportTempFile() {
+        return new File(dataFile.getPath() + ".tmp");
+    }
+
+    // UTF-8 như ProductFileLoader đọc lại; mỗi dòng ghi qua DataLineWriter (không tạo String).
+    // Ghi ra file tạm + fsync, trả về header snapshot nhận diện đúng file này.
+    private CatalogSnapshot.Header exportTextFile(File tmp, long generation) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileOutputStream out = new FileOutputStream(tmp);
+             Writer w = new BufferedWriter(new OutputStreamWriter(
+                     new CheckedOutputStream(out, crc), StandardCharsets.UTF_8), 1 << 16)) {
+            DataLineWriter lines = new DataLineWriter(w, System.lineSeparator());
+            for (Product p : catalog.all()) {
+                lines.write(p);
+            }
+            w.flush();
+            out.getFD().sync();
+        }
+        return new CatalogSnapshot.Header(generation, tmp.length(), tmp.lastModified(), (int) crc.getValue());
+    }
+
+    private void recordJournalError(IOException e) {
+        InputLogger.log("JOURNAL_IO_ERROR", e.getMessage());
+        Consumer<String> handler = warningHandler;
+        if (handler != null) handler.accept("Cannot write journal: " + e.getMessage());
+    }
+
+    private void journalAdd(Product p) {
+        try {
+            journal.recordAdd(p);
+        } catch (IOException e) {
+            recordJournalError(e);
+        }
+    }
+
+    private void journalUpdate(Product p) {
+        try {
+            journal.recordUpdate(p);
+        } catch (IOException e) {
+            recordJournalError(e);
+        }
+    }
+
+    private void journalDelete(Product p) {
+        try {
+            journal.recordDelete(p);
+        } catch (IOException e) {
+            recordJournalError(e);
+        }
+    }
+
+    private void journalQuantity(Product p) {
+        try {
+            journal.recordQuantity(p);
+        } catch (IOException e) {
+            recordJournalError(e);
+        }
+    }
+
+    // ===== TRA CỨU =====
+
+    public Product findById(String id) {
+        return catalog.findById(id); // tra cứu qua index O(1)
+    }
+
+    public boolean contains(String id) {
+        return catalog.contains(id);
+    }
+
+    public int size() {
+        return catalog.size();
+    }
+
+    public boolean isEmpty() {
+        return catalog.isEmpty();
+    }
+
+    // theo ID tăng dần, chỉ đọc
+    public Collection<Product> listAll() {
+        return catalog.all();
+    }
+
+    // phân trang theo ID (cursor): chỉ đọc các dòng của trang, không duyệt / copy cả catalog
+    public ProductPage firstPage(int size) {
+        return catalog.page(null, size);
+    }
+
+    public ProductPage pageFrom(String id, int size) {
+        return catalog.page(id, size);
+    }
+
+    public ProductPage nextPage(ProductPage current, int size) {
+        return current.isEmpty() ? catalog.page(null, size) : catalog.pageAfter(current.getLastId(), size);
+    }
+
+    public ProductPage previousPage(ProductPage current, int size) {
+        return current.isEmpty() ? catalog.page(null, size) : catalog.pageBefore(current.getFirstId(), size);
+    }
+
+    // sản phẩm sắp hết hàng, được giữ sẵn trong catalog (không quét lại danh sách)
+    public Collection<Product> lowStock() {
+        return catalog.getAggregates().getLowStock();
+    }
+
+    // ===== LOW STOCK ALERT =====
+
+    /** Ghi các lần SKU xuống dưới ngưỡng / hết hàng / có hàng lại vào low_stock.txt (cạnh file dữ liệu). */
+    public synchronized void startLowStockAlerts() {
+        if (lowStockLog != null) return;
+        lowStockLog = new LowStockAlertLog(new File(dataFile.getParentFile(), LowStockAlertLog.FILE_NAME));
+        catalog.getAggregates().addListener(lowStockLog);
+    }
+
+    /** Nghe sự kiện đổi mức tồn kho (ví dụ tự đặt hàng lại), xem InventoryAggregates.StockLevelListener. */
+    public void addStockLevelListener(InventoryAggregates.StockLevelListener listener) {
+        catalog.getAggregates().addListener(listener);
+    }
+
+    public void removeStockLevelListener(InventoryAggregates.StockLevelListener listener) {
+        catalog.getAggregates().removeListener(listener);
+    }
+
+    public int getLowStockThreshold(int type) {
+        return catalog.getAggregates().getThreshold(type);
+    }
+
+    public void setLowStockThreshold(int type, int limit) throws InventoryException {
+        checkRange("LOW_STOCK_THRESHOLD", "threshold", limit >= 1, "Threshold must be >= 1.", limit);
+        catalog.getAggregates().setThreshold(type, limit);
+        InputLogger.log("LOW_STOCK_THRESHOLD", "type=" + ProductDictionary.typeName(type) + ", threshold=" + limit);
+    }
+
+    // ===== CRUD =====
+
+    public Product addProduct(Product p) throws InventoryException {
+        checkRange("ADD", "price", p.getPrice() >= 0, "Price must be >= 0.", p.getPrice());
+        checkRange("ADD", "quantity", p.getQuantity() >= 0, "Quantity must be >= 0.", p.getQuantity());
+        if (p instanceof Laptop) {
+            int w = ((Laptop) p).getWarrantyMonths();
+            checkRange("ADD", "warrantyMonths", w >= 0, "Warranty months must be >= 0.", w);
+        }
+        if (!catalog.add(p)) { // catalog tự giữ thứ tự theo ID
+            throw new InventoryException("ADD_FAIL", "ID already exists!", "ID=" + p.getId() + " already exists");
+        }
+        journalAdd(p);
+        InputLogger.log("ADD", p.toDataLine());
+        return p;
+    }
+
+    /** Sửa các trường khác null của update, kiểm tra hết rồi mới áp dụng. */
+    public Product updateProduct(String id, ProductUpdate u) throws InventoryException {
+        Product p = findById(id);
+        if (p == null) {
+            throw new InventoryException("UPDATE_FAIL", "Product not found.", "ID=" + id + " not found");
+        }
+        if (u.getPrice() != null) {
+            checkRange("UPDATE", "price", u.getPrice() >= 0, "New price must be >= 0.", u.getPrice());
+        }
+        if (u.getQuantity() != null) {
+            checkRange("UPDATE", "quantity", u.getQuantity() >= 0, "New quantity must be >= 0.", u.getQuantity());
+        }
+        if (u.getWarrantyMonths() != null) {
+            checkRange("UPDATE", "warrantyMonths", u.getWarrantyMonths() >= 0,
+                    "New warranty months must be >= 0.", u.getWarrantyMonths());
+            if (!(p instanceof Laptop)) {
+                throw new InventoryException("UPDATE_FAIL_FIELD", "Warranty months only applies to Laptop.",
+                        "ID=" + id + ", field=warrantyMonths");
+            }
+        }
+        if (u.getSupport5G() != null && !(p instanceof Phone)) {
+            throw new InventoryException("UPDATE_FAIL_FIELD", "Support 5G only applies to Phone.",
+                    "ID=" + id + ", field=support5G");
+        }
+
+        // áp dụng trong lock của SKU để không xen với quầy đang bán sản phẩm này
+        catalog.withStockLock(p, () -> {
+            if (u.getName() != null) p.setName(u.getName());
+            if (u.getBrand() != null) p.setBrand(u.getBrand());
+            if (u.getPrice() != null) p.setPrice(u.getPrice());
+            if (u.getQuantity() != null) p.setQuantity(u.getQuantity());
+            if (u.getActive() != null) p.setActive(u.getActive());
+            if (u.getWarrantyMonths() != null) ((Laptop) p).setWarrantyMonths(u.getWarrantyMonths());
+            if (u.getSupport5G() != null) ((Phone) p).setSupport5G(u.getSupport5G());
+            catalog.update(p);
+            journalUpdate(p);
+        });
+        InputLogger.log("UPDATE", p.toDataLine());
+        return p;
+    }
+
+    /** Trả về sản phẩm đã xóa. */
+    public Product deleteProduct(String id) throws InventoryException {
+        Product p = findById(id);
+        if (p == null) {
+            throw new InventoryException("DELETE_FAIL", "Product not found.", "ID=" + id + " not found");
+        }
+        if (!catalog.remove(p)) {
+            throw new InventoryException("DELETE_FAIL", "Product was already deleted.", "ID=" + id + " already deleted");
+        }
+        journalDelete(p);
+        InputLogger.log("DELETE", p.toDataLine());
+        return p;
+    }
+
+    // ===== BÁN HÀNG =====
+
+    public Invoice sell(String id, int quantity, String studentId) throws InventoryException {
+        return sell(new SaleRequest(id, quantity, studentId != null, studentId));
+    }
+
+    /**
+     * Bán: tính tiền (luật giảm giá của PricingEngine, rồi giảm thêm cho sinh viên) và trừ kho nguyên tử
+     * trong lock của SKU, ghi log + lịch sử.
+     * Quầy khác có thể đã bán mất hàng giữa lúc kiểm tra và lúc trừ kho -> SELL_FAIL "stock changed".
+     */
+    public Invoice sell(SaleRequest req) throws InventoryException {
+        String id = req.getId();
+        int q = req.getQuantity();
+        Product p = findById(id);
+        if (p == null) {
+            throw new InventoryException("SELL_FAIL", "Product not found.", "ID=" + id + " not found");
+        }
+        if (!p.isActive()) {
+            throw new InventoryException("SELL_FAIL", "Product is not active.", "ID=" + id + " not active");
+        }
+        if (q <= 0 || q > p.getQuantity()) {
+            throw new InventoryException("SELL_FAIL", "Invalid quantity (must be >0 and <= current stock).",
+                    "ID=" + id + ", invalid qty=" + q);
+        }
+
+        // TÍNH TIỀN trong lock của SKU (như placeOrder): giá / luật không đổi giữa lúc tính và lúc trừ kho,
+        // trừ kho nguyên tử (check + trừ + ghi journal trong cùng lock)
+        LocalDateTime now = LocalDateTime.now();
+        boolean student = req.isStudent();
+        Invoice[] sold = new Invoice[1];
+        int left = catalog.decreaseStock(p, q, product -> {
+            long origin = Money.times(product.getPriceCents(), q); // cent
+
+            // giá sau các luật giảm giá của sản phẩm (loại / brand / SKU / bậc số lượng / khung giờ)
+            PricingEngine.Chain rules = pricing.chainFor(product);
+            long baseFinal = rules.finalPrice(q, now);
+            long studentDiscount = student ? rules.studentDiscount(baseFinal, q, now) : 0; // tính trên baseFinal
+            sold[0] = new Invoice(now, product, q, student, req.getStudentId(),
+                    origin, origin - baseFinal, studentDiscount, baseFinal - studentDiscount, product.getQuantity());
+            journalQuantity(product);
+        });
+        if (left < 0) {
+            throw new InventoryException("SELL_FAIL",
+                    "Not enough stock anymore (current stock: " + p.getQuantity() + ").",
+                    "ID=" + id + ", stock changed, qty=" + q);
+        }
+
+        Invoice invoice = sold[0];
+        String studentId = req.getStudentId();
+        InputLogger.log("SELL", String.format(
+                "id=%s, qty=%d, origin=%s, prodDiscount=%s, studentDiscount=%s, total=%s, studentId=%s",
+                p.getId(), q, Money.toString(invoice.getOriginAmount()), Money.toString(invoice.getProductDiscount()),
+                Money.toString(invoice.getStudentDiscount()), Money.toString(invoice.getFinalAmount()),
+                (studentId.isEmpty() ? "N/A" : studentId)));
+
+        // ghi lịch sử sale
+        SalesHistoryWriter.recordSale(now, p, q, invoice.getOriginAmount(), invoice.getProductDiscount(),
+                invoice.getFinalAmount());
+        return invoice;
+    }
+
+    /**
+     * Bán đơn nhiều dòng: kiểm tra mọi dòng, rồi trừ kho tất cả dòng nguyên tử (thiếu 1 dòng thì không trừ gì).
+     * Dòng trùng ID được gộp số lượng. Mỗi dòng: luật giảm giá của PricingEngine + giảm thêm cho sinh viên
+     * trên phần còn lại, giống sell(). Cả đơn: 1 hóa đơn, 1 dòng log, 1 lần ghi sales_history.txt.
+     */
+    public OrderInvoice placeOrder(OrderRequest req) throws InventoryException {
+        if (req.getLines().isEmpty()) {
+            throw new InventoryException("ORDER_FAIL", "Order has no lines.", "empty order");
+        }
+        // gộp dòng trùng ID, giữ thứ tự dòng đầu tiên
+        Map<String, Integer> positions = new HashMap<>();
+        List<Product> products = new ArrayList<>();
+        List<Integer> quantities = new ArrayList<>();
+        for (OrderRequest.Line line : req.getLines()) {
+            String id = line.getId();
+            Product p = findById(id);
+            if (p == null) {
+                throw new InventoryException("ORDER_FAIL", "Product not found: " + id + ".", "ID=" + id + " not found");
+            }
+            if (!p.isActive()) {
+                throw new InventoryException("ORDER_FAIL", "Product is not active: " + id + ".", "ID=" + id + " not active");
+            }
+            if (line.getQuantity() <= 0) {
+                throw new InventoryException("ORDER_FAIL", "Invalid quantity for " + id + " (must be >0).",
+                        "ID=" + id + ", invalid qty=" + line.getQuantity());
+            }
+            Integer pos = positions.putIfAbsent(ProductCatalog.key(id), products.size());
+            if (pos == null) {
+                products.add(p);
+                quantities.add(line.getQuantity());
+            } else {
+                quantities.set(pos, quantities.get(pos) + line.getQuantity());
+            }
+        }
+        int[] qty = new int[quantities.size()];
+        for (int i = 0; i < qty.length; i++) {
+            qty[i] = quantities.get(i);
+            Product p = products.get(i);
+            if (qty[i] > p.getQuantity()) {
+                throw new InventoryException("ORDER_FAIL",
+                        "Invalid quantity for " + p.getId() + " (must be <= current stock " + p.getQuantity() + ").",
+                        "ID=" + p.getId() + ", invalid qty=" + qty[i]);
+            }
+        }
+
+        // tính tiền trong lock (giá không đổi giữa lúc tính và lúc trừ kho), ghi journal từng dòng
+        LocalDateTime now = LocalDateTime.now();
+        List<Invoice> lines = new ArrayList<>(qty.length);
+        int failed = catalog.decreaseStockAll(products, qty, () -> {
+            for (int i = 0; i < qty.length; i++) {
+                Product p = products.get(i);
+                long origin = Money.times(p.getPriceCents(), qty[i]);
+                PricingEngine.Chain rules = pricing.chainFor(p);
+                long baseFinal = rules.finalPrice(qty[i], now);
+                long studentDiscount = req.isStudent() ? rules.studentDiscount(baseFinal, qty[i], now) : 0;
+                lines.add(new Invoice(now, p, qty[i], req.isStudent(), req.getStudentId(),
+                        origin, origin - baseFinal, studentDiscount, baseFinal - studentDiscount, p.getQuantity()));
+                journalQuantity(p);
+            }
+        });
+        if (failed >= 0) {
+            Product p = products.get(failed);
+            throw new InventoryException("ORDER_FAIL",
+                    "Not enough stock anymore for " + p.getId() + " (current stock: " + p.getQuantity() + ").",
+                    "ID=" + p.getId() + ", stock changed, qty=" + qty[failed]);
+        }
+
+        OrderInvoice invoice = new OrderInvoice(now, req.isStudent(), req.getStudentId(), lines);
+        String studentId = req.getStudentId();
+        InputLogger.log("ORDER", String.format(
+                "lines=%d, items=%d, origin=%s, prodDiscount=%s, studentDiscount=%s, total=%s, studentId=%s",
+                lines.size(), invoice.getTotalQuantity(), Money.toString(invoice.getOriginAmount()),
+                Money.toString(invoice.getProductDiscount()), Money.toString(invoice.getStudentDiscount()),
+                Money.toString(invoice.getFinalAmount()), (studentId.isEmpty() ? "N/A" : studentId)));
+
+        List<SalesHistoryWriter.Sale> sales = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            Invoice l = lines.get(i);
+            sales.add(new SalesHistoryWriter.Sale(now, products.get(i), l.getQuantity(),
+                    l.getOriginAmount(), l.getProductDiscount(), l.getFinalAmount()));
+        }
+        SalesHistoryWriter.recordAll(sales);
+        return invoice;
+    }
+
+    /**
+     * Báo cáo bán hàng từ ngày from tới ngày to (tính cả 2 ngày), gom theo ngày / loại / sản phẩm.
+     * Chỉ đọc segment của các ngày trong khoảng (SalesStore).
+     */
+    public SalesStore.Report salesReport(LocalDate from, LocalDate to, SalesStore.GroupBy by)
+            throws InventoryException, IOException {
+        if (from.isAfter(to)) {
+            throw new InventoryException("REPORT_FAIL_RANGE", "From date cannot be after To date.",
+                    "from=" + from + ", to=" + to);
+        }
+        SalesHistoryWriter.flush(); // gồm cả các sale vừa bán còn trong hàng đợi
+        SalesStore.Report r = SalesHistoryWriter.getStore().query(from.atStartOfDay(), to.plusDays(1).atStartOfDay(), by);
+        InputLogger.log("SALES_REPORT", String.format("from=%s, to=%s, by=%s, groups=%d, segments=%d, revenue=%s",
+                from, to, by, r.getGroups().size(), r.getSegmentsRead(), Money.toString(r.getTotal().getFinalAmount())));
+        return r;
+    }
+
+    /**
+     * Doanh thu theo ngày, top bán chạy, tổng giảm giá từ 1 file lịch sử dạng sales_history.txt
+     * (đọc trực tiếp file text, không cần SalesStore; dùng được cho file rất lớn).
+     */
+    public SalesHistoryAnalyzer.Result analyzeSalesHistory(File file, int topN) throws InventoryException, IOException {
+        if (!file.isFile()) {
+            throw new InventoryException("ANALYZE_FAIL", "File not found.", "file=" + file);
+        }
+        SalesHistoryWriter.flush(); // nếu là file lịch sử đang ghi
+        SalesHistoryAnalyzer.Result r = new SalesHistoryAnalyzer().analyze(file, topN);
+        InputLogger.log("SALES_ANALYZE", "file=" + file + ", " + r);
+        return r;
+    }
+
+    // ===== TÌM KIẾM + DASHBOARD =====
+
+    /** Kết quả theo ID tăng dần. */
+    public List<Product> search(SearchCriteria c) throws InventoryException {
+        if (c.getMinPrice() >= 0 && c.getMaxPrice() >= 0 && c.getMinPrice() > c.getMaxPrice()) {
+            throw new InventoryException("SEARCH_FAIL_RANGE", "Min price cannot be greater than Max price.",
+                    "min=" + Money.toString(c.getMinPrice()) + ", max=" + Money.toString(c.getMaxPrice()));
+        }
+        // catalog chọn index (keyword / giá) chọn lọc nhất
+        List<Product> result = catalog.search(c);
+        InputLogger.log(result.isEmpty() ? "SEARCH_EMPTY" : "SEARCH",
+                c + (result.isEmpty() ? "" : ", found=" + result.size()));
+        return result;
+    }
+
+    // tổng được cập nhật tăng dần trong catalog, top 3 lấy từ index giá: O(K), không duyệt catalog
+    public DashboardStats dashboard() {
+        InventoryAggregates a = catalog.getAggregates();
+        return new DashboardStats(a.getTotalQuantity(), a.getTotalValue(),
+                a.getQuantity(InventoryAggregates.LAPTOP), a.getValue(InventoryAggregates.LAPTOP),
+                a.getQuantity(InventoryAggregates.PHONE), a.getValue(InventoryAggregates.PHONE),
+                topByPrice(3));
+    }
+
+    // tổng tồn kho hiện tại (số lượng / giá trị, tổng và theo loại)
+    public InventoryAggregates getAggregates() {
+        return catalog.getAggregates();
+    }
+
+    // k sản phẩm giá cao nhất (giảm dần, bằng giá thì ID nhỏ trước)
+    public List<Product> topByPrice(int k) {
+        return catalog.topByPrice(k);
+    }
+
+    private static void checkRange(String op, String field, boolean ok, String message, Object value)
+            throws InventoryException {
+        if (!ok) {
+            throw new InventoryException(op + "_FAIL_RANGE", message, "field=" + field + ", value=" + value);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package main;
+
+import java.time.LocalDateTime;
+
+/**
+ * Hóa đơn của 1 lần bán (kết quả InventoryService.sell).
+ * Thông tin sản phẩm được chụp lại lúc bán. Mọi số tiền tính bằng cent (Money).
+ */
+public class Invoice {
+
+    private final LocalDateTime time;
+    private final String productId;
+    private final String productName;
+    private final String productType;
+    private final String brand;
+    private final long unitPrice;
+    private final int quantity;
+    private final boolean student;
+    private final String studentId;
+    private final long originAmount;
+    private final long productDiscount;
+    private final long studentDiscount;
+    private final long finalAmount;
+    private final int stockLeft;
+
+    public Invoice(LocalDateTime time, Product p, int quantity, boolean student, String studentId,
+                   long originAmount, long productDiscount, long studentDiscount,
+                   long finalAmount, int stockLeft) {
+        this.time = time;
+        this.productId = p.getId();
+        this.productName = p.getName();
+        this.productType = p.getType();
+        this.brand = p.getBrand();
+        this.unitPrice = p.getPriceCents();
+        this.quantity = quantity;
+        this.student = student;
+        this.studentId = studentId;
+        this.originAmount = originAmount;
+        this.productDiscount = productDiscount;
+        this.studentDiscount = studentDiscount;
+        this.finalAmount = finalAmount;
+        this.stockLeft = stockLeft;
+    }
+
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public String getProductType() {
+        return productType;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public long getUnitPrice() {
+        return unitPrice;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public boolean isStudent() {
+        return student;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public long getOriginAmount() {
+        return originAmount;
+    }
+
+    public long getProductDiscount() {
+        return productDiscount;
+    }
+
+    public long getStudentDiscount() {
+        return studentDiscount;
+    }
+
+    public long getTotalDiscount() {
+        return productDiscount + studentDiscount;
+    }
+
+    public long getFinalAmount() {
+        return finalAmount;
+    }
+
+    public int getStockLeft() {
+        return stockLeft;
+    }
+}
@@ -0,0 +1,120 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inverted index trigram (3 ký tự liên tiếp) trên chuỗi "name brand" viết thường,
+ * dùng cho tìm kiếm kiểu contains(keyword) mà không phải duyệt cả catalog:
+ * - keyword >= 3 ký tự: lấy posting list ngắn nhất trong các trigram của keyword,
+ *   kiểm tra lại contains trên từng ứng viên (kết quả chính xác như scan cũ)
+ * - keyword ngắn hơn, hoặc posting ngắn nhất vẫn quá dài (keyword quá phổ biến) thì
+ *   find trả về null, bên gọi tự scan theo thứ tự ID bằng matches (không tạo chuỗi mới)
+ *
+ * Cập nhật tăng dần khi add / update / remove. Chỉ 1 luồng ghi tại 1 thời điểm
+ * (ProductCatalog đồng bộ các thao tác ghi), đọc không lock.
+ */
+public class KeywordIndex {
+
+    public static final int GRAM = 3;
+
+    // trigram (3 char gộp vào 1 long) -> key của các sản phẩm chứa trigram đó
+    private final ConcurrentHashMap<Long, Set<String>> postings = new ConcurrentHashMap<>();
+    // key sản phẩm -> chuỗi đã index (để xóa trigram cũ khi sửa tên / brand)
+    private final ConcurrentHashMap<String, String> texts = new ConcurrentHashMap<>();
+
+    // cùng cách chuẩn hóa với tìm kiếm cũ: (name + " " + brand).toLowerCase()
+    public static String text(Product p) {
+        return (p.getName() + " " + p.getBrand()).toLowerCase();
+    }
+
+    public void add(String key, Product p) {
+        String text = text(p);
+        texts.put(key, text);
+        forEachGram(text, g -> postings.computeIfAbsent(g, x -> ConcurrentHashMap.newKeySet()).add(key));
+    }
+
+    public void remove(String key) {
+        String text = texts.remove(key);
+        if (text == null) return;
+        forEachGram(text, g -> {
+            Set<String> set = postings.get(g);
+            if (set == null) return;
+            set.remove(key);
+            if (set.isEmpty()) postings.remove(g, set);
+        });
+    }
+
+    // gọi sau khi sửa sản phẩm; chỉ index lại nếu name / brand đổi
+    public void update(String key, Product p) {
+        String old = texts.get(key);
+        if (old != null && old.equals(text(p))) return;
+        remove(key);
+        add(key, p);
+    }
+
+    // "name brand" của sản phẩm có chứa keyword không (dùng chuỗi đã index)
+    public boolean matches(String key, String keyword) {
+        String text = texts.get(key);
+        return text != null && text.contains(keyword);
+    }
+
+    public void clear() {
+        postings.clear();
+        texts.clear();
+    }
+
+    /**
+     * Số ứng viên nếu tìm keyword qua index (độ dài posting ngắn nhất),
+     * -1 nếu keyword ngắn hơn 3 ký tự (không dùng được index).
+     */
+    public int estimate(String keyword) {
+        if (keyword.length() < GRAM) return -1;
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i + GRAM <= keyword.length(); i++) {
+            Set<String> set = postings.get(gram(keyword, i));
+            if (set == null) return 0;
+            min = Math.min(min, set.size());
+        }
+        return min;
+    }
+
+    /**
+     * Key các sản phẩm có "name brand" chứa keyword (đã viết thường), sắp theo key tăng dần.
+     * Trả về null nếu keyword quá ngắn hoặc có hơn maxCandidates ứng viên (scan sẽ rẻ hơn sort).
+     */
+    public List<String> find(String keyword, int maxCandidates) {
+        if (keyword.length() < GRAM) return null;
+        Set<String> smallest = null;
+        for (int i = 0; i + GRAM <= keyword.length(); i++) {
+            Set<String> set = postings.get(gram(keyword, i));
+            if (set == null) return Collections.emptyList(); // có trigram không xuất hiện ở đâu
+            if (smallest == null || set.size() < smallest.size()) smallest = set;
+        }
+        if (smallest.size() > maxCandidates) return null;
+        List<String> result = new ArrayList<>();
+        for (String key : smallest) {
+            String text = texts.get(key);
+            if (text != null && text.contains(keyword)) result.add(key);
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    private interface GramConsumer {
+        void accept(long gram);
+    }
+
+    private static void forEachGram(String text, GramConsumer action) {
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            action.accept(gram(text, i));
+        }
+    }
+
+    private static long gram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+}
@@ -25,11 +25,21 @@ public class Laptop extends Product{
     public String getType(){
         return "Laptop";
     }
+
+    @Override
+    public int getTypeCode() {
+        return ProductDictionary.TYPE_LAPTOP;
+    }
     
     @Override
     public String getExtraDataString(){
         return String.valueOf(warrantyMonths);
     }
+
+    @Override
+    protected void appendExtraData(StringBuilder sb) {
+        sb.append(warrantyMonths);
+    }
     
     @Override
     protected double getDiscountRate(){
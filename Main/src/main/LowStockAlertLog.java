@@ -0,0 +1,87 @@
+package main;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Ghi các lần SKU đổi mức tồn kho (OK / LOW / OUT) vào low_stock.txt cho người quản lý cửa hàng:
+ * levelChanged chỉ chụp lại thông tin rồi đưa vào hàng đợi của AsyncLineWriter (O(1), không chờ IO),
+ * hàng đợi đầy thì bỏ và ghi 1 dòng "đã bỏ n cảnh báo" thay vì làm chậm quầy bán.
+ *
+ * Dòng ví dụ:
+ * 2026-10-18 09:30:00 | LOW | ID=L003 | Type=Laptop | Name=HP 245 G9 | Qty=2 | Threshold=3 | From=OK
+ */
+public class LowStockAlertLog implements InventoryAggregates.StockLevelListener {
+
+    public static final String FILE_NAME = "low_stock.txt";
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final AsyncLineWriter<Alert> writer;
+
+    private static final class Alert {
+        final LocalDateTime time;
+        final String id;
+        final String type;
+        final String name;
+        final int quantity;
+        final int threshold;
+        final InventoryAggregates.StockLevel from;
+        final InventoryAggregates.StockLevel to;
+        final long dropped; // > 0: dòng thông báo đã bỏ cảnh báo
+
+        Alert(LocalDateTime time, String id, String type, String name, int quantity, int threshold,
+              InventoryAggregates.StockLevel from, InventoryAggregates.StockLevel to, long dropped) {
+            this.time = time;
+            this.id = id;
+            this.type = type;
+            this.name = name;
+            this.quantity = quantity;
+            this.threshold = threshold;
+            this.from = from;
+            this.to = to;
+            this.dropped = dropped;
+        }
+    }
+
+    public LowStockAlertLog(File file) {
+        writer = new AsyncLineWriter<>("low-stock-log", file, 1024,
+                AsyncLineWriter.OverflowPolicy.DROP_COUNT, LowStockAlertLog::format);
+        writer.setDropNotice(n -> new Alert(LocalDateTime.now(), null, null, null, 0, 0, null, null, n));
+        writer.setErrorHandler(e -> InputLogger.log("LOW_STOCK_LOG_IO_ERROR", e.getMessage()));
+        Runtime.getRuntime().addShutdownHook(new Thread(writer::close, "low-stock-log-shutdown"));
+    }
+
+    @Override
+    public void levelChanged(Product p, InventoryAggregates.StockLevel from,
+                             InventoryAggregates.StockLevel to, int threshold) {
+        // chụp lại lúc đổi mức, luồng ghi chạy sau
+        writer.offer(new Alert(LocalDateTime.now(), p.getId(), p.getType(), p.getName(),
+                p.getQuantity(), threshold, from, to, 0));
+    }
+
+    /** Đợi các cảnh báo đã đưa vào hàng đợi được ghi xong. */
+    public void flush() {
+        writer.flush();
+    }
+
+    public void close() {
+        writer.close();
+    }
+
+    private static void format(Alert a, StringBuilder sb) {
+        sb.append(TIME.format(a.time)).append(" | ");
+        if (a.dropped > 0) {
+            sb.append("DROPPED ").append(a.dropped).append(" low stock alerts (queue full)");
+            return;
+        }
+        sb.append(a.to)
+                .append(" | ID=").append(a.id)
+                .append(" | Type=").append(a.type)
+                .append(" | Name=").append(a.name)
+                .append(" | Qty=").append(a.quantity)
+                .append(" | Threshold=").append(a.threshold)
+                .append(" | From=").append(a.from);
+    }
+}
@@ -35,12 +35,16 @@ public class Main {
                     case 7: manager.searchAndFilter(sc);       break;
                     case 8: manager.showDashboard();           break;
                     case 9: manager.exportInventorySnapshot(); break;
+                    case 10: manager.bulkImport(sc);           break;
+                    case 11: manager.sellOrder(sc);            break;
+                    case 12: manager.showSalesReport(sc);      break;
+                    case 13: manager.analyzeSalesHistory(sc);  break;
                     case 0:
                         manager.saveToFile();
                         ConsoleUI.printSuccess("Bye!");
                         break;
                     default:
-                        ConsoleUI.printError("Invalid choice. Please choose from 0-9.");
+                        ConsoleUI.printError("Invalid choice. Please choose from 0-13.");
                 }
             } catch (Exception e) {
                 ConsoleUI.printError("Unexpected error: " + e.getMessage());
@@ -50,6 +54,7 @@ public class Main {
             System.out.println();
         } while (choice != 0);
 
+        manager.getService().close();
         sc.close();
     }
 
@@ -64,6 +69,10 @@ public class Main {
         System.out.println("7. Search & filter products");
         System.out.println("8. Inventory dashboard");
         System.out.println("9. Export inventory to file");
+        System.out.println("10. Bulk import from file");
+        System.out.println("11. Sell order (multiple products)");
+        System.out.println("12. Sales report");
+        System.out.println("13. Analyze sales history file");
         System.out.println("0. Exit");
         ConsoleUI.printThinLine();
     }
@@ -0,0 +1,210 @@
+package main;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Tiền dạng fixed-point: 1 long = số đơn vị 1/100 (cent), ví dụ 28000000.00 -> 2800000000L.
+ * Cộng / trừ / nhân số lượng là phép tính long nên chính xác (không trôi như cộng dồn double)
+ * và không tạo object như BigDecimal. Chỉ làm tròn ở 2 chỗ, đều HALF_UP tới 1 cent:
+ * - đổi từ số thập phân có nhiều hơn 2 chữ số lẻ (parse / ofDouble)
+ * - tính phần giảm giá theo tỉ lệ (discount)
+ * Tràn long (quá ~92 triệu tỉ) thì ném ArithmeticException / NumberFormatException, không âm thầm sai.
+ */
+public final class Money {
+
+    /** Số cent trong 1 đơn vị tiền. */
+    public static final long SCALE = 100;
+
+    /** Tỉ lệ giảm giá tính theo phần triệu (0.05 -> 50_000). */
+    public static final long PPM = 1_000_000;
+
+    // |v| nhỏ hơn mức này thì v * 100 vẫn còn phần lẻ đúng trong double
+    private static final double FAST_LIMIT = 1e13;
+
+    private static final long[] POW10 = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L, 10_000_000_000_000_000L,
+            100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+    private static final int MAX_DIGITS = 18; // < Long.MAX_VALUE, nhân 10 không tràn
+
+    private Money() {
+    }
+
+    // ===== ĐỔI KIỂU =====
+
+    /**
+     * Số tiền double -> cent, HALF_UP theo dạng thập phân của Double.toString
+     * (như BigDecimal.valueOf(v).setScale(2, HALF_UP)): 19.99 -> 1999, 0.125 -> 13.
+     */
+    public static long ofDouble(double v) {
+        if (Double.isNaN(v) || Double.isInfinite(v)) throw new ArithmeticException("Not a money value: " + v);
+        if (Math.abs(v) < FAST_LIMIT) {
+            double x = v * SCALE;
+            long r = Math.round(x);
+            // x không gần .5: Math.round đã đúng; gần .5 (ví dụ 0.285 * 100 = 28.499999...) thì làm theo chữ số thập phân
+            if (Math.abs(Math.abs(x - r) - 0.5) > 1e-6) return r;
+        }
+        return BigDecimal.valueOf(v).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /** Cent -> double gần nhất (chỉ để hiển thị / so sánh / lưu nhị phân: đổi ngược bằng ofDouble ra lại đúng số cent). */
+    public static double toDouble(long cents) {
+        return cents / (double) SCALE;
+    }
+
+    /** Tỉ lệ (0 <= rate <= 1) -> phần triệu. */
+    public static long ppm(double rate) {
+        return Math.round(rate * PPM);
+    }
+
+    // ===== TÍNH TOÁN =====
+
+    /** Đơn giá * số lượng, ném ArithmeticException nếu tràn. */
+    public static long times(long cents, int quantity) {
+        return Math.multiplyExact(cents, (long) quantity);
+    }
+
+    /** Phần giảm giá amount * ppm / 1e6, làm tròn HALF_UP tới 1 cent, không tràn khi amount lớn. */
+    public static long discount(long amount, long ppm) {
+        if (amount < 0) return -discount(-amount, ppm);
+        long q = amount / PPM;
+        long r = amount % PPM;
+        return Math.addExact(Math.multiplyExact(q, ppm), (r * ppm + PPM / 2) / PPM);
+    }
+
+    // ===== PARSE =====
+
+    public static long parse(CharSequence s) {
+        return parse(s, 0, s.length());
+    }
+
+    /**
+     * Parse số thập phân trong s[start, end) ra cent, không tạo String:
+     * "28000000", "28000000.00", "2.8E7" (dạng Double.toString cũ trong products.txt).
+     * Dấu thập phân chỉ là '.': "1,000" là sai dạng (không âm thầm thành 1.00).
+     * Hơn 2 chữ số lẻ thì làm tròn HALF_UP. Sai dạng (kể cả NaN / Infinity) hoặc tràn: NumberFormatException.
+     */
+    public static long parse(CharSequence s, int start, int end) {
+        return parse(s, start, end, '.');
+    }
+
+    /** Như parse(s, start, end) nhưng dấu thập phân là decimalSeparator (ví dụ ',' theo locale, phải chọn rõ). */
+    public static long parse(CharSequence s, int start, int end, char decimalSeparator) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+        long digitsValue = 0;
+        int digits = 0;     // chữ số có nghĩa đã cộng vào digitsValue
+        int scale = 0;      // số chữ số sau dấu thập phân (đã cộng vào digitsValue)
+        int dropped = 0;    // chữ số phần nguyên không vừa long: coi như số 0, tính vào số mũ
+        boolean dot = false;
+        boolean any = false;
+        for (; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                any = true;
+                if (digitsValue == 0 && c == '0') {
+                    if (dot) scale++;
+                    continue;
+                }
+                if (digits == MAX_DIGITS) {
+                    if (!dot) dropped++; // phần nguyên quá dài: để phần kiểm tra tràn bên dưới báo lỗi
+                    continue;            // chữ số lẻ quá xa: không ảnh hưởng tới cent
+                }
+                digitsValue = digitsValue * 10 + (c - '0');
+                digits++;
+                if (dot) scale++;
+            } else if (c == decimalSeparator && !dot) {
+                dot = true;
+            } else if ((c == 'E' || c == 'e') && any) {
+                int exp = exponent(s, i + 1, end);
+                scale -= exp;
+                break;
+            } else {
+                throw new NumberFormatException("Not a money value: \"" + s.subSequence(start, end) + "\"");
+            }
+        }
+        if (!any) throw new NumberFormatException("Not a money value: \"" + s.subSequence(start, end) + "\"");
+
+        // giá trị = digitsValue * 10^(dropped - scale), đổi ra cent: * 10^(2 + dropped - scale)
+        int shift = 2 + dropped - scale;
+        long cents;
+        if (digitsValue == 0) {
+            cents = 0;
+        } else if (shift >= 0) {
+            if (shift >= POW10.length) throw new NumberFormatException("Money value out of range");
+            try {
+                cents = Math.multiplyExact(digitsValue, POW10[shift]);
+            } catch (ArithmeticException e) {
+                throw new NumberFormatException("Money value out of range");
+            }
+        } else if (-shift >= POW10.length) {
+            cents = 0; // < 0.5 cent
+        } else {
+            long p = POW10[-shift];
+            cents = digitsValue / p;
+            if (digitsValue % p >= (p + 1) / 2) cents++; // HALF_UP
+        }
+        return negative ? -cents : cents;
+    }
+
+    private static int exponent(CharSequence s, int from, int end) {
+        int i = from;
+        boolean negative = false;
+        if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+        if (i >= end || end - i > 3) throw new NumberFormatException("Bad exponent in money value");
+        int exp = 0;
+        for (; i < end; i++) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) throw new NumberFormatException("Bad exponent in money value");
+            exp = exp * 10 + d;
+        }
+        return negative ? -exp : exp;
+    }
+
+    // ===== FORMAT =====
+
+    /** Ghi dạng "-1234.50" (luôn 2 chữ số lẻ, dấu '.'), dùng cho file dữ liệu / lịch sử. */
+    public static StringBuilder append(StringBuilder sb, long cents) {
+        return append(sb, cents, '.');
+    }
+
+    public static StringBuilder append(StringBuilder sb, long cents, char decimalSeparator) {
+        long units = cents / SCALE;
+        long fraction = cents % SCALE;
+        if (cents < 0) { // đổi dấu thương / dư chứ không đổi dấu cents (Long.MIN_VALUE)
+            sb.append('-');
+            units = -units;
+            fraction = -fraction;
+        }
+        sb.append(units).append(decimalSeparator);
+        if (fraction < 10) sb.append('0');
+        return sb.append(fraction);
+    }
+
+    /** Như String.format("%.2f") của số tiền (dấu thập phân theo locale mặc định), dùng để hiển thị. */
+    public static String format(long cents) {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        if (symbols.getZeroDigit() != '0') {
+            return String.format(locale, "%.2f", BigDecimal.valueOf(cents, 2));
+        }
+        return append(new StringBuilder(24), cents, symbols.getDecimalSeparator()).toString();
+    }
+
+    /** Dạng "-1234.50" (dấu '.'), như append. */
+    public static String toString(long cents) {
+        return append(new StringBuilder(24), cents).toString();
+    }
+}
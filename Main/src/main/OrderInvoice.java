@@ -0,0 +1,84 @@
+package main;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hóa đơn của 1 đơn nhiều dòng (kết quả InventoryService.placeOrder):
+ * mỗi dòng là 1 Invoice (giảm giá theo loại + phần giảm giá sinh viên của dòng đó), cộng thêm tổng cả đơn.
+ * Tiền tính bằng cent (Money) nên tổng đơn đúng bằng tổng các dòng.
+ */
+public class OrderInvoice {
+
+    private final LocalDateTime time;
+    private final boolean student;
+    private final String studentId;
+    private final List<Invoice> lines;
+    private final long originAmount;
+    private final long productDiscount;
+    private final long studentDiscount;
+    private final long finalAmount;
+
+    public OrderInvoice(LocalDateTime time, boolean student, String studentId, List<Invoice> lines) {
+        this.time = time;
+        this.student = student;
+        this.studentId = studentId;
+        this.lines = Collections.unmodifiableList(lines);
+        long origin = 0, productDisc = 0, studentDisc = 0, total = 0;
+        for (Invoice l : lines) {
+            origin += l.getOriginAmount();
+            productDisc += l.getProductDiscount();
+            studentDisc += l.getStudentDiscount();
+            total += l.getFinalAmount();
+        }
+        this.originAmount = origin;
+        this.productDiscount = productDisc;
+        this.studentDiscount = studentDisc;
+        this.finalAmount = total;
+    }
+
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    public boolean isStudent() {
+        return student;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public List<Invoice> getLines() {
+        return lines;
+    }
+
+    public int getTotalQuantity() {
+        int n = 0;
+        for (Invoice l : lines) {
+            n += l.getQuantity();
+        }
+        return n;
+    }
+
+    public long getOriginAmount() {
+        return originAmount;
+    }
+
+    public long getProductDiscount() {
+        return productDiscount;
+    }
+
+    public long getStudentDiscount() {
+        return studentDiscount;
+    }
+
+    public long getTotalDiscount() {
+        return productDiscount + studentDiscount;
+    }
+
+    public long getFinalAmount() {
+        return finalAmount;
+    }
+}
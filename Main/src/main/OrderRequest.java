@@ -0,0 +1,57 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Đơn hàng nhiều dòng (mỗi dòng 1 sản phẩm + số lượng), giảm giá sinh viên áp dụng cho cả đơn.
+ * studentId có thể rỗng (không cung cấp).
+ */
+public class OrderRequest {
+
+    /** 1 dòng của đơn. */
+    public static class Line {
+        private final String id;
+        private final int quantity;
+
+        public Line(String id, int quantity) {
+            this.id = id;
+            this.quantity = quantity;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+    }
+
+    private final List<Line> lines = new ArrayList<>();
+    private final boolean student;
+    private final String studentId;
+
+    public OrderRequest(boolean student, String studentId) {
+        this.student = student;
+        this.studentId = studentId == null ? "" : studentId;
+    }
+
+    public OrderRequest addLine(String id, int quantity) {
+        lines.add(new Line(id, quantity));
+        return this;
+    }
+
+    public List<Line> getLines() {
+        return Collections.unmodifiableList(lines);
+    }
+
+    public boolean isStudent() {
+        return student;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+}
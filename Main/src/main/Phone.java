@@ -35,11 +35,21 @@ public class Phone extends Product {
         return "Phone";
     }
 
+    @Override
+    public int getTypeCode() {
+        return ProductDictionary.TYPE_PHONE;
+    }
+
     @Override
     public String getExtraDataString() {
         return String.valueOf(support5G);
     }
 
+    @Override
+    protected void appendExtraData(StringBuilder sb) {
+        sb.append(support5G);
+    }
+
     @Override
     protected double getDiscountRate() {
         return 0.05; // Phone giảm 5%
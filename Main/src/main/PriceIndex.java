@@ -0,0 +1,131 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Index sản phẩm theo giá (cent, sắp theo giá rồi theo key ID), dùng cho lọc min / max price:
+ * lấy khoảng giá bằng tìm kiếm O(log n) rồi duyệt đúng k phần tử trong khoảng.
+ * Cập nhật tăng dần khi add / update / remove; chỉ 1 luồng ghi tại 1 thời điểm
+ * (ProductCatalog đồng bộ các thao tác ghi), đọc không lock.
+ */
+public class PriceIndex {
+
+    /** 1 phần tử của index: giá lúc index + key ID + sản phẩm. */
+    public static final class Entry {
+        final long price; // cent
+        final String key;
+        final Product product;
+        // chỉ dùng cho biên của khoảng tìm kiếm (key == null): true = sau mọi key cùng giá
+        final boolean upper;
+
+        Entry(long price, String key, Product product, boolean upper) {
+            this.price = price;
+            this.key = key;
+            this.product = product;
+            this.upper = upper;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Product getProduct() {
+            return product;
+        }
+    }
+
+    private static final Comparator<Entry> ORDER = (a, b) -> {
+        int c = Long.compare(a.price, b.price);
+        if (c != 0) return c;
+        if (a.key == null) return b.key == null ? Boolean.compare(a.upper, b.upper) : (a.upper ? 1 : -1);
+        if (b.key == null) return b.upper ? -1 : 1;
+        return a.key.compareTo(b.key);
+    };
+
+    private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>(ORDER);
+    private final ConcurrentHashMap<String, Entry> byKey = new ConcurrentHashMap<>();
+
+    public void add(String key, Product p) {
+        Entry e = new Entry(p.getPriceCents(), key, p, false);
+        byKey.put(key, e);
+        entries.add(e);
+    }
+
+    public void remove(String key) {
+        Entry e = byKey.remove(key);
+        if (e != null) entries.remove(e);
+    }
+
+    // gọi sau khi sửa sản phẩm; chỉ index lại nếu giá đổi
+    public void update(String key, Product p) {
+        Entry old = byKey.get(key);
+        if (old != null && old.product == p && old.price == p.getPriceCents()) return;
+        remove(key);
+        add(key, p);
+    }
+
+    public void clear() {
+        entries.clear();
+        byKey.clear();
+    }
+
+    /**
+     * Các phần tử có giá (cent) trong [minPrice, maxPrice], theo giá tăng dần.
+     * minPrice / maxPrice < 0 = không giới hạn phía đó (giống SearchCriteria).
+     */
+    public NavigableSet<Entry> range(long minPrice, long maxPrice) {
+        if (minPrice >= 0 && maxPrice >= 0) {
+            if (minPrice > maxPrice) return Collections.emptyNavigableSet();
+            return entries.subSet(bound(minPrice, false), true, bound(maxPrice, true), true);
+        }
+        if (minPrice >= 0) return entries.tailSet(bound(minPrice, false), true);
+        if (maxPrice >= 0) return entries.headSet(bound(maxPrice, true), true);
+        return entries;
+    }
+
+    /** Số phần tử trong khoảng giá, dừng đếm khi vượt limit (trả về limit + 1). */
+    public int count(long minPrice, long maxPrice, int limit) {
+        int n = 0;
+        for (Entry ignored : range(minPrice, maxPrice)) {
+            if (++n > limit) break;
+        }
+        return n;
+    }
+
+    /**
+     * k sản phẩm giá cao nhất: giá giảm dần, cùng giá thì ID tăng dần (giống sort ổn định cũ).
+     * O(k log n), không phụ thuộc kích thước catalog.
+     */
+    public List<Product> top(int k) {
+        List<Product> result = new ArrayList<>(Math.max(0, k));
+        Entry cur = k > 0 ? last() : null;
+        while (cur != null && result.size() < k) {
+            long price = cur.price;
+            for (Entry e : entries.subSet(bound(price, false), true, bound(price, true), true)) {
+                result.add(e.product);
+                if (result.size() == k) break;
+            }
+            cur = entries.lower(bound(price, false));
+        }
+        return result;
+    }
+
+    private Entry last() {
+        try {
+            return entries.last();
+        } catch (NoSuchElementException e) {
+            return null; // rỗng (có thể vừa bị xóa hết ở luồng khác)
+        }
+    }
+
+    private static Entry bound(long price, boolean upper) {
+        return new Entry(price, null, null, upper);
+    }
+}
@@ -0,0 +1,429 @@
+package main;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Giảm giá theo luật trong pricing_rules.txt (thay cho tỉ lệ cố định trong code):
+ * - luật được index theo phạm vi (tất cả / loại / brand / SKU), mỗi sản phẩm chỉ ghép chuỗi luật
+ *   của mình 1 lần (Chain, implements Discountable) và giữ trong Product cho tới khi luật / brand đổi
+ * - lúc bán chỉ duyệt mảng luật đã ghép: so số lượng, so thời gian, trừ phần giảm
+ *   (tiền là cent long, tỉ lệ là phần triệu: Money.discount, không tạo object, không trôi số)
+ * - file luật được nạp lúc khởi động (start, gọi từ InventoryService.load), sau đó 1 luồng nền kiểm tra
+ *   mỗi pricing.reloadMs (mặc định 1000), đổi thì nạp lại và thay cả bộ luật 1 lần;
+ *   file lỗi thì giữ bộ luật cũ và báo cảnh báo. Lúc bán không đọc file.
+ * - không có file: giảm giá theo loại (Product.getDiscountRate) + 5% sinh viên như trước
+ *
+ * Mỗi dòng: kind;target;rate[;minQty[;from[;to]]]  (dòng trống / bắt đầu bằng # bị bỏ qua)
+ * - kind   : DEFAULT (tỉ lệ theo loại của sản phẩm, bỏ trống rate) | ALL | TYPE | BRAND | SKU | STUDENT
+ * - target : * (DEFAULT / ALL / STUDENT), Laptop / Phone (TYPE), tên brand (BRAND), ID (SKU)
+ * - rate   : 0 <= rate < 1 (tính tới phần triệu)
+ * - minQty : áp dụng khi mua >= minQty (mặc định 1); cùng kind + target thì chỉ lấy bậc cao nhất đạt được
+ * - from / to : "yyyy-MM-dd" hoặc "yyyy-MM-dd HH:mm", khoảng [from, to); to chỉ có ngày thì tính hết ngày đó
+ * Các nhóm luật áp dụng nối tiếp theo thứ tự trong file, mỗi luật trên phần tiền còn lại;
+ * luật STUDENT áp dụng sau cùng (khi khách là sinh viên) và được tính riêng thành studentDiscount.
+ */
+public class PricingEngine {
+
+    public static final String FILE_NAME = "pricing_rules.txt";
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    /** Loại luật. */
+    public enum Kind { DEFAULT, ALL, TYPE, BRAND, SKU, STUDENT }
+
+    /** 1 luật đã parse từ file. */
+    public static final class Rule {
+        final Kind kind;
+        final String target;
+        final double rate;      // NaN với DEFAULT: lấy Product.getDiscountRate()
+        final int minQty;
+        final LocalDateTime from; // null = không giới hạn
+        final LocalDateTime to;
+        final int group;        // cùng kind + target, theo thứ tự xuất hiện trong file
+        final int order;        // số dòng trong file
+
+        Rule(Kind kind, String target, double rate, int minQty,
+             LocalDateTime from, LocalDateTime to, int group, int order) {
+            this.kind = kind;
+            this.target = target;
+            this.rate = rate;
+            this.minQty = minQty;
+            this.from = from;
+            this.to = to;
+            this.group = group;
+            this.order = order;
+        }
+    }
+
+    /**
+     * Chuỗi luật đã ghép cho 1 sản phẩm (luật của cùng nhóm nằm liền nhau, minQty giảm dần).
+     * getFinalPrice theo Discountable: giá sau các luật sản phẩm tại thời điểm hiện tại, chưa tính sinh viên.
+     */
+    public static final class Chain implements Discountable {
+        // mỗi luật 4 ô liền nhau trong 1 mảng (đọc tuần tự, không nhảy qua nhiều object):
+        // rate (phần triệu), minQty << 32 | group, from, to (giây địa phương, xem timeKey)
+        private static final int STRIDE = 4;
+
+        private final Product product;
+        private final RuleSet rules;
+        private final String id;
+        private final int brandCode;
+        private final long[] entries;
+        private final boolean anyWindow;
+
+        // product null: chuỗi luật sinh viên (dùng chung, không có luật DEFAULT)
+        Chain(Product product, RuleSet rules, long[] entries) {
+            this.product = product;
+            this.rules = rules;
+            this.id = product == null ? null : product.getId();
+            this.brandCode = product == null ? ProductDictionary.NO_BRAND : product.getBrandCode();
+            this.entries = entries;
+            boolean any = false;
+            for (int e = 0; e < entries.length; e += STRIDE) {
+                any |= entries[e + 2] != Long.MIN_VALUE || entries[e + 3] != Long.MAX_VALUE;
+            }
+            anyWindow = any;
+        }
+
+        static long[] encode(List<Rule> chain, Product product) {
+            long[] entries = new long[chain.size() * STRIDE];
+            for (int i = 0; i < chain.size(); i++) {
+                Rule r = chain.get(i);
+                // DEFAULT: tỉ lệ theo loại, cố định theo class nên ghép luôn vào chuỗi
+                double rate = Double.isNaN(r.rate) ? product.getDiscountRate() : r.rate;
+                int e = i * STRIDE;
+                entries[e] = Money.ppm(rate);
+                entries[e + 1] = (long) r.minQty << 32 | r.group;
+                entries[e + 2] = r.from == null ? Long.MIN_VALUE : timeKey(r.from);
+                entries[e + 3] = r.to == null ? Long.MAX_VALUE : timeKey(r.to);
+            }
+            return entries;
+        }
+
+        // còn đúng với sản phẩm + bộ luật hiện tại không (brand / ID có thể đã bị sửa)
+        boolean validFor(Product p, RuleSet current) {
+            return rules == current && product == p && brandCode == p.getBrandCode() && id == p.getId();
+        }
+
+        @Override
+        public long getFinalPrice(int quantity) {
+            // chỉ lấy giờ hiện tại khi chuỗi có luật theo khung giờ
+            return apply(Money.times(product.getPriceCents(), quantity), quantity,
+                    anyWindow ? timeKey(LocalDateTime.now()) : 0);
+        }
+
+        /** Tiền (cent) của quantity sản phẩm sau các luật sản phẩm, lúc now. */
+        public long finalPrice(int quantity, LocalDateTime now) {
+            return apply(Money.times(product.getPriceCents(), quantity), quantity, anyWindow ? timeKey(now) : 0);
+        }
+
+        /** Phần giảm thêm (cent) cho sinh viên trên baseFinal (giá đã qua luật sản phẩm). */
+        public long studentDiscount(long baseFinal, int quantity, LocalDateTime now) {
+            Chain student = rules.student;
+            return baseFinal - student.apply(baseFinal, quantity, student.anyWindow ? timeKey(now) : 0);
+        }
+
+        private long apply(long amount, int quantity, long now) {
+            long[] en = entries;
+            for (int e = 0; e < en.length; ) {
+                long meta = en[e + 1];
+                if (quantity >= (int) (meta >>> 32) && now >= en[e + 2] && now < en[e + 3]) {
+                    amount -= Money.discount(amount, en[e]);
+                    // chỉ 1 bậc của mỗi nhóm: bỏ các bậc thấp hơn
+                    int group = (int) meta;
+                    do {
+                        e += STRIDE;
+                    } while (e < en.length && (int) en[e + 1] == group);
+                } else {
+                    e += STRIDE;
+                }
+            }
+            return amount;
+        }
+    }
+
+    // thời điểm địa phương -> số giây (so sánh bằng long, không tạo object)
+    private static long timeKey(LocalDateTime t) {
+        return t.toLocalDate().toEpochDay() * 86400L + t.toLocalTime().toSecondOfDay();
+    }
+
+    /** Bộ luật đã index theo phạm vi. */
+    static final class RuleSet {
+        final int size;
+        final List<Rule> all = new ArrayList<>();       // DEFAULT + ALL
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final List<Rule>[] byType = new List[]{new ArrayList<>(), new ArrayList<>(), new ArrayList<>()};
+        final Map<Integer, List<Rule>> byBrand = new HashMap<>();
+        final Map<String, List<Rule>> bySku = new HashMap<>();
+        // sản phẩm không có luật SKU riêng: chuỗi chỉ phụ thuộc class + brand nên dùng chung 1 mảng
+        final ConcurrentHashMap<String, long[]> shared = new ConcurrentHashMap<>();
+        final Chain student;
+
+        RuleSet(List<Rule> rules) {
+            size = rules.size();
+            List<Rule> studentRules = new ArrayList<>();
+            for (Rule r : rules) {
+                switch (r.kind) {
+                    case DEFAULT:
+                    case ALL:
+                        all.add(r);
+                        break;
+                    case TYPE:
+                        byType[ProductDictionary.typeCode(r.target)].add(r);
+                        break;
+                    case BRAND:
+                        byBrand.computeIfAbsent(ProductDictionary.brandCode(r.target), k -> new ArrayList<>()).add(r);
+                        break;
+                    case SKU:
+                        bySku.computeIfAbsent(ProductCatalog.key(r.target), k -> new ArrayList<>()).add(r);
+                        break;
+                    default:
+                        studentRules.add(r);
+                }
+            }
+            sortChain(studentRules);
+            student = new Chain(null, this, Chain.encode(studentRules, null));
+        }
+
+        Chain compile(Product p) {
+            List<Rule> sku = bySku.get(ProductCatalog.key(p.getId()));
+            if (sku != null) return new Chain(p, this, Chain.encode(rulesFor(p, sku), p));
+            long[] entries = shared.computeIfAbsent(p.getClass().getName() + '#' + p.getBrandCode(),
+                    k -> Chain.encode(rulesFor(p, Collections.emptyList()), p));
+            return new Chain(p, this, entries);
+        }
+
+        private List<Rule> rulesFor(Product p, List<Rule> sku) {
+            List<Rule> chain = new ArrayList<>(all);
+            chain.addAll(byType[p.getTypeCode()]);
+            List<Rule> brand = byBrand.get(p.getBrandCode());
+            if (brand != null) chain.addAll(brand);
+            chain.addAll(sku);
+            sortChain(chain);
+            return chain;
+        }
+    }
+
+    // nhóm theo thứ tự trong file, trong nhóm bậc minQty cao trước (bằng nhau thì dòng trước)
+    private static void sortChain(List<Rule> chain) {
+        chain.sort((a, b) -> {
+            if (a.group != b.group) return Integer.compare(a.group, b.group);
+            if (a.minQty != b.minQty) return Integer.compare(b.minQty, a.minQty);
+            return Integer.compare(a.order, b.order);
+        });
+    }
+
+    // 1 luồng nền (daemon) kiểm tra file luật của mọi engine; lịch bị hủy (close) được bỏ khỏi hàng đợi ngay
+    private static final ScheduledThreadPoolExecutor WATCHER = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "pricing-rules-watcher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        WATCHER.setRemoveOnCancelPolicy(true);
+    }
+
+    private final File file;
+    private final long reloadMs;
+    private boolean watching; // true cả sau close() để start() không bắt đầu lại
+    private ScheduledFuture<?> watchTask;
+    private volatile RuleSet rules;
+    private volatile Consumer<String> warningHandler;
+    // lastModified / length của file lúc nạp lần cuối (0 / 0: không có file, đang dùng luật mặc định)
+    private long loadedModified;
+    private long loadedLength;
+
+    /** Bắt đầu với luật mặc định cho tới khi start() nạp file. */
+    public PricingEngine(File file) {
+        this.file = file;
+        this.reloadMs = Math.max(10L, Long.getLong("pricing.reloadMs", 1000L));
+        this.rules = defaults();
+    }
+
+    public void setWarningHandler(Consumer<String> warningHandler) {
+        this.warningHandler = warningHandler;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getRuleCount() {
+        return rules.size;
+    }
+
+    /** Chuỗi luật của sản phẩm: ghép 1 lần, các lần sau chỉ kiểm tra còn đúng. */
+    public Chain chainFor(Product p) {
+        RuleSet current = rules;
+        Chain c = p.getPricingChain();
+        if (c == null || !c.validFor(p, current)) {
+            c = current.compile(p);
+            p.setPricingChain(c);
+        }
+        return c;
+    }
+
+    /**
+     * Bước khởi động: nạp file luật ngay trên luồng gọi, sau đó luồng nền kiểm tra mỗi reloadMs
+     * (luồng bán không đọc / stat file). Gọi nhiều lần chỉ có tác dụng lần đầu.
+     */
+    public synchronized void start() {
+        if (watching) return;
+        reloadIfChanged();
+        watchTask = WATCHER.scheduleWithFixedDelay(this::reloadIfChanged, reloadMs, reloadMs, TimeUnit.MILLISECONDS);
+        watching = true;
+    }
+
+    /**
+     * Dừng theo dõi file luật (hủy lịch trên WATCHER, không còn giữ tham chiếu tới engine).
+     * Engine vẫn tính giá bằng bộ luật hiện tại, reload() vẫn gọi tay được.
+     */
+    public synchronized void close() {
+        watching = true;
+        if (watchTask != null) {
+            watchTask.cancel(false);
+            watchTask = null;
+        }
+    }
+
+    private void reloadIfChanged() {
+        synchronized (this) {
+            if (file.lastModified() == loadedModified && file.length() == loadedLength) return;
+        }
+        try {
+            reload();
+        } catch (IOException | RuntimeException e) { // không để lỗi làm dừng lịch kiểm tra
+            InputLogger.log("PRICING_RULES_ERROR", e.getMessage());
+            Consumer<String> handler = warningHandler;
+            if (handler != null) handler.accept("Cannot load " + file.getName() + ", keeping previous rules: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Nạp lại file luật ngay (không có file thì về luật mặc định). Trả về số luật.
+     * File lỗi: ném lỗi kèm số dòng, bộ luật đang dùng giữ nguyên.
+     */
+    public synchronized int reload() throws IOException {
+        // ghi nhận trạng thái file trước khi đọc: file lỗi thì không thử lại cho tới khi file đổi tiếp
+        loadedModified = file.lastModified();
+        loadedLength = file.length();
+        RuleSet next;
+        if (!file.exists()) {
+            next = defaults();
+        } else {
+            try (BufferedReader br = new BufferedReader(
+                    new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+                next = new RuleSet(parse(br));
+            }
+        }
+        rules = next; // chuỗi đã ghép của bộ cũ tự hết hạn (validFor so bộ luật)
+        InputLogger.log("PRICING_RULES_LOADED", (file.exists() ? file.getName() : "defaults") + ", rules=" + next.size);
+        return next.size;
+    }
+
+    private static RuleSet defaults() {
+        List<Rule> rules = new ArrayList<>();
+        rules.add(new Rule(Kind.DEFAULT, "*", Double.NaN, 1, null, null, 0, 0));
+        rules.add(new Rule(Kind.STUDENT, "*", InventoryService.STUDENT_DISCOUNT_RATE, 1, null, null, 1, 1));
+        return new RuleSet(rules);
+    }
+
+    static List<Rule> parse(BufferedReader br) throws IOException {
+        List<Rule> rules = new ArrayList<>();
+        Map<String, Integer> groups = new HashMap<>();
+        String line;
+        int lineNo = 0;
+        while ((line = br.readLine()) != null) {
+            lineNo++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            try {
+                rules.add(parseRule(line, groups, lineNo));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new IllegalArgumentException("line " + lineNo + ": " + e.getMessage(), e);
+            }
+        }
+        return Collections.unmodifiableList(rules);
+    }
+
+    private static Rule parseRule(String line, Map<String, Integer> groups, int lineNo) {
+        String[] f = line.split(";", -1);
+        if (f.length < 2 || f.length > 6) {
+            throw new IllegalArgumentException("expected kind;target;rate[;minQty[;from[;to]]]");
+        }
+        Kind kind;
+        try {
+            kind = Kind.valueOf(f[0].trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown kind '" + f[0].trim() + "'");
+        }
+        String target = f[1].trim();
+        if (target.isEmpty()) throw new IllegalArgumentException("target is empty");
+        if (kind == Kind.TYPE && ProductDictionary.typeCode(target) == ProductDictionary.TYPE_OTHER
+                && !target.equalsIgnoreCase("Other")) {
+            throw new IllegalArgumentException("unknown type '" + target + "'");
+        }
+
+        String rateStr = field(f, 2);
+        double rate;
+        if (kind == Kind.DEFAULT) {
+            if (!rateStr.isEmpty()) throw new IllegalArgumentException("DEFAULT takes no rate");
+            rate = Double.NaN;
+        } else {
+            rate = Double.parseDouble(rateStr); // NumberFormatException là IllegalArgumentException
+            if (!(rate >= 0 && rate < 1)) throw new IllegalArgumentException("rate must be >= 0 and < 1");
+        }
+        String minStr = field(f, 3);
+        int minQty = minStr.isEmpty() ? 1 : Integer.parseInt(minStr);
+        if (minQty < 1) throw new IllegalArgumentException("minQty must be >= 1");
+        LocalDateTime from = time(field(f, 4), false);
+        LocalDateTime to = time(field(f, 5), true);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+
+        String groupKey = kind + ";" + target.toLowerCase(Locale.ROOT);
+        Integer group = groups.get(groupKey);
+        if (group == null) {
+            group = groups.size();
+            groups.put(groupKey, group);
+        }
+        return new Rule(kind, target, rate, minQty, from, to, group, lineNo);
+    }
+
+    private static String field(String[] f, int i) {
+        return i < f.length ? f[i].trim() : "";
+    }
+
+    // "yyyy-MM-dd" (đầu ngày; với to là hết ngày) hoặc "yyyy-MM-dd HH:mm"
+    private static LocalDateTime time(String s, boolean end) {
+        if (s.isEmpty()) return null;
+        if (s.length() == 10) {
+            LocalDate d = LocalDate.parse(s);
+            return (end ? d.plusDays(1) : d).atStartOfDay();
+        }
+        return LocalDateTime.parse(s, DATE_TIME);
+    }
+}
@@ -9,14 +9,17 @@ package main;
  *
  * @author btoan
  */
-public abstract class Product implements Discountable {
+public abstract class Product {
 
     private String id;
     private String name;
-    private String brand;
-    private double price;
-    private int quantity;
-    private boolean active;
+    private int brandCode = ProductDictionary.NO_BRAND; // brand lưu bằng mã trong ProductDictionary
+    // volatile: tồn kho / giá được sửa dưới lock của SKU nhưng đọc không lock từ nhiều luồng
+    private volatile long price; // cent (Money)
+    private volatile int quantity;
+    private volatile boolean active;
+    // chuỗi luật giảm giá đã ghép cho sản phẩm này (PricingEngine tự kiểm tra còn đúng không)
+    private volatile PricingEngine.Chain pricingChain;
 
     public Product() {
     }
@@ -24,8 +27,8 @@ public abstract class Product implements Discountable {
     public Product(String id, String name, String brand, double price, int quantity, boolean active) {
         this.id = id;
         this.name = name;
-        this.brand = brand;
-        this.price = price;
+        this.brandCode = ProductDictionary.brandCode(brand);
+        this.price = Money.ofDouble(price);
         this.quantity = quantity;
         this.active = active;
     }
@@ -47,18 +50,39 @@ public abstract class Product implements Discountable {
     }
 
     public String getBrand() {
-        return brand;
+        return ProductDictionary.brand(brandCode);
     }
 
     public void setBrand(String brand) {
-        this.brand = brand;
+        this.brandCode = ProductDictionary.brandCode(brand);
+    }
+
+    public int getBrandCode() {
+        return brandCode;
     }
 
+    PricingEngine.Chain getPricingChain() {
+        return pricingChain;
+    }
+
+    void setPricingChain(PricingEngine.Chain pricingChain) {
+        this.pricingChain = pricingChain;
+    }
+
+    /** Giá dạng double, chỉ để hiển thị / so sánh; tính tiền dùng getPriceCents. */
     public double getPrice() {
-        return price;
+        return Money.toDouble(price);
     }
 
     public void setPrice(double price) {
+        this.price = Money.ofDouble(price);
+    }
+
+    public long getPriceCents() {
+        return price;
+    }
+
+    public void setPriceCents(long price) {
         this.price = price;
     }
 
@@ -82,61 +106,56 @@ public abstract class Product implements Discountable {
     
     public abstract String getType();
 
+    /** ProductDictionary.TYPE_LAPTOP / TYPE_PHONE, dùng thay so sánh chuỗi getType(). */
+    public abstract int getTypeCode();
+
     public abstract String getExtraDataString();
 
-    protected abstract double getDiscountRate();
+    // như getExtraDataString nhưng ghi thẳng vào sb (không tạo String)
+    protected abstract void appendExtraData(StringBuilder sb);
 
-    @Override
-    public double getFinalPrice(int quantity) {
-        double total = price * quantity;
-        double discount = total * getDiscountRate();
-        return total - discount;
-    }
+    /**
+     * Tỉ lệ giảm mặc định theo loại, chỉ dùng cho luật DEFAULT của PricingEngine.
+     * Thành tiền tính qua PricingEngine.chainFor(p) (Discountable), không tính trên Product.
+     */
+    protected abstract double getDiscountRate();
 
     public String toDataLine() {
-        StringBuilder sb = new StringBuilder();
-        sb.append(getType()).append(";");
-        sb.append(id).append(";");
-        sb.append(name).append(";");
-        sb.append(brand).append(";");
-        sb.append(price).append(";");
-        sb.append(quantity).append(";");
-        sb.append(active).append(";");
-        sb.append(getExtraDataString());
+        StringBuilder sb = new StringBuilder(64);
+        appendDataLine(sb);
         return sb.toString();
     }
 
+    /**
+     * Ghi dòng dữ liệu (giống toDataLine) vào cuối sb, không tạo String trung gian:
+     * price luôn 2 chữ số lẻ (Money.append, ví dụ 28000000.00), không còn dạng 2.8E7.
+     * Dùng với 1 sb dùng lại cho nhiều sản phẩm (DataLineWriter).
+     */
+    public void appendDataLine(StringBuilder sb) {
+        sb.append(getType()).append(';');
+        sb.append(id).append(';');
+        sb.append(name).append(';');
+        sb.append(getBrand()).append(';');
+        Money.append(sb, price).append(';');
+        sb.append(quantity).append(';');
+        sb.append(active).append(';');
+        appendExtraData(sb);
+    }
+
     public static Product fromDataLine(String line) {
-        if (line == null || line.trim().isEmpty()) {
+        if (line == null) {
             return null;
         }
-        String[] parts = line.split(";");
-        if (parts.length < 8) {
+        DataLineTokenizer tk = new DataLineTokenizer();
+        if (!tk.split(line, 0, line.length())) {
             return null;
         }
-
-        String type = parts[0];
-        String id = parts[1];
-        String name = parts[2];
-        String brand = parts[3];
-        double price = Double.parseDouble(parts[4]);
-        int qty = Integer.parseInt(parts[5]);
-        boolean active = Boolean.parseBoolean(parts[6]);
-        String extra = parts[7];
-
-        if ("Laptop".equalsIgnoreCase(type)) {
-            int warranty = Integer.parseInt(extra);
-            return new Laptop(id, name, brand, price, qty, active, warranty);
-        } else if ("Phone".equalsIgnoreCase(type)) {
-            boolean support5G = Boolean.parseBoolean(extra);
-            return new Phone(id, name, brand, price, qty, active, support5G);
-        }
-        return null;
+        return tk.toProduct();
     }
 
     @Override
     public String toString() {
-        return String.format("[%s] id=%s, name=%s, brand=%s, price=%.2f, qty=%d, active=%b, extra=%s",
-                getType(), id, name, brand, price, quantity, active, getExtraDataString());
+        return String.format("[%s] id=%s, name=%s, brand=%s, price=%s, qty=%d, active=%b, extra=%s",
+                getType(), id, name, getBrand(), Money.format(price), quantity, active, getExtraDataString());
     }
 }
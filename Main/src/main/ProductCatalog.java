@@ -0,0 +1,367 @@
+package main;
+
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * Danh sách sản phẩm trong bộ nhớ + index theo ID.
+ * - ID so sánh không phân biệt hoa thường (giống equalsIgnoreCase cũ)
+ * - findById tra cứu O(1) qua ConcurrentHashMap, index luôn đồng bộ khi add / remove / clear
+ * - thứ tự theo ID giữ bằng ConcurrentSkipListMap (cập nhật O(log n) mỗi lần add / remove),
+ *   không cần sort lại cả danh sách
+ * - index trigram trên "name brand" cho tìm kiếm theo keyword (KeywordIndex)
+ * - index theo giá cho lọc khoảng giá (PriceIndex); search() chọn index chọn lọc nhất
+ * - tổng tồn kho cập nhật tăng dần (InventoryAggregates) + top theo giá từ PriceIndex
+ *
+ * Dùng được từ nhiều luồng (nhiều quầy bán cùng lúc):
+ * - đọc (findById, all) không lock, không chặn bán hàng
+ * - thêm / xóa sản phẩm đồng bộ trên catalog (hiếm)
+ * - thay đổi tồn kho khóa theo từng SKU (striped lock), check-then-act là nguyên tử
+ */
+public class ProductCatalog {
+
+    private static final int LOCK_STRIPES = 64; // lũy thừa của 2
+
+    private final ConcurrentNavigableMap<String, Product> ordered = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Product> idIndex = new ConcurrentHashMap<>();
+    private final KeywordIndex keywords = new KeywordIndex();
+    private final PriceIndex prices = new PriceIndex();
+    private final InventoryAggregates aggregates = new InventoryAggregates();
+    private final Object[] stockLocks = new Object[LOCK_STRIPES];
+
+    public ProductCatalog() {
+        for (int i = 0; i < stockLocks.length; i++) {
+            stockLocks[i] = new Object();
+        }
+    }
+
+    // key chuẩn hóa cho ID (lowercase, không phụ thuộc locale máy)
+    public static String key(String id) {
+        return id == null ? null : id.toLowerCase(Locale.ROOT);
+    }
+
+    public Product findById(String id) {
+        if (id == null) return null;
+        return idIndex.get(key(id));
+    }
+
+    public boolean contains(String id) {
+        return findById(id) != null;
+    }
+
+    // trả về false nếu ID đã tồn tại
+    public synchronized boolean add(Product p) {
+        String k = key(p.getId());
+        if (idIndex.putIfAbsent(k, p) != null) return false;
+        ordered.put(k, p);
+        keywords.add(k, p);
+        prices.add(k, p);
+        aggregates.add(k, p);
+        return true;
+    }
+
+    // thêm mới hoặc thay thế sản phẩm cùng ID
+    public synchronized void put(Product p) {
+        Product old = findById(p.getId());
+        if (old != null) remove(old);
+        add(p);
+    }
+
+    /**
+     * Thêm mới / cập nhật cả lô (bulk import), trả về số sản phẩm thêm mới.
+     * - ID chưa có hoặc khác loại (Laptop <-> Phone): thêm / thay object, cả lô trong 1 lần giữ lock catalog
+     * - ID đã có, cùng loại: sửa tại chỗ trong lock của SKU (như sửa sản phẩm) để quầy đang bán
+     *   vẫn giữ đúng object và không ghi đè tồn kho vừa bán
+     */
+    public int upsertAll(List<Product> batch) {
+        List<Product[]> inPlace = new ArrayList<>();
+        int added = 0;
+        synchronized (this) {
+            for (Product p : batch) {
+                Product old = findById(p.getId());
+                if (old == null) {
+                    add(p);
+                    added++;
+                } else if (old.getClass() == p.getClass()) {
+                    inPlace.add(new Product[]{old, p});
+                } else {
+                    remove(old);
+                    add(p);
+                }
+            }
+        }
+        // ngoài lock catalog: thứ tự lock SKU -> catalog giống updateProduct
+        for (Product[] pair : inPlace) {
+            Product old = pair[0], p = pair[1];
+            synchronized (lockFor(old)) {
+                if (sameFields(old, p)) continue; // feed gửi lại SKU không đổi
+                old.setName(p.getName());
+                old.setBrand(p.getBrand());
+                old.setPriceCents(p.getPriceCents());
+                old.setQuantity(p.getQuantity());
+                old.setActive(p.isActive());
+                if (old instanceof Laptop) ((Laptop) old).setWarrantyMonths(((Laptop) p).getWarrantyMonths());
+                if (old instanceof Phone) ((Phone) old).setSupport5G(((Phone) p).isSupport5G());
+                update(old);
+            }
+        }
+        return added;
+    }
+
+    private static boolean sameFields(Product a, Product b) {
+        if (!a.getName().equals(b.getName()) || a.getBrandCode() != b.getBrandCode()
+                || a.getPriceCents() != b.getPriceCents() || a.getQuantity() != b.getQuantity() || a.isActive() != b.isActive()) {
+            return false;
+        }
+        if (a instanceof Laptop) return ((Laptop) a).getWarrantyMonths() == ((Laptop) b).getWarrantyMonths();
+        if (a instanceof Phone) return ((Phone) a).isSupport5G() == ((Phone) b).isSupport5G();
+        return a.getExtraDataString().equals(b.getExtraDataString());
+    }
+
+    public synchronized boolean remove(Product p) {
+        String k = key(p.getId());
+        if (!idIndex.remove(k, p)) return false;
+        ordered.remove(k);
+        keywords.remove(k);
+        prices.remove(k);
+        aggregates.remove(k);
+        return true;
+    }
+
+    // gọi sau khi sửa thông tin sản phẩm (ID không đổi nên index vẫn đúng)
+    public synchronized void update(Product p) {
+        String k = key(p.getId());
+        idIndex.put(k, p);
+        ordered.put(k, p);
+        keywords.update(k, p);
+        prices.update(k, p);
+        aggregates.refresh(k, p);
+    }
+
+    public synchronized void clear() {
+        ordered.clear();
+        idIndex.clear();
+        keywords.clear();
+        prices.clear();
+        aggregates.clear();
+    }
+
+    public int size() {
+        return idIndex.size();
+    }
+
+    public boolean isEmpty() {
+        return idIndex.isEmpty();
+    }
+
+    // duyệt theo ID tăng dần, không cần sort (weakly consistent khi có luồng khác đang sửa)
+    public Collection<Product> all() {
+        return Collections.unmodifiableCollection(ordered.values());
+    }
+
+    // ===== PHÂN TRANG THEO ID (cursor) =====
+
+    /** Trang bắt đầu từ fromId (tính cả fromId nếu có); fromId null là đầu danh sách. */
+    public ProductPage page(String fromId, int size) {
+        return fromId == null
+                ? forward(ordered, size)
+                : forward(ordered.tailMap(key(fromId), true), size);
+    }
+
+    /** Trang ngay sau lastId (lastId là ID cuối của trang đang xem). */
+    public ProductPage pageAfter(String lastId, int size) {
+        return forward(ordered.tailMap(key(lastId), false), size);
+    }
+
+    /** Trang ngay trước firstId (firstId là ID đầu của trang đang xem). */
+    public ProductPage pageBefore(String firstId, int size) {
+        List<Product> items = new ArrayList<>(size);
+        String firstKey = null;
+        for (Map.Entry<String, Product> e : ordered.headMap(key(firstId), false).descendingMap().entrySet()) {
+            if (items.size() == size) break;
+            items.add(e.getValue());
+            firstKey = e.getKey();
+        }
+        Collections.reverse(items);
+        boolean hasPrevious = firstKey != null && ordered.lowerKey(firstKey) != null;
+        // trang trước của 1 trang nào đó thì luôn còn trang kế, trừ khi trang đó vừa bị xóa hết
+        boolean hasNext = ordered.ceilingKey(key(firstId)) != null;
+        return new ProductPage(items, hasPrevious, hasNext);
+    }
+
+    // lấy tối đa size phần tử đầu của view, chỉ chạm các dòng trả về (+ 1 lần tìm key kế / trước)
+    private ProductPage forward(ConcurrentNavigableMap<String, Product> view, int size) {
+        List<Product> items = new ArrayList<>(size);
+        String firstKey = null, lastKey = null;
+        for (Map.Entry<String, Product> e : view.entrySet()) {
+            if (items.size() == size) break;
+            items.add(e.getValue());
+            if (firstKey == null) firstKey = e.getKey();
+            lastKey = e.getKey();
+        }
+        boolean hasPrevious = firstKey != null && ordered.lowerKey(firstKey) != null;
+        boolean hasNext = lastKey != null && ordered.higherKey(lastKey) != null;
+        return new ProductPage(items, hasPrevious, hasNext);
+    }
+
+    /**
+     * Tìm theo keyword / type / khoảng giá, kết quả theo ID tăng dần.
+     * Bắt đầu từ phía chọn lọc nhất rồi lọc tiếp trên ứng viên:
+     * - khoảng giá: đếm trong PriceIndex (dừng sớm khi đã nhiều hơn phía keyword)
+     * - keyword: số ứng viên ước lượng từ KeywordIndex
+     * - không phía nào đủ chọn lọc: duyệt cả catalog theo ID
+     */
+    public List<Product> search(SearchCriteria c) {
+        String keyword = c.getKeyword();
+        int keywordCandidates = keyword.isEmpty() ? -1 : keywords.estimate(keyword);
+        if (c.getMinPrice() >= 0 || c.getMaxPrice() >= 0) {
+            int limit = Math.max(64, idIndex.size() / 8);
+            if (keywordCandidates >= 0) limit = Math.min(limit, keywordCandidates);
+            if (prices.count(c.getMinPrice(), c.getMaxPrice(), limit) <= limit) {
+                List<PriceIndex.Entry> hits = new ArrayList<>();
+                for (PriceIndex.Entry e : prices.range(c.getMinPrice(), c.getMaxPrice())) {
+                    if (!keyword.isEmpty() && !keywords.matches(e.getKey(), keyword)) continue;
+                    if (c.matchesFilters(e.getProduct())) hits.add(e);
+                }
+                hits.sort((a, b) -> a.getKey().compareTo(b.getKey()));
+                List<Product> result = new ArrayList<>(hits.size());
+                for (PriceIndex.Entry e : hits) {
+                    result.add(e.getProduct());
+                }
+                return result;
+            }
+        }
+        List<Product> result = new ArrayList<>();
+        for (Product p : keyword.isEmpty() ? all() : findByKeyword(keyword)) {
+            if (c.matchesFilters(p)) result.add(p);
+        }
+        return result;
+    }
+
+    /**
+     * Sản phẩm có "name brand" chứa keyword (đã viết thường), theo ID tăng dần.
+     * Keyword >= 3 ký tự và đủ chọn lọc thì chỉ duyệt ứng viên từ index trigram,
+     * còn lại duyệt theo ID trên chuỗi đã index.
+     */
+    public List<Product> findByKeyword(String keyword) {
+        List<String> keys = keywords.find(keyword, Math.max(64, idIndex.size() / 8));
+        if (keys == null) {
+            List<Product> result = new ArrayList<>();
+            for (Map.Entry<String, Product> e : ordered.entrySet()) {
+                if (keywords.matches(e.getKey(), keyword)) result.add(e.getValue());
+            }
+            return result;
+        }
+        List<Product> result = new ArrayList<>(keys.size());
+        for (String k : keys) {
+            Product p = idIndex.get(k);
+            if (p != null) result.add(p); // có thể vừa bị xóa ở luồng khác
+        }
+        return result;
+    }
+
+    public InventoryAggregates getAggregates() {
+        return aggregates;
+    }
+
+    // k sản phẩm giá cao nhất (giảm dần, bằng giá thì ID nhỏ trước)
+    public List<Product> topByPrice(int k) {
+        return prices.top(k);
+    }
+
+    // ===== TỒN KHO (khóa theo SKU) =====
+
+    /**
+     * Trừ kho nguyên tử: kiểm tra active + đủ hàng rồi trừ trong cùng 1 lock của SKU.
+     * onChanged (nếu có) chạy trong lock, sau khi trừ, để ghi journal đúng thứ tự.
+     * Trả về số lượng còn lại, hoặc -1 nếu sản phẩm không active / không đủ hàng / qty không hợp lệ.
+     */
+    public int decreaseStock(Product p, int qty, Consumer<Product> onChanged) {
+        if (qty <= 0) return -1;
+        synchronized (lockFor(p)) {
+            if (!p.isActive() || qty > p.getQuantity()) return -1;
+            int left = p.getQuantity() - qty;
+            p.setQuantity(left);
+            aggregates.refresh(key(p.getId()), p);
+            if (onChanged != null) onChanged.accept(p);
+            return left;
+        }
+    }
+
+    /**
+     * Trừ kho nhiều SKU khác nhau trong 1 lần (đơn nhiều dòng): khóa mọi SKU liên quan theo thứ tự
+     * stripe tăng dần (không deadlock giữa 2 đơn), kiểm tra active + đủ hàng cho tất cả rồi mới trừ.
+     * Thiếu hàng ở 1 dòng thì không trừ dòng nào. onApplied (nếu có) chạy trong lock, sau khi trừ xong.
+     * Trả về -1 nếu thành công, hoặc vị trí dòng đầu tiên không active / không đủ hàng / qty không hợp lệ.
+     */
+    public int decreaseStockAll(List<Product> products, int[] qty, Runnable onApplied) {
+        for (int i = 0; i < qty.length; i++) {
+            if (qty[i] <= 0) return i;
+        }
+        boolean[] used = new boolean[LOCK_STRIPES];
+        int count = 0;
+        for (Product p : products) {
+            int s = stripe(p);
+            if (!used[s]) {
+                used[s] = true;
+                count++;
+            }
+        }
+        int[] stripes = new int[count];
+        for (int s = 0, n = 0; s < LOCK_STRIPES; s++) {
+            if (used[s]) stripes[n++] = s;
+        }
+        int[] failed = {-1};
+        withStripes(stripes, 0, () -> {
+            for (int i = 0; i < qty.length; i++) {
+                Product p = products.get(i);
+                if (!p.isActive() || qty[i] > p.getQuantity()) {
+                    failed[0] = i;
+                    return;
+                }
+            }
+            for (int i = 0; i < qty.length; i++) {
+                Product p = products.get(i);
+                p.setQuantity(p.getQuantity() - qty[i]);
+                aggregates.refresh(key(p.getId()), p);
+            }
+            if (onApplied != null) onApplied.run();
+        });
+        return failed[0];
+    }
+
+    private void withStripes(int[] stripes, int i, Runnable action) {
+        if (i == stripes.length) {
+            action.run();
+            return;
+        }
+        synchronized (stockLocks[stripes[i]]) {
+            withStripes(stripes, i + 1, action);
+        }
+    }
+
+    /** Chạy action trong lock của SKU (sửa nhiều trường cùng lúc mà không xen với bán hàng). */
+    public void withStockLock(Product p, Runnable action) {
+        synchronized (lockFor(p)) {
+            action.run();
+        }
+    }
+
+    private Object lockFor(Product p) {
+        return stockLocks[stripe(p)];
+    }
+
+    private static int stripe(Product p) {
+        int h = key(p.getId()).hashCode();
+        h ^= (h >>> 16);
+        return h & (LOCK_STRIPES - 1);
+    }
+}
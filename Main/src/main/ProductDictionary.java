@@ -0,0 +1,148 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * Từ điển dùng chung cho các giá trị lặp lại nhiều của sản phẩm:
+ * - type: mã cố định TYPE_LAPTOP / TYPE_PHONE / TYPE_OTHER (so sánh không phân biệt hoa thường như cũ)
+ * - brand: mỗi brand khác nhau chỉ giữ 1 String, Product chỉ lưu mã int
+ * Brand phân biệt hoa thường (giữ nguyên cách viết để hiển thị / ghi file).
+ *
+ * Đọc không lock (tra mã, lấy brand theo mã); chỉ thêm brand mới mới đồng bộ.
+ * Brand không bao giờ bị xóa khỏi từ điển (số brand khác nhau nhỏ).
+ */
+public final class ProductDictionary {
+
+    public static final int TYPE_LAPTOP = 0;
+    public static final int TYPE_PHONE = 1;
+    public static final int TYPE_OTHER = 2;
+
+    public static final int NO_BRAND = -1;
+
+    private static final Object LOCK = new Object();
+    // mã -> brand; phần tử được ghi trước khi mã xuất hiện trong bảng băm
+    private static volatile String[] brands = new String[64];
+    // bảng băm brand -> mã + 1 (0 = ô trống), kích thước lũy thừa của 2
+    private static volatile int[] slots = new int[128];
+    private static int count;
+
+    private ProductDictionary() {
+    }
+
+    public static int typeCode(String type) {
+        if ("Laptop".equalsIgnoreCase(type)) return TYPE_LAPTOP;
+        if ("Phone".equalsIgnoreCase(type)) return TYPE_PHONE;
+        return TYPE_OTHER;
+    }
+
+    // tên hiển thị của type code (OTHER không có tên riêng trong dữ liệu)
+    public static String typeName(int type) {
+        if (type == TYPE_LAPTOP) return "Laptop";
+        if (type == TYPE_PHONE) return "Phone";
+        return "Other";
+    }
+
+    /** Mã của brand (thêm mới nếu chưa có), NO_BRAND nếu null. */
+    public static int brandCode(String brand) {
+        if (brand == null) return NO_BRAND;
+        return brandCode(brand, 0, brand.length());
+    }
+
+    /** Mã của brand = src[from, to), không tạo String nếu brand đã có trong từ điển. */
+    public static int brandCode(CharSequence src, int from, int to) {
+        int hash = hash(src, from, to);
+        int code = find(src, from, to, hash);
+        if (code >= 0) return code;
+        synchronized (LOCK) {
+            code = find(src, from, to, hash);
+            if (code >= 0) return code;
+            return insert(src.subSequence(from, to).toString(), hash);
+        }
+    }
+
+    /** Brand dạng chuẩn (bản duy nhất trong từ điển). */
+    public static String canonicalBrand(CharSequence src, int from, int to) {
+        return brand(brandCode(src, from, to));
+    }
+
+    public static String brand(int code) {
+        return code == NO_BRAND ? null : brands[code];
+    }
+
+    public static int brandCount() {
+        synchronized (LOCK) {
+            return count;
+        }
+    }
+
+    // giống String.hashCode nên String đã có hash cache không phải tính lại nhiều
+    private static int hash(CharSequence src, int from, int to) {
+        if (src instanceof String && from == 0 && to == src.length()) return src.hashCode();
+        int h = 0;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + src.charAt(i);
+        }
+        return h;
+    }
+
+    // -1 nếu chưa có (hoặc chưa thấy bản ghi mới của luồng khác: bên gọi kiểm tra lại trong lock)
+    private static int find(CharSequence src, int from, int to, int hash) {
+        int[] s = slots;
+        String[] v = brands;
+        int mask = s.length - 1;
+        for (int i = mix(hash) & mask; ; i = (i + 1) & mask) {
+            int code = s[i] - 1;
+            if (code < 0) return -1;
+            if (code < v.length && equals(v[code], src, from, to)) return code;
+        }
+    }
+
+    private static boolean equals(String value, CharSequence src, int from, int to) {
+        if (value == null) return false;
+        if (value == src) return true;
+        int len = to - from;
+        if (value.length() != len) return false;
+        for (int i = 0; i < len; i++) {
+            if (value.charAt(i) != src.charAt(from + i)) return false;
+        }
+        return true;
+    }
+
+    private static int insert(String brand, int hash) {
+        int code = count;
+        String[] v = brands;
+        if (code == v.length) {
+            v = Arrays.copyOf(v, code * 2);
+        }
+        v[code] = brand;
+        brands = v;
+        count = code + 1;
+
+        int[] s = slots;
+        if (count * 2 > s.length) {
+            // dựng bảng mới xong mới thay, luồng đọc không thấy bảng dở
+            s = new int[s.length * 2];
+            for (int c = 0; c < count; c++) {
+                put(s, v[c].hashCode(), c);
+            }
+            slots = s;
+        } else {
+            put(s, hash, code);
+            slots = s; // ghi volatile để luồng đọc thấy ô mới
+        }
+        return code;
+    }
+
+    private static void put(int[] s, int hash, int code) {
+        int mask = s.length - 1;
+        int i = mix(hash) & mask;
+        while (s[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        s[i] = code + 1;
+    }
+
+    private static int mix(int h) {
+        return h ^ (h >>> 16);
+    }
+}
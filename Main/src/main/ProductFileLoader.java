@@ -0,0 +1,266 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Đọc products.txt song song:
+ * - chia file thành các chunk (cắt đúng sau ký tự '\n'), đọc từng chunk bằng FileChannel.read theo vị trí
+ *   vào buffer heap dùng lại cho mỗi luồng (không map file: trên Windows file đang map thì compact không
+ *   thay được products.txt bằng Files.move)
+ * - parse các chunk trên ForkJoinPool, mỗi chunk dùng 1 DataLineTokenizer riêng
+ * - dòng lỗi (sai số, thiếu trường, type lạ) bị bỏ qua và đếm lại, không làm hỏng cả lần load
+ * - đọc UTF-8 (như DataLineWriter ghi); chunk không phải UTF-8 hợp lệ thì đọc lại bằng charset mặc định
+ *   của máy (file do bản cũ ghi bằng FileWriter, ví dụ Windows-1258), lần save sau sẽ ghi lại thành UTF-8
+ * Kết quả giữ đúng thứ tự dòng trong file.
+ */
+public class ProductFileLoader {
+
+    private static final int DEFAULT_CHUNK_BYTES = 4 * 1024 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int chunkBytes;
+
+    public ProductFileLoader() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_BYTES);
+    }
+
+    public ProductFileLoader(ForkJoinPool pool, int chunkBytes) {
+        this.pool = pool;
+        this.chunkBytes = Math.max(1024, chunkBytes);
+    }
+
+    /** Kết quả 1 lần load. */
+    public static class Result {
+        private final List<Product> products;
+        private final long lines;
+        private final long badLines;
+        private final long nanos;
+
+        Result(List<Product> products, long lines, long badLines, long nanos) {
+            this.products = products;
+            this.lines = lines;
+            this.badLines = badLines;
+            this.nanos = nanos;
+        }
+
+        public List<Product> getProducts() {
+            return products;
+        }
+
+        public long getLines() {
+            return lines;
+        }
+
+        public long getBadLines() {
+            return badLines;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public double getLinesPerSecond() {
+            return nanos == 0 ? 0 : lines * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("lines=%d, bad=%d, time=%.1fms, %.0f lines/s",
+                    lines, badLines, nanos / 1e6, getLinesPerSecond());
+        }
+    }
+
+    public Result load(File file) throws IOException {
+        long t0 = System.nanoTime();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel ch = raf.getChannel()) {
+
+            long[] bounds = chunkBounds(ch, chunkBytes);
+            Chunk[] chunks = pool.invoke(new ParseTask(ch, bounds, 0, bounds.length - 1));
+
+            int total = 0;
+            long lines = 0, bad = 0;
+            for (Chunk c : chunks) {
+                if (c.error != null) throw c.error;
+                total += c.products.size();
+                lines += c.lines;
+                bad += c.badLines;
+            }
+            List<Product> all = new ArrayList<>(total);
+            for (Chunk c : chunks) {
+                all.addAll(c.products);
+            }
+            return new Result(all, lines, bad, System.nanoTime() - t0);
+        }
+    }
+
+    // ranh giới chunk: [bounds[i], bounds[i+1]), luôn bắt đầu ngay sau '\n' (dùng chung với SalesHistoryAnalyzer)
+    static long[] chunkBounds(FileChannel ch, int chunkBytes) throws IOException {
+        long size = ch.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long pos = chunkBytes;
+        while (pos < size) {
+            long cut = -1;
+            long scan = pos;
+            while (cut < 0 && scan < size) {
+                probe.clear();
+                int n = ch.read(probe, scan);
+                if (n <= 0) break;
+                for (int i = 0; i < n; i++) {
+                    if (probe.get(i) == '\n') {
+                        cut = scan + i + 1;
+                        break;
+                    }
+                }
+                scan += n;
+            }
+            if (cut < 0 || cut >= size) break;
+            bounds.add(cut);
+            pos = cut + chunkBytes;
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    private static class Chunk {
+        final List<Product> products = new ArrayList<>();
+        long lines;
+        long badLines;
+        IOException error;
+    }
+
+    // chia đôi danh sách chunk cho tới khi còn 1 chunk thì parse
+    private static class ParseTask extends RecursiveTask<Chunk[]> {
+        private static final long serialVersionUID = 1L;
+
+        // buffer đọc chunk của từng luồng worker, lớn dần theo chunk lớn nhất đã gặp
+        private static final ThreadLocal<ByteBuffer> BUFFER = new ThreadLocal<>();
+
+        private final FileChannel ch;
+        private final long[] bounds;
+        private final int from;
+        private final int to;
+
+        ParseTask(FileChannel ch, long[] bounds, int from, int to) {
+            this.ch = ch;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Chunk[] compute() {
+            if (to - from <= 1) {
+                return new Chunk[]{parse(bounds[from], bounds[to])};
+            }
+            int mid = (from + to) >>> 1;
+            ParseTask left = new ParseTask(ch, bounds, from, mid);
+            ParseTask right = new ParseTask(ch, bounds, mid, to);
+            left.fork();
+            Chunk[] r = right.compute();
+            Chunk[] l = left.join();
+            Chunk[] all = new Chunk[l.length + r.length];
+            System.arraycopy(l, 0, all, 0, l.length);
+            System.arraycopy(r, 0, all, l.length, r.length);
+            return all;
+        }
+
+        private Chunk parse(long start, long end) {
+            Chunk chunk = new Chunk();
+            if (end <= start) return chunk;
+            try {
+                parseLines(decode(read(ch, start, end)), chunk);
+            } catch (IOException e) {
+                chunk.error = e;
+            }
+            return chunk;
+        }
+
+        // đọc [start, end) vào buffer của luồng hiện tại (đã flip)
+        private static ByteBuffer read(FileChannel ch, long start, long end) throws IOException {
+            int len = (int) (end - start);
+            ByteBuffer buf = BUFFER.get();
+            if (buf == null || buf.capacity() < len) {
+                buf = ByteBuffer.allocate(len);
+                BUFFER.set(buf);
+            }
+            buf.clear().limit(len);
+            long position = start;
+            while (buf.hasRemaining()) {
+                int n = ch.read(buf, position);
+                if (n < 0) throw new IOException("Unexpected end of file");
+                position += n;
+            }
+            buf.flip();
+            return buf;
+        }
+
+        // UTF-8 chặt (không thay byte lỗi bằng U+FFFD), sai thì thử charset mặc định
+        private static CharBuffer decode(ByteBuffer buf) {
+            try {
+                return StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPORT)
+                        .onUnmappableCharacter(CodingErrorAction.REPORT)
+                        .decode(buf.duplicate());
+            } catch (CharacterCodingException e) {
+                return Charset.defaultCharset().decode(buf);
+            }
+        }
+
+        private static void parseLines(CharBuffer chars, Chunk chunk) {
+            DataLineTokenizer tk = new DataLineTokenizer();
+            int len = chars.length();
+            int lineStart = 0;
+            while (lineStart < len) {
+                int next = nextLine(chars, lineStart, len);
+                int lineEnd = next > len ? len : next - 1;
+                if (lineEnd > lineStart && chars.charAt(lineEnd - 1) == '\r') lineEnd--;
+                parseLine(tk, chars, lineStart, lineEnd, chunk);
+                lineStart = next;
+            }
+        }
+
+        // vị trí bắt đầu dòng kế tiếp (ngay sau '\n'), hoặc len + 1 nếu là dòng cuối
+        private static int nextLine(CharBuffer chars, int from, int len) {
+            for (int i = from; i < len; i++) {
+                if (chars.charAt(i) == '\n') return i + 1;
+            }
+            return len + 1;
+        }
+
+        private static void parseLine(DataLineTokenizer tk, CharBuffer chars, int start, int end, Chunk chunk) {
+            if (DataLineTokenizer.isBlank(chars, start, end)) return;
+            chunk.lines++;
+            try {
+                Product p = tk.split(chars, start, end) ? tk.toProduct() : null;
+                if (p != null) {
+                    chunk.products.add(p);
+                } else {
+                    chunk.badLines++;
+                }
+            } catch (RuntimeException e) {
+                chunk.badLines++;
+            }
+        }
+    }
+}
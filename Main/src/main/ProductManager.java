@@ -1,69 +1,101 @@
 package main;
 
 /**
- * Quản lý danh sách sản phẩm (Laptop, Phone):
- * - Load / save file products.txt
- * - Thêm / sửa / xóa
- * - Bán hàng (invoice + lịch sử sales, thêm giảm giá sinh viên)
- * - Tìm kiếm, filter
- * - Dashboard + export tồn kho
+ * Giao diện console cho quản lý sản phẩm (Laptop, Phone):
+ * nhập liệu bằng Scanner, kiểm tra định dạng, in bảng / hóa đơn.
+ * Nghiệp vụ (load / save, thêm / sửa / xóa, bán, tìm kiếm, dashboard) nằm ở InventoryService.
  */
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.time.LocalDateTime;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
-import java.util.Comparator;
 
 public class ProductManager {
 
-    private List<Product> products = new ArrayList<>();
-    private static final String FILE_NAME = "products.txt";
+    private final InventoryService service;
 
-    // giảm giá thêm cho sinh viên (5%)
-    private static final double STUDENT_DISCOUNT_RATE = 0.05;
+    public ProductManager() {
+        this(new InventoryService());
+    }
+
+    public ProductManager(InventoryService service) {
+        this.service = service;
+        service.setWarningHandler(ConsoleUI::printWarning);
+    }
+
+    public InventoryService getService() {
+        return service;
+    }
 
     // ===== FILE I/O =====
     public void loadFromFile() {
-        products.clear();
-        File f = new File(FILE_NAME);
-        if (!f.exists()) {
-            ConsoleUI.printInfo("Data file not found, starting with empty list.");
-            InputLogger.log("LOAD_FILE", "File not found, start empty.");
-            return;
+        InventoryService.LoadReport r = service.load();
+        String fileName = service.getDataFile().getName();
+        if (r.getSnapshotError() != null) {
+            ConsoleUI.printWarning("Cannot read snapshot, falling back to " + fileName + ": " + r.getSnapshotError());
+        }
+        switch (r.getSource()) {
+            case SNAPSHOT:
+                ConsoleUI.printSuccess("Loaded " + r.getProducts() + " products from snapshot.");
+                break;
+            case TEXT:
+                ConsoleUI.printSuccess("Loaded " + r.getProducts() + " products from file.");
+                if (r.getBadLines() > 0) {
+                    ConsoleUI.printWarning("Skipped " + r.getBadLines() + " invalid line(s) in " + fileName + ".");
+                }
+                break;
+            default:
+                if (r.getLoadError() != null) {
+                    ConsoleUI.printError("Error loading file: " + r.getLoadError());
+                } else {
+                    ConsoleUI.printInfo("Data file not found, starting with empty list.");
+                }
+        }
+        if (r.isJournalStale()) {
+            ConsoleUI.printWarning(r.getJournalStaleBase() + " was changed outside the program, journal"
+                    + " ignored (moved to " + InventoryService.JOURNAL_FILE + ".old).");
+        }
+        if (r.isJournalReplayed()) {
+            ConsoleUI.printSuccess("Replayed " + r.getJournalApplied() + " change(s) from journal, now "
+                    + service.size() + " products.");
+            if (r.getJournalSkipped() > 0) {
+                ConsoleUI.printWarning("Skipped " + r.getJournalSkipped() + " invalid journal entr(y/ies).");
+            }
+        }
+        if (r.getJournalError() != null) {
+            ConsoleUI.printError("Error replaying journal: " + r.getJournalError());
         }
+        // sau load + replay: chỉ ghi các lần đổi mức tồn kho của phiên này
+        service.startLowStockAlerts();
+        migrateSalesStore();
+    }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                Product p = Product.fromDataLine(line);
-                if (p != null) products.add(p);
+    // lần đầu chạy bản có SalesStore: nạp sales_history.txt cũ trước khi bán
+    private void migrateSalesStore() {
+        try {
+            int n = SalesHistoryWriter.migrateStore();
+            if (n < 0) return;
+            InputLogger.log("SALES_STORE_IMPORT", "Imported " + n + " sales from " + SalesHistoryWriter.FILE_NAME);
+            if (n > 0) {
+                ConsoleUI.printSuccess("Imported " + n + " sale(s) from " + SalesHistoryWriter.FILE_NAME
+                        + " into the sales report store.");
             }
-            sortById(); // tự động sort sau khi load
-            ConsoleUI.printSuccess("Loaded " + products.size() + " products from file.");
-            InputLogger.log("LOAD_FILE", "Loaded " + products.size() + " products.");
         } catch (IOException e) {
-            ConsoleUI.printError("Error loading file: " + e.getMessage());
-            InputLogger.log("LOAD_FILE_ERROR", e.getMessage());
-        } catch (Exception e) {
-            ConsoleUI.printError("Unexpected error while loading file: " + e.getMessage());
-            InputLogger.log("LOAD_FILE_EXCEPTION", e.toString());
+            ConsoleUI.printWarning("Cannot import " + SalesHistoryWriter.FILE_NAME + " into the sales report store: "
+                    + e.getMessage());
+            InputLogger.log("SALES_STORE_IMPORT_ERROR", e.getMessage());
         }
     }
 
     public void saveToFile() {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(FILE_NAME))) {
-            for (Product p : products) {
-                pw.println(p.toDataLine());
-            }
-            ConsoleUI.printSuccess("Saved " + products.size() + " products to file.");
-            InputLogger.log("SAVE_FILE", "Saved " + products.size() + " products.");
+        try {
+            int n = service.save();
+            ConsoleUI.printSuccess("Saved " + n + " products to file.");
         } catch (IOException e) {
             ConsoleUI.printError("Error saving file: " + e.getMessage());
             InputLogger.log("SAVE_FILE_ERROR", e.getMessage());
@@ -73,12 +105,15 @@ public class ProductManager {
         }
     }
 
+    // lỗi nghiệp vụ từ service: in message + ghi log theo code của lỗi
+    private void printFailure(InventoryException e) {
+        ConsoleUI.printError(e.getMessage() + " Action canceled.");
+        InputLogger.log(e.getCode(), e.getDetail());
+    }
+
     // ===== helper =====
     private Product findById(String id) {
-        for (Product p : products) {
-            if (p.getId().equalsIgnoreCase(id)) return p;
-        }
-        return null;
+        return service.findById(id);
     }
 
     private String cutString(String s, int maxLen) {
@@ -87,47 +122,58 @@ public class ProductManager {
         return s.substring(0, maxLen - 3) + "...";
     }
 
-    // luôn sort theo ID tăng dần
-    private void sortById() {
-        products.sort(Comparator.comparing(p -> p.getId().toLowerCase()));
+    // ===== BẢNG PRODUCT CỐ ĐỊNH (ASCII, PRICE RỘNG) =====
+    // dùng chung cho console (list / search) và export, qua TableRenderer
+    private static final String PRODUCT_TABLE_LINE =
+            "+----+--------+--------+----------------+----------+--------------+------+--------+--------+";
+
+    private void printProductTable(Iterable<Product> products) throws IOException {
+        printProductTable(products, 1);
     }
 
-    // ===== BẢNG PRODUCT CỐ ĐỊNH (ASCII, PRICE RỘNG) =====
-    private void printProductTableHeader() {
+    // firstIndex: số thứ tự của dòng đầu (trang sau đánh số tiếp trang trước)
+    private void printProductTable(Iterable<Product> products, int firstIndex) throws IOException {
         ConsoleUI.printSection("PRODUCT LIST (sorted by ID ascending)");
-        System.out.println("+----+--------+--------+----------------+----------+--------------+------+--------+--------+");
-        System.out.printf("| %-2s | %-6s | %-6s | %-14s | %-8s | %-12s | %-4s | %-6s | %-6s |%n",
-                "No", "ID", "Type", "Name", "Brand", "Price", "Qty", "Active", "Extra");
-        System.out.println("+----+--------+--------+----------------+----------+--------------+------+--------+--------+");
+        TableRenderer t = TableRenderer.console();
+        renderProductTable(t, products, firstIndex);
+        t.flush();
     }
 
-    private void printProductRow(int index, Product p) {
-        String extra;
+    private static void renderProductTable(TableRenderer t, Iterable<Product> products) throws IOException {
+        renderProductTable(t, products, 1);
+    }
+
+    private static void renderProductTable(TableRenderer t, Iterable<Product> products, int firstIndex)
+            throws IOException {
+        t.line(PRODUCT_TABLE_LINE);
+        t.cell("No", 2).cell("ID", 6).cell("Type", 6).cell("Name", 14).cell("Brand", 8)
+                .cell("Price", 12).cell("Qty", 4).cell("Active", 6).cell("Extra", 6).endRow();
+        t.line(PRODUCT_TABLE_LINE);
+        int index = firstIndex;
+        for (Product p : products) {
+            renderProductRow(t, index++, p);
+        }
+        t.line(PRODUCT_TABLE_LINE);
+    }
+
+    private static void renderProductRow(TableRenderer t, int index, Product p) throws IOException {
+        t.cell(index, 2)
+                .cell(p.getId(), 6)
+                .cell(p.getType(), 6, 6)
+                .cell(p.getName(), 14, 14)
+                .cell(p.getBrand(), 8, 8)
+                .moneyCell(p.getPriceCents(), 12)
+                .cell(p.getQuantity(), 4)
+                .cell(p.isActive() ? "Yes" : "No", 6)
+                .startCell();
         if (p instanceof Laptop) {
-            extra = "W:" + ((Laptop) p).getWarrantyMonths() + "m";
+            t.append("W:").append(((Laptop) p).getWarrantyMonths()).append('m');
         } else if (p instanceof Phone) {
-            extra = "5G:" + (((Phone) p).isSupport5G() ? "Yes" : "No");
+            t.append("5G:").append(((Phone) p).isSupport5G() ? "Yes" : "No");
         } else {
-            extra = p.getExtraDataString();
+            t.append(p.getExtraDataString());
         }
-
-        String activeStr = p.isActive() ? "Yes" : "No";
-
-        System.out.printf("| %-2d | %-6s | %-6s | %-14s | %-8s | %12.2f | %-4d | %-6s | %-6s |%n",
-                index,
-                p.getId(),
-                cutString(p.getType(), 6),
-                cutString(p.getName(), 14),
-                cutString(p.getBrand(), 8),
-                p.getPrice(),
-                p.getQuantity(),
-                activeStr,
-                cutString(extra, 6)
-        );
-    }
-
-    private void printProductTableFooter() {
-        System.out.println("+----+--------+--------+----------------+----------+--------------+------+--------+--------+");
+        t.endCell(6, 6).endRow();
     }
 
     // ===== CRUD =====
@@ -175,7 +221,7 @@ public class ProductManager {
             String priceStr = sc.nextLine().trim();
             double price;
             try {
-                price = Double.parseDouble(priceStr);
+                price = Money.toDouble(Money.parse(priceStr)); // đúng tới cent, không nhận NaN / Infinity
             } catch (NumberFormatException e) {
                 ConsoleUI.printError("Invalid value for Price (must be a number). Action canceled.");
                 InputLogger.log("ADD_FAIL_FORMAT", "field=price, value=" + priceStr);
@@ -243,11 +289,12 @@ public class ProductManager {
                 p = new Phone(id, name, brand, price, quantity, active, s5);
             }
 
-            products.add(p);
-            sortById(); // sort sau khi thêm
+            // quầy khác có thể vừa thêm cùng ID trong lúc nhập -> service báo ADD_FAIL
+            service.addProduct(p);
             ConsoleUI.printSuccess("Added: " + p);
-            InputLogger.log("ADD", p.toDataLine());
 
+        } catch (InventoryException e) {
+            printFailure(e);
         } catch (Exception e) {
             ConsoleUI.printError("Unexpected error while adding product: " + e.getMessage() + ". Action canceled.");
             InputLogger.log("ADD_EXCEPTION", e.toString());
@@ -255,40 +302,35 @@ public class ProductManager {
     }
 
     // 2. LIST PRODUCTS (0 để quay về)
+    // ENTER: xem theo trang (cursor theo ID), A: in cả danh sách 1 lượt (stream theo khối, hợp để pipe ra file)
     public void listProducts(Scanner sc) {
         try {
             ConsoleUI.printSection("LIST PRODUCTS");
-            System.out.print("Press ENTER to show list, or 0 to go back: ");
+            System.out.print("Press ENTER to browse pages, A to list all, or 0 to go back: ");
             String ans = sc.nextLine().trim();
             if (ans.equals("0")) {
                 ConsoleUI.printInfo("Action canceled. Back to main menu.");
                 return;
             }
 
-            if (products.isEmpty()) {
+            if (service.isEmpty()) {
                 ConsoleUI.printWarning("No products in the list.");
                 return;
             }
 
-            // đảm bảo luôn sort trước khi in
-            sortById();
-
-            printProductTableHeader();
-            int idx = 1;
-            for (Product p : products) {
-                printProductRow(idx++, p);
+            if (ans.equalsIgnoreCase("A")) {
+                printProductTable(service.listAll());
+            } else {
+                browseProducts(sc);
             }
-            printProductTableFooter();
 
-            // low stock warning
-            ConsoleUI.printSection("LOW STOCK WARNING (< 3 items)");
+            // low stock warning: tập được giữ sẵn khi tồn kho thay đổi, không quét lại catalog
+            ConsoleUI.printSection("LOW STOCK WARNING (" + lowStockLimits() + ")");
             boolean anyLow = false;
-            for (Product p : products) {
-                if (p.getQuantity() > 0 && p.getQuantity() < 3) {
-                    anyLow = true;
-                    ConsoleUI.printWarning(
-                            String.format("%s (%s) only %d left!", p.getName(), p.getId(), p.getQuantity()));
-                }
+            for (Product p : service.lowStock()) {
+                anyLow = true;
+                ConsoleUI.printWarning(
+                        String.format("%s (%s) only %d left!", p.getName(), p.getId(), p.getQuantity()));
             }
             if (!anyLow) {
                 ConsoleUI.printInfo("No low stock items.");
@@ -299,6 +341,78 @@ public class ProductManager {
         }
     }
 
+    // "< 3 items" khi mọi loại cùng ngưỡng, ngược lại "Laptop < 5, Phone < 3, Other < 3"
+    private String lowStockLimits() {
+        int laptop = service.getLowStockThreshold(InventoryAggregates.LAPTOP);
+        int phone = service.getLowStockThreshold(InventoryAggregates.PHONE);
+        int other = service.getLowStockThreshold(InventoryAggregates.OTHER);
+        if (laptop == phone && phone == other) return "< " + laptop + " items";
+        return "Laptop < " + laptop + ", Phone < " + phone + ", Other < " + other;
+    }
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    // xem danh sách theo trang: N / ENTER trang kế, P trang trước, J nhảy tới ID, Q thoát
+    private void browseProducts(Scanner sc) throws IOException {
+        System.out.print("Page size (ENTER = " + DEFAULT_PAGE_SIZE + "): ");
+        String sizeStr = sc.nextLine().trim();
+        int size = DEFAULT_PAGE_SIZE;
+        if (!sizeStr.isEmpty()) {
+            try {
+                size = Integer.parseInt(sizeStr);
+            } catch (NumberFormatException e) {
+                size = -1;
+            }
+            if (size <= 0) {
+                ConsoleUI.printWarning("Invalid page size. Using " + DEFAULT_PAGE_SIZE + ".");
+                InputLogger.log("LIST_FAIL_FORMAT", "field=pageSize, value=" + sizeStr);
+                size = DEFAULT_PAGE_SIZE;
+            }
+        }
+
+        ProductPage page = service.firstPage(size);
+        int firstIndex = 1; // số thứ tự dòng đầu trang, reset về 1 khi nhảy tới ID
+        while (true) {
+            if (page.isEmpty()) {
+                ConsoleUI.printWarning("No products on this page.");
+            } else {
+                printProductTable(page.getItems(), firstIndex);
+            }
+            System.out.print((page.hasNext() ? "[N]ext " : "") + (page.hasPrevious() ? "[P]rev " : "")
+                    + "[J]ump to ID  [Q]uit: ");
+            String cmd = sc.nextLine().trim();
+            if (cmd.isEmpty() || cmd.equalsIgnoreCase("N")) {
+                if (cmd.isEmpty() && !page.hasNext()) return; // ENTER ở trang cuối = xong
+                if (!page.hasNext()) {
+                    ConsoleUI.printWarning("Already at the last page.");
+                    continue;
+                }
+                firstIndex += page.getItems().size();
+                page = service.nextPage(page, size);
+            } else if (cmd.equalsIgnoreCase("P")) {
+                if (!page.hasPrevious()) {
+                    ConsoleUI.printWarning("Already at the first page.");
+                    continue;
+                }
+                page = service.previousPage(page, size);
+                firstIndex = Math.max(1, firstIndex - page.getItems().size());
+            } else if (cmd.equalsIgnoreCase("J")) {
+                System.out.print("Jump to ID (first ID >= this is shown): ");
+                String id = sc.nextLine().trim();
+                if (id.isEmpty()) {
+                    ConsoleUI.printWarning("ID cannot be empty.");
+                    continue;
+                }
+                page = service.pageFrom(id, size);
+                firstIndex = 1;
+            } else if (cmd.equalsIgnoreCase("Q") || cmd.equals("0")) {
+                return;
+            } else {
+                ConsoleUI.printWarning("Please choose N, P, J or Q.");
+            }
+        }
+    }
+
     // 3. UPDATE PRODUCT (0 để quay về)
     public void updateProduct(Scanner sc) {
         ConsoleUI.printSection("UPDATE PRODUCT");
@@ -319,20 +433,19 @@ public class ProductManager {
 
             System.out.println("Current: " + p);
 
+            // nhập + kiểm tra hết rồi mới áp dụng, hủy giữa chừng thì sản phẩm không đổi
             System.out.print("New name (blank = skip): ");
             String name = sc.nextLine();
-            if (!name.isEmpty()) p.setName(name);
 
             System.out.print("New brand (blank = skip): ");
             String brand = sc.nextLine();
-            if (!brand.isEmpty()) p.setBrand(brand);
 
             System.out.print("New price (-1 = skip): ");
             String priceStr = sc.nextLine().trim();
+            double price = -1;
             if (!priceStr.isEmpty()) {
-                double price;
                 try {
-                    price = Double.parseDouble(priceStr);
+                    price = Money.toDouble(Money.parse(priceStr));
                 } catch (NumberFormatException e) {
                     ConsoleUI.printError("Invalid value for New price (must be a number). Action canceled.");
                     InputLogger.log("UPDATE_FAIL_FORMAT", "field=price, value=" + priceStr);
@@ -343,13 +456,12 @@ public class ProductManager {
                     InputLogger.log("UPDATE_FAIL_RANGE", "field=price, value=" + priceStr);
                     return;
                 }
-                if (price >= 0) p.setPrice(price);
             }
 
             System.out.print("New quantity (-1 = skip): ");
             String qtyStr = sc.nextLine().trim();
+            int quantity = -1;
             if (!qtyStr.isEmpty()) {
-                int quantity;
                 try {
                     quantity = Integer.parseInt(qtyStr);
                 } catch (NumberFormatException e) {
@@ -362,22 +474,23 @@ public class ProductManager {
                     InputLogger.log("UPDATE_FAIL_RANGE", "field=quantity, value=" + qtyStr);
                     return;
                 }
-                if (quantity >= 0) p.setQuantity(quantity);
             }
 
             System.out.print("Active (true/false, blank = skip): ");
             String activeStr = sc.nextLine().trim();
+            Boolean active = null;
             if (!activeStr.isEmpty()) {
                 if (!activeStr.equalsIgnoreCase("true") && !activeStr.equalsIgnoreCase("false")) {
                     ConsoleUI.printError("Invalid value for Active (must be true/false). Action canceled.");
                     InputLogger.log("UPDATE_FAIL_FORMAT", "field=active, value=" + activeStr);
                     return;
                 }
-                p.setActive(Boolean.parseBoolean(activeStr));
+                active = Boolean.parseBoolean(activeStr);
             }
 
+            int warranty = -1;
+            Boolean support5G = null;
             if (p instanceof Laptop) {
-                Laptop lap = (Laptop) p;
                 System.out.print("New warranty months (-1 = skip): ");
                 String wStr = sc.nextLine().trim();
                 if (!wStr.isEmpty()) {
@@ -394,10 +507,9 @@ public class ProductManager {
                         InputLogger.log("UPDATE_FAIL_RANGE", "field=warrantyMonths, value=" + wStr);
                         return;
                     }
-                    if (w >= 0) lap.setWarrantyMonths(w);
+                    warranty = w;
                 }
             } else if (p instanceof Phone) {
-                Phone ph = (Phone) p;
                 System.out.print("New support5G (true/false, blank = skip): ");
                 String s5 = sc.nextLine().trim();
                 if (!s5.isEmpty()) {
@@ -406,14 +518,23 @@ public class ProductManager {
                         InputLogger.log("UPDATE_FAIL_FORMAT", "field=support5G, value=" + s5);
                         return;
                     }
-                    ph.setSupport5G(Boolean.parseBoolean(s5));
+                    support5G = Boolean.parseBoolean(s5);
                 }
             }
 
-            sortById(); // nếu sau này có cho đổi ID thì vẫn an toàn
+            ProductUpdate u = new ProductUpdate();
+            if (!name.isEmpty()) u.setName(name);
+            if (!brand.isEmpty()) u.setBrand(brand);
+            if (price >= 0) u.setPrice(price);
+            if (quantity >= 0) u.setQuantity(quantity);
+            u.setActive(active);
+            if (warranty >= 0) u.setWarrantyMonths(warranty);
+            u.setSupport5G(support5G);
+            p = service.updateProduct(id, u);
             ConsoleUI.printSuccess("Updated: " + p);
-            InputLogger.log("UPDATE", p.toDataLine());
 
+        } catch (InventoryException e) {
+            printFailure(e);
         } catch (Exception e) {
             ConsoleUI.printError("Unexpected error while updating product: " + e.getMessage() + ". Action canceled.");
             InputLogger.log("UPDATE_EXCEPTION", e.toString());
@@ -442,11 +563,10 @@ public class ProductManager {
             ConsoleUI.printInfo("Deleting item:");
             System.out.println("  " + p.toString());
 
-            products.remove(p);
-            sortById(); // sort lại sau khi xóa
-
+            service.deleteProduct(id);
             ConsoleUI.printSuccess("Deleted.");
-            InputLogger.log("DELETE", p.toDataLine());
+        } catch (InventoryException e) {
+            printFailure(e);
         } catch (Exception e) {
             ConsoleUI.printError("Unexpected error while deleting product: " + e.getMessage() + ". Action canceled.");
             InputLogger.log("DELETE_EXCEPTION", e.toString());
@@ -508,66 +628,132 @@ public class ProductManager {
                 studentId = sc.nextLine().trim();
             }
 
-            // TÍNH TIỀN
-            double origin = p.getPrice() * q;
+            // service kiểm tra lại + trừ kho nguyên tử: quầy khác có thể đã bán mất hàng
+            // trong lúc đang nhập thông tin
+            Invoice inv = service.sell(new SaleRequest(id, q, isStudent, studentId));
+            printInvoice(inv);
+            ConsoleUI.printSuccess("New quantity in stock: " + inv.getStockLeft());
 
-            // giá sau discount theo loại sản phẩm (Laptop/Phone)
-            double baseFinal = p.getFinalPrice(q);
-            double productDiscount = origin - baseFinal;
+        } catch (InventoryException e) {
+            printFailure(e);
+        } catch (Exception e) {
+            ConsoleUI.printError("Unexpected error while selling product: " + e.getMessage() + ". Action canceled.");
+            InputLogger.log("SELL_EXCEPTION", e.toString());
+        }
+    }
 
-            double studentDiscount = 0.0;
-            if (isStudent) {
-                studentDiscount = baseFinal * STUDENT_DISCOUNT_RATE; // thêm 5% trên baseFinal
-            }
+    private void printInvoice(Invoice inv) {
+        ConsoleUI.printTitle("INVOICE");
+        System.out.printf("Date          : %s%n", inv.getTime().toString().replace('T', ' '));
+        System.out.printf("Product       : %s (%s)%n", inv.getProductName(), inv.getProductType());
+        System.out.printf("Brand         : %s%n", inv.getBrand());
+        System.out.printf("Unit price    : %s%n", Money.format(inv.getUnitPrice()));
+        System.out.printf("Quantity      : %d%n", inv.getQuantity());
+        if (inv.isStudent()) {
+            System.out.printf("Student ID    : %s%n", inv.getStudentId().isEmpty() ? "(not provided)" : inv.getStudentId());
+        }
+        ConsoleUI.printThinLine();
+        System.out.printf("Sub total          : %s%n", Money.format(inv.getOriginAmount()));
+        System.out.printf("Product discount   : -%s%n", Money.format(inv.getProductDiscount()));
+        System.out.printf("Student discount   : -%s%n", Money.format(inv.getStudentDiscount()));
+        ConsoleUI.printThinLine();
+        System.out.printf("Total discount     : -%s%n", Money.format(inv.getTotalDiscount()));
+        System.out.println(ConsoleUI.color(
+                String.format("TOTAL TO PAY      : %s", Money.format(inv.getFinalAmount())),
+                ConsoleUI.GREEN, ConsoleUI.BOLD));
+        ConsoleUI.printThinLine();
+    }
 
-            double finalAmount = baseFinal - studentDiscount;
-            double totalDiscount = productDiscount + studentDiscount;
+    // 11. ORDER nhiều dòng (1 hóa đơn, trừ kho nguyên tử; 0 để quay về)
+    public void sellOrder(Scanner sc) {
+        ConsoleUI.printSection("SELL ORDER");
+        try {
+            List<String[]> lines = new ArrayList<>();
+            while (true) {
+                System.out.print("Line " + (lines.size() + 1) + " - product ID (blank = done, 0 = Back): ");
+                String id = sc.nextLine().trim();
+                if (id.equals("0")) {
+                    ConsoleUI.printInfo("Action canceled. Back to main menu.");
+                    return;
+                }
+                if (id.isEmpty()) break;
 
-            LocalDateTime now = LocalDateTime.now();
+                Product p = findById(id);
+                if (p == null) {
+                    ConsoleUI.printError("Product not found, line skipped.");
+                    InputLogger.log("ORDER_FAIL", "ID=" + id + " not found");
+                    continue;
+                }
+                System.out.print("Quantity (in stock: " + p.getQuantity() + "): ");
+                String qStr = sc.nextLine().trim();
+                try {
+                    if (Integer.parseInt(qStr) <= 0) throw new NumberFormatException();
+                } catch (NumberFormatException e) {
+                    ConsoleUI.printError("Invalid value for Quantity (must be a positive integer), line skipped.");
+                    InputLogger.log("ORDER_FAIL_FORMAT", "field=quantity, value=" + qStr);
+                    continue;
+                }
+                lines.add(new String[]{id, qStr});
+            }
+            if (lines.isEmpty()) {
+                ConsoleUI.printInfo("Order has no lines. Back to main menu.");
+                return;
+            }
 
-            // Hóa đơn
-            ConsoleUI.printTitle("INVOICE");
-            System.out.printf("Date          : %s%n", now.toString().replace('T', ' '));
-            System.out.printf("Product       : %s (%s)%n", p.getName(), p.getType());
-            System.out.printf("Brand         : %s%n", p.getBrand());
-            System.out.printf("Unit price    : %.2f%n", p.getPrice());
-            System.out.printf("Quantity      : %d%n", q);
+            System.out.print("Is student? (y/n, 0 = Back): ");
+            String stuAns = sc.nextLine().trim();
+            if (stuAns.equals("0")) {
+                ConsoleUI.printInfo("Action canceled. Back to main menu.");
+                return;
+            }
+            boolean isStudent = stuAns.equalsIgnoreCase("y") || stuAns.equalsIgnoreCase("yes");
+            String studentId = "";
             if (isStudent) {
-                System.out.printf("Student ID    : %s%n", studentId.isEmpty() ? "(not provided)" : studentId);
-            }
-            ConsoleUI.printThinLine();
-            System.out.printf("Sub total          : %.2f%n", origin);
-            System.out.printf("Product discount   : -%.2f%n", productDiscount);
-            System.out.printf("Student discount   : -%.2f%n", studentDiscount);
-            ConsoleUI.printThinLine();
-            System.out.printf("Total discount     : -%.2f%n", totalDiscount);
-            System.out.println(ConsoleUI.color(
-                    String.format("TOTAL TO PAY      : %.2f", finalAmount),
-                    ConsoleUI.GREEN, ConsoleUI.BOLD));
-            ConsoleUI.printThinLine();
-
-            // cập nhật tồn kho
-            p.setQuantity(p.getQuantity() - q);
-            sortById(); // sort lại sau khi thay đổi quantity (cho thống nhất)
-            ConsoleUI.printSuccess("New quantity in stock: " + p.getQuantity());
-
-            // log
-            String logDetail = String.format(
-                    "id=%s, qty=%d, origin=%.2f, prodDiscount=%.2f, studentDiscount=%.2f, total=%.2f, studentId=%s",
-                    p.getId(), q, origin, productDiscount, studentDiscount, finalAmount,
-                    (studentId.isEmpty() ? "N/A" : studentId)
-            );
-            InputLogger.log("SELL", logDetail);
-
-            // ghi lịch sử sale
-            SalesHistoryWriter.recordSale(now, p, q, origin, productDiscount, finalAmount);
+                System.out.print("Enter student ID: ");
+                studentId = sc.nextLine().trim();
+            }
 
+            OrderRequest order = new OrderRequest(isStudent, studentId);
+            for (String[] l : lines) {
+                order.addLine(l[0], Integer.parseInt(l[1]));
+            }
+            // service kiểm tra lại tất cả dòng và trừ kho cùng lúc
+            OrderInvoice inv = service.placeOrder(order);
+            printOrderInvoice(inv);
+        } catch (InventoryException e) {
+            printFailure(e);
         } catch (Exception e) {
-            ConsoleUI.printError("Unexpected error while selling product: " + e.getMessage() + ". Action canceled.");
-            InputLogger.log("SELL_EXCEPTION", e.toString());
+            ConsoleUI.printError("Unexpected error while selling order: " + e.getMessage() + ". Action canceled.");
+            InputLogger.log("ORDER_EXCEPTION", e.toString());
         }
     }
 
+    private void printOrderInvoice(OrderInvoice inv) {
+        ConsoleUI.printTitle("INVOICE");
+        System.out.printf("Date          : %s%n", inv.getTime().toString().replace('T', ' '));
+        if (inv.isStudent()) {
+            System.out.printf("Student ID    : %s%n", inv.getStudentId().isEmpty() ? "(not provided)" : inv.getStudentId());
+        }
+        ConsoleUI.printThinLine();
+        int no = 1;
+        for (Invoice l : inv.getLines()) {
+            System.out.printf("%d) %s (%s) - %s%n", no++, l.getProductName(), l.getProductType(), l.getBrand());
+            System.out.printf("   %d x %s = %s, discount -%s, pay %s (stock left: %d)%n",
+                    l.getQuantity(), Money.format(l.getUnitPrice()), Money.format(l.getOriginAmount()),
+                    Money.format(l.getTotalDiscount()), Money.format(l.getFinalAmount()), l.getStockLeft());
+        }
+        ConsoleUI.printThinLine();
+        System.out.printf("Sub total          : %s%n", Money.format(inv.getOriginAmount()));
+        System.out.printf("Product discount   : -%s%n", Money.format(inv.getProductDiscount()));
+        System.out.printf("Student discount   : -%s%n", Money.format(inv.getStudentDiscount()));
+        ConsoleUI.printThinLine();
+        System.out.printf("Total discount     : -%s%n", Money.format(inv.getTotalDiscount()));
+        System.out.println(ConsoleUI.color(
+                String.format("TOTAL TO PAY      : %s", Money.format(inv.getFinalAmount())),
+                ConsoleUI.GREEN, ConsoleUI.BOLD));
+        ConsoleUI.printThinLine();
+    }
+
     // 7. SEARCH + FILTER (0 để quay về)
     public void searchAndFilter(Scanner sc) {
         ConsoleUI.printSection("SEARCH & FILTER");
@@ -578,7 +764,6 @@ public class ProductManager {
                 ConsoleUI.printInfo("Action canceled. Back to main menu.");
                 return;
             }
-            String keyword = keywordRaw.toLowerCase();
 
             System.out.print("Type (1=All, 2=Laptop, 3=Phone): ");
             String tStr = sc.nextLine().trim();
@@ -603,10 +788,10 @@ public class ProductManager {
 
             System.out.print("Min price (-1 = no limit): ");
             String minStr = sc.nextLine().trim();
-            double minPrice = -1;
+            long minPrice = -1; // cent
             if (!minStr.isEmpty()) {
                 try {
-                    minPrice = Double.parseDouble(minStr);
+                    minPrice = Money.parse(minStr);
                 } catch (NumberFormatException e) {
                     ConsoleUI.printError("Invalid value for Min price (must be a number). Action canceled.");
                     InputLogger.log("SEARCH_FAIL_FORMAT", "field=minPrice, value=" + minStr);
@@ -616,10 +801,10 @@ public class ProductManager {
 
             System.out.print("Max price (-1 = no limit): ");
             String maxStr = sc.nextLine().trim();
-            double maxPrice = -1;
+            long maxPrice = -1; // cent
             if (!maxStr.isEmpty()) {
                 try {
-                    maxPrice = Double.parseDouble(maxStr);
+                    maxPrice = Money.parse(maxStr);
                 } catch (NumberFormatException e) {
                     ConsoleUI.printError("Invalid value for Max price (must be a number). Action canceled.");
                     InputLogger.log("SEARCH_FAIL_FORMAT", "field=maxPrice, value=" + maxStr);
@@ -627,46 +812,18 @@ public class ProductManager {
                 }
             }
 
-            if (minPrice >= 0 && maxPrice >= 0 && minPrice > maxPrice) {
-                ConsoleUI.printError("Min price cannot be greater than Max price. Action canceled.");
-                InputLogger.log("SEARCH_FAIL_RANGE", "min=" + minPrice + ", max=" + maxPrice);
-                return;
-            }
-
-            List<Product> result = new ArrayList<>();
-            for (Product p : products) {
-                if (!keyword.isEmpty()) {
-                    String target = (p.getName() + " " + p.getBrand()).toLowerCase();
-                    if (!target.contains(keyword)) continue;
-                }
-                if (typeFilter != null && !p.getType().equalsIgnoreCase(typeFilter)) continue;
-                if (minPrice >= 0 && p.getPrice() < minPrice) continue;
-                if (maxPrice >= 0 && p.getPrice() > maxPrice) continue;
-
-                result.add(p);
-            }
-
-            String filterInfo = String.format("keyword='%s', type=%s, min=%.2f, max=%.2f",
-                    keyword, (typeFilter == null ? "ALL" : typeFilter), minPrice, maxPrice);
-
+            List<Product> result = service.search(new SearchCriteria(keywordRaw, typeFilter, minPrice, maxPrice));
             if (result.isEmpty()) {
                 ConsoleUI.printWarning("No product matched your filters.");
-                InputLogger.log("SEARCH_EMPTY", filterInfo);
                 return;
             }
 
             ConsoleUI.printSuccess("Found " + result.size() + " product(s).");
-            // in kết quả search cũng sort theo ID
-            result.sort(Comparator.comparing(p -> p.getId().toLowerCase()));
-            printProductTableHeader();
-            int idx = 1;
-            for (Product p : result) {
-                printProductRow(idx++, p);
-            }
-            printProductTableFooter();
-
-            InputLogger.log("SEARCH", filterInfo + ", found=" + result.size());
+            // service duyệt catalog theo ID nên kết quả đã đúng thứ tự
+            printProductTable(result);
 
+        } catch (InventoryException e) {
+            printFailure(e);
         } catch (Exception e) {
             ConsoleUI.printError("Unexpected error while searching: " + e.getMessage() + ". Action canceled.");
             InputLogger.log("SEARCH_EXCEPTION", e.toString());
@@ -677,47 +834,26 @@ public class ProductManager {
     public void showDashboard() {
         try {
             ConsoleUI.printTitle("INVENTORY DASHBOARD");
-            if (products.isEmpty()) {
+            if (service.isEmpty()) {
                 ConsoleUI.printWarning("No data.");
                 return;
             }
 
-            int totalItems = 0;
-            double totalValue = 0;
-
-            int laptopCount = 0, phoneCount = 0;
-            double laptopValue = 0, phoneValue = 0;
-
-            for (Product p : products) {
-                totalItems += p.getQuantity();
-                totalValue += p.getPrice() * p.getQuantity();
-
-                if ("Laptop".equalsIgnoreCase(p.getType())) {
-                    laptopCount += p.getQuantity();
-                    laptopValue += p.getPrice() * p.getQuantity();
-                } else if ("Phone".equalsIgnoreCase(p.getType())) {
-                    phoneCount += p.getQuantity();
-                    phoneValue += p.getPrice() * p.getQuantity();
-                }
-            }
+            DashboardStats d = service.dashboard();
 
             ConsoleUI.printSection("SUMMARY");
-            System.out.printf("Total quantity in stock : %d%n", totalItems);
-            System.out.printf("Total inventory value   : %.2f%n", totalValue);
+            System.out.printf("Total quantity in stock : %d%n", d.getTotalQuantity());
+            System.out.printf("Total inventory value   : %s%n", Money.format(d.getTotalValue()));
 
             ConsoleUI.printSection("BY TYPE");
-            System.out.printf("Laptop: qty=%d, value=%.2f%n", laptopCount, laptopValue);
-            System.out.printf("Phone : qty=%d, value=%.2f%n", phoneCount, phoneValue);
-
-            List<Product> sorted = new ArrayList<>(products);
-            sorted.sort((a, b) -> Double.compare(b.getPrice(), a.getPrice()));
+            System.out.printf("Laptop: qty=%d, value=%s%n", d.getLaptopQuantity(), Money.format(d.getLaptopValue()));
+            System.out.printf("Phone : qty=%d, value=%s%n", d.getPhoneQuantity(), Money.format(d.getPhoneValue()));
 
             ConsoleUI.printSection("TOP 3 MOST EXPENSIVE");
-            int limit = Math.min(3, sorted.size());
-            for (int i = 0; i < limit; i++) {
-                Product p = sorted.get(i);
-                System.out.printf("%d) %s (%s) - price=%.2f, qty=%d%n",
-                        i + 1, p.getName(), p.getType(), p.getPrice(), p.getQuantity());
+            int i = 0;
+            for (Product p : d.getTopByPrice()) {
+                System.out.printf("%d) %s (%s) - price=%s, qty=%d%n",
+                        ++i, p.getName(), p.getType(), Money.format(p.getPriceCents()), p.getQuantity());
             }
         } catch (Exception e) {
             ConsoleUI.printError("Unexpected error while showing dashboard: " + e.getMessage() + ". Action canceled.");
@@ -725,49 +861,174 @@ public class ProductManager {
         }
     }
 
-    // ===== EXPORT INVENTORY SNAPSHOT =====
-    public void exportInventorySnapshot() {
-        String fileName = "inventory_list.txt";
-        try (PrintWriter pw = new PrintWriter(new FileWriter(fileName))) {
-
-            pw.println("CURRENT INVENTORY SNAPSHOT");
-            pw.println("================================================================================");
-            pw.println("+----+--------+--------+----------------+----------+--------------+------+--------+--------+");
-            pw.printf("| %-2s | %-6s | %-6s | %-14s | %-8s | %-12s | %-4s | %-6s | %-6s |%n",
-                    "No", "ID", "Type", "Name", "Brand", "Price", "Qty", "Active", "Extra");
-            pw.println("+----+--------+--------+----------------+----------+--------------+------+--------+--------+");
-
-            // đảm bảo file export cũng theo thứ tự ID
-            sortById();
-
-            int idx = 1;
-            for (Product p : products) {
-                String extra;
-                if (p instanceof Laptop) {
-                    extra = "W:" + ((Laptop) p).getWarrantyMonths() + "m";
-                } else if (p instanceof Phone) {
-                    extra = "5G:" + (((Phone) p).isSupport5G() ? "Yes" : "No");
-                } else {
-                    extra = p.getExtraDataString();
-                }
+    // 12. SALES REPORT theo khoảng ngày (0 để quay về)
+    public void showSalesReport(Scanner sc) {
+        ConsoleUI.printSection("SALES REPORT");
+        try {
+            System.out.print("From date (yyyy-MM-dd, blank = today, 0 = Back): ");
+            String fromStr = sc.nextLine().trim();
+            if (fromStr.equals("0")) {
+                ConsoleUI.printInfo("Action canceled. Back to main menu.");
+                return;
+            }
+            LocalDate from = parseDate(fromStr, LocalDate.now(), "From date");
+            if (from == null) return;
+
+            System.out.print("To date (yyyy-MM-dd, blank = same as From): ");
+            LocalDate to = parseDate(sc.nextLine().trim(), from, "To date");
+            if (to == null) return;
+
+            System.out.print("Group by (1=Day, 2=Type, 3=Product): ");
+            String gStr = sc.nextLine().trim();
+            SalesStore.GroupBy by;
+            switch (gStr) {
+                case "1": by = SalesStore.GroupBy.DAY; break;
+                case "2": by = SalesStore.GroupBy.TYPE; break;
+                case "3": by = SalesStore.GroupBy.PRODUCT; break;
+                default:
+                    ConsoleUI.printError("Invalid value for Group by (must be 1/2/3). Action canceled.");
+                    InputLogger.log("SALES_REPORT_FAIL_FORMAT", "field=groupBy, value=" + gStr);
+                    return;
+            }
+
+            SalesStore.Report r = service.salesReport(from, to, by);
+            if (r.getGroups().isEmpty()) {
+                ConsoleUI.printWarning("No sales from " + from + " to " + to + ".");
+                return;
+            }
+            ConsoleUI.printInfo("Sales from " + from + " to " + to + " (" + r.getSegmentsRead() + " day segment(s) read)");
+            String line = "+------------+----------------+-------+-------+----------------+----------------+----------------+";
+            System.out.println(line);
+            System.out.printf("| %-10s | %-14s | %-5s | %-5s | %-14s | %-14s | %-14s |%n",
+                    by == SalesStore.GroupBy.DAY ? "Day" : by == SalesStore.GroupBy.TYPE ? "Type" : "ID",
+                    "Name", "Sales", "Units", "Origin", "Discount", "Revenue");
+            System.out.println(line);
+            for (Map.Entry<String, SalesStore.Totals> e : r.getGroups().entrySet()) {
+                printReportRow(e.getKey(), e.getValue());
+            }
+            System.out.println(line);
+            printReportRow("TOTAL", r.getTotal());
+            System.out.println(line);
+            System.out.printf("Product discount: %s, student discount: %s%n",
+                    Money.format(r.getTotal().getProductDiscount()), Money.format(r.getTotal().getStudentDiscount()));
+        } catch (InventoryException e) {
+            printFailure(e);
+        } catch (IOException e) {
+            ConsoleUI.printError("Error reading sales store: " + e.getMessage() + ". Action canceled.");
+            InputLogger.log("SALES_REPORT_ERROR", e.getMessage());
+        } catch (Exception e) {
+            ConsoleUI.printError("Unexpected error while showing sales report: " + e.getMessage() + ". Action canceled.");
+            InputLogger.log("SALES_REPORT_EXCEPTION", e.toString());
+        }
+    }
+
+    private void printReportRow(String key, SalesStore.Totals t) {
+        System.out.printf("| %-10s | %-14s | %-5d | %-5d | %14s | %14s | %14s |%n",
+                cutString(key, 10), cutString(t.getLabel() == null ? "" : t.getLabel(), 14),
+                t.getSales(), t.getUnits(), Money.format(t.getOriginAmount()), Money.format(t.getTotalDiscount()),
+                Money.format(t.getFinalAmount()));
+    }
 
-                String activeStr = p.isActive() ? "Yes" : "No";
+    // blank = giá trị mặc định, sai định dạng thì báo lỗi và trả về null
+    private LocalDate parseDate(String s, LocalDate blankValue, String field) {
+        if (s.isEmpty()) return blankValue;
+        try {
+            return LocalDate.parse(s);
+        } catch (DateTimeParseException e) {
+            ConsoleUI.printError("Invalid value for " + field + " (must be yyyy-MM-dd). Action canceled.");
+            InputLogger.log("SALES_REPORT_FAIL_FORMAT", "field=" + field + ", value=" + s);
+            return null;
+        }
+    }
 
-                pw.printf("| %-2d | %-6s | %-6s | %-14s | %-8s | %12.2f | %-4d | %-6s | %-6s |%n",
-                        idx++,
-                        p.getId(),
-                        cutString(p.getType(), 6),
-                        cutString(p.getName(), 14),
-                        cutString(p.getBrand(), 8),
-                        p.getPrice(),
-                        p.getQuantity(),
-                        activeStr,
-                        cutString(extra, 6)
-                );
+    // 13. Phân tích file lịch sử bán hàng (text, có thể rất lớn)
+    public void analyzeSalesHistory(Scanner sc) {
+        ConsoleUI.printSection("SALES HISTORY ANALYSIS");
+        try {
+            System.out.print("Sales history file (blank = " + SalesHistoryWriter.FILE_NAME + ", 0 = Back): ");
+            String path = sc.nextLine().trim();
+            if (path.equals("0")) {
+                ConsoleUI.printInfo("Action canceled. Back to main menu.");
+                return;
             }
+            if (path.isEmpty()) path = SalesHistoryWriter.FILE_NAME;
 
-            pw.println("+----+--------+--------+----------------+----------+--------------+------+--------+--------+");
-            pw.println("================================================================================");
+            System.out.print("Number of top sellers (blank = 5): ");
+            String topStr = sc.nextLine().trim();
+            int top = 5;
+            if (!topStr.isEmpty()) {
+                try {
+                    top = Integer.parseInt(topStr);
+                } catch (NumberFormatException e) {
+                    top = -1;
+                }
+                if (top < 0) {
+                    ConsoleUI.printError("Invalid value for Top sellers (must be an integer >= 0). Action canceled.");
+                    InputLogger.log("SALES_ANALYZE_FAIL_FORMAT", "field=top, value=" + topStr);
+                    return;
+                }
+            }
+
+            SalesHistoryAnalyzer.Result r = service.analyzeSalesHistory(new File(path), top);
+            if (r.getDays().isEmpty()) {
+                ConsoleUI.printWarning("No sales found in " + path + ".");
+            } else {
+                String line = "+------------+-------+-------+----------------+----------------+----------------+";
+                System.out.println("Daily revenue:");
+                System.out.println(line);
+                System.out.printf("| %-10s | %-5s | %-5s | %-14s | %-14s | %-14s |%n",
+                        "Day", "Sales", "Units", "Origin", "Discount", "Revenue");
+                System.out.println(line);
+                for (SalesHistoryAnalyzer.DayTotals d : r.getDays()) {
+                    System.out.printf("| %-10s | %-5d | %-5d | %14s | %14s | %14s |%n", d.getDay(),
+                            d.getSales(), d.getUnits(), Money.format(d.getOriginAmount()),
+                            Money.format(d.getTotalDiscount()), Money.format(d.getFinalAmount()));
+                }
+                System.out.println(line);
+                SalesHistoryAnalyzer.Totals t = r.getTotal();
+                System.out.printf("| %-10s | %-5d | %-5d | %14s | %14s | %14s |%n", "TOTAL",
+                        t.getSales(), t.getUnits(), Money.format(t.getOriginAmount()),
+                        Money.format(t.getTotalDiscount()), Money.format(t.getFinalAmount()));
+                System.out.println(line);
+                System.out.printf("Product discount: %s, student discount: %s%n",
+                        Money.format(t.getProductDiscount()), Money.format(t.getStudentDiscount()));
+
+                if (!r.getTopSellers().isEmpty()) {
+                    System.out.println("Top sellers (by units):");
+                    int rank = 1;
+                    for (SalesHistoryAnalyzer.ProductTotals p : r.getTopSellers()) {
+                        System.out.printf("%d. %s - %s (%s): %d units, revenue %s%n", rank++,
+                                p.getId(), p.getName(), p.getType(), p.getUnits(), Money.format(p.getFinalAmount()));
+                    }
+                }
+            }
+            if (r.getBadLines() > 0) {
+                ConsoleUI.printWarning("Skipped " + r.getBadLines() + " malformed line(s).");
+            }
+            ConsoleUI.printInfo(String.format("%d lines, %.1f MB in %.1fms (%.0f MB/s, %d chunk(s)).",
+                    r.getLines(), r.getBytes() / 1048576.0, r.getNanos() / 1e6, r.getMegabytesPerSecond(), r.getChunks()));
+        } catch (InventoryException e) {
+            printFailure(e);
+        } catch (IOException e) {
+            ConsoleUI.printError("Error reading sales history: " + e.getMessage() + ". Action canceled.");
+            InputLogger.log("SALES_ANALYZE_ERROR", e.getMessage());
+        } catch (Exception e) {
+            ConsoleUI.printError("Unexpected error while analyzing sales history: " + e.getMessage() + ". Action canceled.");
+            InputLogger.log("SALES_ANALYZE_EXCEPTION", e.toString());
+        }
+    }
+
+    // ===== EXPORT INVENTORY SNAPSHOT =====
+    public void exportInventorySnapshot() {
+        String fileName = "inventory_list.txt";
+        try (TableRenderer t = TableRenderer.file(new File(fileName))) {
+
+            t.line("CURRENT INVENTORY SNAPSHOT");
+            t.line("================================================================================");
+            // catalog duyệt theo thứ tự ID
+            renderProductTable(t, service.listAll());
+            t.line("================================================================================");
+            t.flush(); // lỗi ghi báo ở đây, trước khi in thành công
 
             ConsoleUI.printSuccess("Exported inventory to file: " + fileName);
             InputLogger.log("EXPORT_INVENTORY", "Exported to " + fileName);
@@ -780,4 +1041,39 @@ public class ProductManager {
             InputLogger.log("EXPORT_INVENTORY_EXCEPTION", e.toString());
         }
     }
+
+    // 10. BULK IMPORT (0 để quay về)
+    public void bulkImport(Scanner sc) {
+        ConsoleUI.printSection("BULK IMPORT");
+        try {
+            System.out.print("File to import, same format as " + InventoryService.FILE_NAME + " (0 = Back): ");
+            String path = sc.nextLine().trim();
+            if (path.equals("0") || path.isEmpty()) {
+                ConsoleUI.printInfo("Action canceled. Back to main menu.");
+                return;
+            }
+
+            BulkImporter.Report r = service.importFile(new File(path));
+            if (r.getError() != null) {
+                ConsoleUI.printError("Error reading file: " + r.getError() + ". Rows before the error were imported.");
+            }
+            ConsoleUI.printSuccess(String.format("Imported %d product(s): %d added, %d updated.",
+                    r.getAccepted(), r.getAdded(), r.getUpdated()));
+            if (r.getRejectsFile() != null) {
+                ConsoleUI.printWarning("Rejected " + r.getRejected() + " line(s)"
+                        + (r.getDuplicates() > 0 ? " (" + r.getDuplicates() + " duplicate ID(s))" : "")
+                        + ", see " + r.getRejectsFile().getPath());
+            }
+            ConsoleUI.printInfo(String.format("%d lines in %.1fms (%.0f lines/s): %s",
+                    r.getLines(), r.getTotalNanos() / 1e6, r.getLinesPerSecond(), r.stageTimes()));
+            if (r.getSaveError() != null) {
+                ConsoleUI.printWarning("Imported data is not saved yet (" + r.getSaveError() + "), it will be saved on next Save.");
+            }
+        } catch (InventoryException e) {
+            printFailure(e);
+        } catch (Exception e) {
+            ConsoleUI.printError("Unexpected error while importing: " + e.getMessage() + ". Action canceled.");
+            InputLogger.log("IMPORT_EXCEPTION", e.toString());
+        }
+    }
 }
@@ -0,0 +1,47 @@
+package main;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 1 trang danh sách sản phẩm theo ID tăng dần (phân trang bằng cursor, không dùng offset):
+ * trang kế / trang trước tính từ ID đầu / cuối của trang này nên chỉ chạm các dòng được hiển thị,
+ * và vẫn đúng khi có sản phẩm được thêm / xóa giữa 2 lần xem.
+ */
+public class ProductPage {
+
+    private final List<Product> items;
+    private final boolean hasPrevious;
+    private final boolean hasNext;
+
+    ProductPage(List<Product> items, boolean hasPrevious, boolean hasNext) {
+        this.items = Collections.unmodifiableList(items);
+        this.hasPrevious = hasPrevious;
+        this.hasNext = hasNext;
+    }
+
+    public List<Product> getItems() {
+        return items;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    public boolean hasPrevious() {
+        return hasPrevious;
+    }
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    // cursor cho trang trước / trang kế (null nếu trang rỗng)
+    public String getFirstId() {
+        return items.isEmpty() ? null : items.get(0).getId();
+    }
+
+    public String getLastId() {
+        return items.isEmpty() ? null : items.get(items.size() - 1).getId();
+    }
+}
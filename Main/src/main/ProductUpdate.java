@@ -0,0 +1,72 @@
+package main;
+
+/**
+ * Các trường cần sửa của 1 sản phẩm; null = giữ nguyên.
+ * warrantyMonths chỉ áp dụng cho Laptop, support5G chỉ áp dụng cho Phone.
+ */
+public class ProductUpdate {
+
+    private String name;
+    private String brand;
+    private Double price;
+    private Integer quantity;
+    private Boolean active;
+    private Integer warrantyMonths;
+    private Boolean support5G;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public Integer getWarrantyMonths() {
+        return warrantyMonths;
+    }
+
+    public void setWarrantyMonths(Integer warrantyMonths) {
+        this.warrantyMonths = warrantyMonths;
+    }
+
+    public Boolean getSupport5G() {
+        return support5G;
+    }
+
+    public void setSupport5G(Boolean support5G) {
+        this.support5G = support5G;
+    }
+}
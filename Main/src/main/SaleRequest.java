@@ -0,0 +1,36 @@
+package main;
+
+/**
+ * Yêu cầu bán 1 sản phẩm.
+ * student = true thì được thêm giảm giá sinh viên, studentId có thể rỗng (không cung cấp).
+ */
+public class SaleRequest {
+
+    private final String id;
+    private final int quantity;
+    private final boolean student;
+    private final String studentId;
+
+    public SaleRequest(String id, int quantity, boolean student, String studentId) {
+        this.id = id;
+        this.quantity = quantity;
+        this.student = student;
+        this.studentId = studentId == null ? "" : studentId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public boolean isStudent() {
+        return student;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+}
@@ -0,0 +1,475 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Phân tích sales_history.txt rất lớn (nhiều GB) mà không nạp cả file:
+ * - chia file thành chunk cắt sau '\n' (như ProductFileLoader), map từng chunk bằng FileChannel.map
+ * - tách trường trực tiếp trên byte của vùng map bằng SalesLineTokenizer (không decode UTF-8, không tạo String
+ *   cho mỗi dòng; SalesStore.importText dùng cùng tokenizer),
+ *   số tiền %.2f đọc thẳng thành long đơn vị 1/100 nên cộng dồn không sai số
+ * - các chunk chạy song song trên ForkJoinPool, mỗi chunk 1 bảng tổng riêng, gộp dần khi join
+ * Bộ nhớ chỉ phụ thuộc số ngày / số sản phẩm khác nhau và số chunk đang chạy, không phụ thuộc kích thước file.
+ * Dòng sai định dạng được bỏ qua và đếm lại.
+ */
+public class SalesHistoryAnalyzer {
+
+    private static final int DEFAULT_CHUNK_BYTES = 32 * 1024 * 1024;
+
+    private final ForkJoinPool pool;
+    private final int chunkBytes;
+
+    public SalesHistoryAnalyzer() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_BYTES);
+    }
+
+    public SalesHistoryAnalyzer(ForkJoinPool pool, int chunkBytes) {
+        this.pool = pool;
+        this.chunkBytes = Math.max(1024, chunkBytes);
+    }
+
+    /** Tổng của 1 ngày hoặc 1 sản phẩm (tiền tính bằng đơn vị 1/100). */
+    public static class Totals {
+        long sales;
+        long units;
+        long originCents;
+        long productDiscountCents;
+        long finalCents;
+
+        void add(int qty, long origin, long prodDiscount, long fin) {
+            sales++;
+            units += qty;
+            originCents += origin;
+            productDiscountCents += prodDiscount;
+            finalCents += fin;
+        }
+
+        void add(Totals o) {
+            sales += o.sales;
+            units += o.units;
+            originCents += o.originCents;
+            productDiscountCents += o.productDiscountCents;
+            finalCents += o.finalCents;
+        }
+
+        public long getSales() {
+            return sales;
+        }
+
+        public long getUnits() {
+            return units;
+        }
+
+        // tiền: cent (Money), như SalesStore.Totals
+        public long getOriginAmount() {
+            return originCents;
+        }
+
+        public long getProductDiscount() {
+            return productDiscountCents;
+        }
+
+        // giảm giá theo loại + giảm giá sinh viên
+        public long getTotalDiscount() {
+            return originCents - finalCents;
+        }
+
+        public long getStudentDiscount() {
+            return originCents - finalCents - productDiscountCents;
+        }
+
+        // doanh thu
+        public long getFinalAmount() {
+            return finalCents;
+        }
+    }
+
+    /** Tổng theo ngày. */
+    public static class DayTotals extends Totals {
+        private final LocalDate day;
+
+        DayTotals(LocalDate day) {
+            this.day = day;
+        }
+
+        public LocalDate getDay() {
+            return day;
+        }
+    }
+
+    /** Tổng theo sản phẩm (tên / loại lấy ở dòng đầu tiên gặp ID đó). */
+    public static class ProductTotals extends Totals {
+        private final String id;
+        private final String type;
+        private final String name;
+
+        ProductTotals(String id, String type, String name) {
+            this.id = id;
+            this.type = type;
+            this.name = name;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /** Kết quả 1 lần phân tích. */
+    public static class Result {
+        final List<DayTotals> days = new ArrayList<>();
+        final List<ProductTotals> topSellers = new ArrayList<>();
+        final Totals total = new Totals();
+        int products;
+        long lines;
+        long badLines;
+        long bytes;
+        int chunks;
+        long nanos;
+
+        /** Doanh thu theo ngày, ngày tăng dần. */
+        public List<DayTotals> getDays() {
+            return Collections.unmodifiableList(days);
+        }
+
+        /** Bán chạy nhất theo số lượng (rồi doanh thu, rồi ID). */
+        public List<ProductTotals> getTopSellers() {
+            return Collections.unmodifiableList(topSellers);
+        }
+
+        public Totals getTotal() {
+            return total;
+        }
+
+        public int getProductCount() {
+            return products;
+        }
+
+        public long getLines() {
+            return lines;
+        }
+
+        public long getBadLines() {
+            return badLines;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public int getChunks() {
+            return chunks;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public double getMegabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes / 1048576.0 * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("lines=%d, bad=%d, days=%d, products=%d, chunks=%d, time=%.1fms, %.0f MB/s",
+                    lines, badLines, days.size(), products, chunks, nanos / 1e6, getMegabytesPerSecond());
+        }
+    }
+
+    public Result analyze(File file, int topN) throws IOException {
+        long t0 = System.nanoTime();
+        Result result = new Result();
+        Partial all;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel ch = raf.getChannel()) {
+            long[] bounds = ProductFileLoader.chunkBounds(ch, chunkBytes);
+            result.bytes = ch.size();
+            result.chunks = bounds.length - 1;
+            all = pool.invoke(new AnalyzeTask(ch, bounds, 0, bounds.length - 1));
+        }
+        if (all.error != null) throw all.error;
+
+        result.lines = all.lines;
+        result.badLines = all.badLines;
+        List<Integer> dayKeys = new ArrayList<>(all.days.keySet());
+        Collections.sort(dayKeys);
+        for (Integer key : dayKeys) {
+            Totals t = all.days.get(key);
+            DayTotals d;
+            try {
+                d = new DayTotals(LocalDate.of(key / 10000, key / 100 % 100, key % 100));
+            } catch (DateTimeException e) {
+                result.badLines += t.sales; // ví dụ 2025-02-30
+                continue;
+            }
+            d.add(t);
+            result.days.add(d);
+            result.total.add(t);
+        }
+
+        List<ProductEntry> entries = all.products.entries();
+        result.products = entries.size();
+        entries.sort((a, b) -> {
+            if (a.units != b.units) return Long.compare(b.units, a.units);
+            if (a.finalCents != b.finalCents) return Long.compare(b.finalCents, a.finalCents);
+            return a.key().compareTo(b.key());
+        });
+        for (int i = 0; i < entries.size() && i < topN; i++) {
+            ProductEntry e = entries.get(i);
+            ProductTotals p = new ProductTotals(e.key(),
+                    new String(e.type, StandardCharsets.UTF_8), new String(e.name, StandardCharsets.UTF_8));
+            p.add(e);
+            result.topSellers.add(p);
+        }
+        result.nanos = System.nanoTime() - t0;
+        return result;
+    }
+
+    // tổng của 1 hoặc nhiều chunk
+    private static class Partial {
+        // yyyyMMdd -> tổng
+        final HashMap<Integer, Totals> days = new HashMap<>();
+        final ProductTable products = new ProductTable();
+        long lines;
+        long badLines;
+        IOException error;
+        // dòng trong file theo thứ tự thời gian nên gần như luôn trúng ngày vừa dùng
+        private int lastDayKey = -1;
+        private Totals lastDay;
+
+        Totals day(int key) {
+            if (key != lastDayKey) {
+                Totals t = days.get(key);
+                if (t == null) {
+                    t = new Totals();
+                    days.put(key, t);
+                }
+                lastDayKey = key;
+                lastDay = t;
+            }
+            return lastDay;
+        }
+
+        void merge(Partial o) {
+            lines += o.lines;
+            badLines += o.badLines;
+            if (error == null) error = o.error;
+            for (Map.Entry<Integer, Totals> e : o.days.entrySet()) {
+                Totals t = days.get(e.getKey());
+                if (t == null) {
+                    days.put(e.getKey(), e.getValue());
+                } else {
+                    t.add(e.getValue());
+                }
+            }
+            lastDayKey = -1;
+            products.merge(o.products);
+        }
+    }
+
+    // 1 sản phẩm trong ProductTable, ID giữ nguyên byte UTF-8
+    private static final class ProductEntry extends Totals {
+        final byte[] id;
+        final int hash;
+        final byte[] type;
+        final byte[] name;
+        ProductEntry next;
+
+        ProductEntry(byte[] id, int hash, byte[] type, byte[] name) {
+            this.id = id;
+            this.hash = hash;
+            this.type = type;
+            this.name = name;
+        }
+
+        String key() {
+            return new String(id, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Bảng băm ID -> tổng, tra bằng vị trí byte trong vùng map nên không tạo String / byte[]
+     * cho dòng của sản phẩm đã gặp (chỉ copy ID, tên, loại 1 lần cho mỗi sản phẩm mới).
+     */
+    private static final class ProductTable {
+        private ProductEntry[] table = new ProductEntry[256];
+        private int size;
+
+        ProductEntry get(ByteBuffer b, int idFrom, int idTo, int typeFrom, int typeTo, int nameFrom, int nameTo) {
+            int h = 1;
+            for (int i = idFrom; i < idTo; i++) {
+                h = 31 * h + b.get(i);
+            }
+            int slot = h & (table.length - 1);
+            for (ProductEntry e = table[slot]; e != null; e = e.next) {
+                if (e.hash == h && sameBytes(e.id, b, idFrom, idTo)) return e;
+            }
+            ProductEntry e = new ProductEntry(copy(b, idFrom, idTo), h, copy(b, typeFrom, typeTo), copy(b, nameFrom, nameTo));
+            insert(e);
+            return e;
+        }
+
+        void merge(ProductTable o) {
+            for (ProductEntry head : o.table) {
+                for (ProductEntry e = head; e != null; ) {
+                    ProductEntry next = e.next;
+                    ProductEntry mine = find(e.id, e.hash);
+                    if (mine == null) {
+                        insert(e);
+                    } else {
+                        mine.add(e);
+                    }
+                    e = next;
+                }
+            }
+        }
+
+        List<ProductEntry> entries() {
+            List<ProductEntry> list = new ArrayList<>(size);
+            for (ProductEntry head : table) {
+                for (ProductEntry e = head; e != null; e = e.next) {
+                    list.add(e);
+                }
+            }
+            return list;
+        }
+
+        private ProductEntry find(byte[] id, int h) {
+            for (ProductEntry e = table[h & (table.length - 1)]; e != null; e = e.next) {
+                if (e.hash == h && Arrays.equals(e.id, id)) return e;
+            }
+            return null;
+        }
+
+        private void insert(ProductEntry e) {
+            if (size >= table.length * 3 / 4) resize();
+            int slot = e.hash & (table.length - 1);
+            e.next = table[slot];
+            table[slot] = e;
+            size++;
+        }
+
+        private void resize() {
+            ProductEntry[] old = table;
+            table = new ProductEntry[old.length * 2];
+            for (ProductEntry head : old) {
+                for (ProductEntry e = head; e != null; ) {
+                    ProductEntry next = e.next;
+                    int slot = e.hash & (table.length - 1);
+                    e.next = table[slot];
+                    table[slot] = e;
+                    e = next;
+                }
+            }
+        }
+
+        private static boolean sameBytes(byte[] a, ByteBuffer b, int from, int to) {
+            if (a.length != to - from) return false;
+            for (int i = 0; i < a.length; i++) {
+                if (a[i] != b.get(from + i)) return false;
+            }
+            return true;
+        }
+
+        private static byte[] copy(ByteBuffer b, int from, int to) {
+            byte[] r = new byte[to - from];
+            for (int i = 0; i < r.length; i++) {
+                r[i] = b.get(from + i);
+            }
+            return r;
+        }
+    }
+
+    // chia đôi danh sách chunk cho tới khi còn 1 chunk thì phân tích, gộp kết quả khi join
+    private static class AnalyzeTask extends RecursiveTask<Partial> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel ch;
+        private final long[] bounds;
+        private final int from;
+        private final int to;
+
+        AnalyzeTask(FileChannel ch, long[] bounds, int from, int to) {
+            this.ch = ch;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= 1) {
+                return analyze(bounds[from], bounds[to]);
+            }
+            int mid = (from + to) >>> 1;
+            AnalyzeTask left = new AnalyzeTask(ch, bounds, from, mid);
+            AnalyzeTask right = new AnalyzeTask(ch, bounds, mid, to);
+            left.fork();
+            Partial r = right.compute();
+            Partial l = left.join();
+            l.merge(r);
+            return l;
+        }
+
+        private Partial analyze(long start, long end) {
+            Partial p = new Partial();
+            if (end <= start) return p;
+            try {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                SalesLineTokenizer tk = new SalesLineTokenizer();
+                int len = buf.limit();
+                int lineStart = 0;
+                while (lineStart < len) {
+                    int lineEnd = lineStart;
+                    while (lineEnd < len && buf.get(lineEnd) != '\n') lineEnd++;
+                    int next = lineEnd + 1;
+                    if (lineEnd > lineStart && buf.get(lineEnd - 1) == '\r') lineEnd--;
+                    if (lineEnd > lineStart) {
+                        p.lines++;
+                        if (!parseLine(tk, buf, lineStart, lineEnd, p)) p.badLines++;
+                    }
+                    lineStart = next;
+                }
+            } catch (IOException e) {
+                p.error = e;
+            }
+            return p;
+        }
+    }
+
+    // 1 dòng của SalesHistoryWriter.formatLine (tách bằng SalesLineTokenizer, dùng chung với SalesStore.importText)
+    private static boolean parseLine(SalesLineTokenizer tk, ByteBuffer b, int start, int end, Partial p) {
+        if (!tk.split(b, start, end)) return false;
+        int qty = tk.quantity();
+        long origin = tk.originCents(), prodDiscount = tk.productDiscountCents(), fin = tk.finalCents();
+        p.day(tk.dayKey()).add(qty, origin, prodDiscount, fin);
+        p.products.get(b, tk.start(SalesLineTokenizer.ID), tk.end(SalesLineTokenizer.ID),
+                tk.start(SalesLineTokenizer.TYPE), tk.end(SalesLineTokenizer.TYPE),
+                tk.start(SalesLineTokenizer.NAME), tk.end(SalesLineTokenizer.NAME))
+                .add(qty, origin, prodDiscount, fin);
+        return true;
+    }
+}
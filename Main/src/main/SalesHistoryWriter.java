@@ -1,42 +1,164 @@
 package main;
 
-import java.io.FileWriter;
+import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
+/**
+ * Ghi lịch sử bán hàng vào sales_history.txt theo kiểu group commit:
+ * recordSale chỉ đưa bản ghi vào hàng đợi, luồng nền gom nhiều sale thành 1 lần ghi.
+ * Các dòng của 1 đơn (recordAll) là 1 phần tử trong hàng đợi nên luôn nằm liền nhau, cùng 1 lần ghi.
+ * Mỗi lô cũng được ghi sang SalesStore (segment theo ngày) để truy vấn báo cáo.
+ * Hàng đợi đầy thì luồng gọi chờ (không bỏ sale nào).
+ *
+ * Cấu hình bằng system property:
+ * - sales.durability : FLUSH_PER_BATCH | FSYNC_PER_BATCH | FSYNC_INTERVAL (mặc định FLUSH_PER_BATCH)
+ * - sales.fsyncMs    : chu kỳ fsync cho FSYNC_INTERVAL (mặc định 100)
+ * - sales.buffer     : sức chứa hàng đợi (mặc định 4096)
+ */
 public class SalesHistoryWriter {
 
-    private static final String FILE_NAME = "sales_history.txt";
+    public static final String FILE_NAME = "sales_history.txt";
+
+    // kho truy vấn được (theo ngày), ghi cùng lô với file text
+    private static final SalesStore STORE = new SalesStore(new File(SalesStore.DIR_NAME));
+
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private static final AsyncLineWriter<List<Sale>> WRITER = createWriter();
+
+    /** 1 dòng lịch sử bán hàng. */
+    public static class Sale {
+        final LocalDateTime time;
+        final String id;
+        final String type;
+        final String name;
+        final int quantity;
+        final long originAmount; // cent (Money)
+        final long productDiscount;
+        final long finalAmount;
+
+        public Sale(LocalDateTime time, Product product, int quantity,
+                    long originAmount, long productDiscount, long finalAmount) {
+            // chụp lại thông tin sản phẩm lúc bán, luồng ghi chạy sau
+            this(time, product.getId(), product.getType(), product.getName(),
+                    quantity, originAmount, productDiscount, finalAmount);
+        }
+
+        Sale(LocalDateTime time, String id, String type, String name, int quantity,
+             long originAmount, long productDiscount, long finalAmount) {
+            this.time = time;
+            this.id = id;
+            this.type = type;
+            this.name = name;
+            this.quantity = quantity;
+            this.originAmount = originAmount;
+            this.productDiscount = productDiscount;
+            this.finalAmount = finalAmount;
+        }
+    }
+
+    private static AsyncLineWriter<List<Sale>> createWriter() {
+        AsyncLineWriter.Durability durability;
+        try {
+            durability = AsyncLineWriter.Durability.valueOf(
+                    System.getProperty("sales.durability", "FLUSH_PER_BATCH").trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown sales.durability value, using FLUSH_PER_BATCH.");
+            durability = AsyncLineWriter.Durability.FLUSH_PER_BATCH;
+        }
+
+        AsyncLineWriter<List<Sale>> w = new AsyncLineWriter<>("sales-history-writer", new File(FILE_NAME),
+                Integer.getInteger("sales.buffer", 4096), AsyncLineWriter.OverflowPolicy.BLOCK,
+                durability, Long.getLong("sales.fsyncMs", 100L), SalesHistoryWriter::format);
+        w.setBatchListener(orders -> {
+            List<Sale> all = new ArrayList<>();
+            for (List<Sale> o : orders) {
+                all.addAll(o);
+            }
+            STORE.append(all);
+        });
+        w.setErrorHandler(e -> {
+            ConsoleUI.printWarning("Cannot write sales history: " + e.getMessage());
+            InputLogger.log("SALES_HISTORY_IO_ERROR", e.getMessage());
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(w::close, "sales-history-shutdown"));
+        return w;
+    }
+
+    private static void format(List<Sale> sales, StringBuilder sb) {
+        for (int i = 0; i < sales.size(); i++) {
+            if (i > 0) sb.append(NEW_LINE);
+            formatLine(sales.get(i), sb);
+        }
+    }
+
+    // tiền luôn 2 chữ số lẻ, dấu '.' (Money.append), không phụ thuộc locale
+    static void formatLine(Sale s, StringBuilder sb) {
+        sb.append(s.time.toString().replace('T', ' '))
+                .append(" | ID=").append(s.id)
+                .append(" | Type=").append(s.type)
+                .append(" | Name=").append(s.name)
+                .append(" | Qty=").append(s.quantity)
+                .append(" | Origin=");
+        Money.append(sb, s.originAmount).append(" | ProdDiscount=");
+        Money.append(sb, s.productDiscount).append(" | TotalDiscount=");
+        Money.append(sb, s.originAmount - s.finalAmount).append(" | Final=");
+        Money.append(sb, s.finalAmount);
+    }
 
     public static void recordSale(LocalDateTime time,
                                   Product product,
                                   int quantity,
-                                  double originAmount,
-                                  double productDiscount,
-                                  double finalAmount) {
-
-        double totalDiscount = originAmount - finalAmount;
-
-        try (PrintWriter pw = new PrintWriter(new FileWriter(FILE_NAME, true))) {
-            pw.printf(
-                "%s | ID=%s | Type=%s | Name=%s | Qty=%d | Origin=%.2f | ProdDiscount=%.2f | TotalDiscount=%.2f | Final=%.2f%n",
-                time.toString().replace('T', ' '),
-                product.getId(),
-                product.getType(),
-                product.getName(),
-                quantity,
-                originAmount,
-                productDiscount,
-                totalDiscount,
-                finalAmount
-            );
-        } catch (IOException e) {
-            ConsoleUI.printWarning("Cannot write sales history: " + e.getMessage());
-            InputLogger.log("SALES_HISTORY_IO_ERROR", e.getMessage());
-        } catch (Exception e) {
-            ConsoleUI.printWarning("Unexpected error when writing sales history: " + e.getMessage());
-            InputLogger.log("SALES_HISTORY_EXCEPTION", e.toString());
+                                  long originAmount,
+                                  long productDiscount,
+                                  long finalAmount) {
+        record(new Sale(time, product, quantity, originAmount, productDiscount, finalAmount));
+    }
+
+    public static void record(Sale sale) {
+        if (!WRITER.offer(Collections.singletonList(sale))) {
+            ConsoleUI.printWarning("Sales history writer is closed, sale not recorded.");
+            InputLogger.log("SALES_HISTORY_DROPPED", "id=" + sale.id + ", qty=" + sale.quantity);
+        }
+    }
+
+    /** Ghi cả đơn (nhiều dòng) trong 1 lần ghi. */
+    public static void recordAll(List<Sale> sales) {
+        if (sales.isEmpty()) return;
+        if (!WRITER.offer(new ArrayList<>(sales))) {
+            ConsoleUI.printWarning("Sales history writer is closed, order not recorded.");
+            InputLogger.log("SALES_HISTORY_DROPPED", "order lines=" + sales.size() + ", first id=" + sales.get(0).id);
         }
     }
+
+    /** Đọc lại 1 dòng đã ghi bởi formatLine (cùng cách tách với SalesHistoryAnalyzer), null nếu sai định dạng. */
+    static Sale parse(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        SalesLineTokenizer tk = new SalesLineTokenizer();
+        return tk.split(ByteBuffer.wrap(bytes), 0, bytes.length) ? tk.toSale() : null;
+    }
+
+    /**
+     * Bước khởi động (trước khi bán): lần đầu có kho thì dựng SalesStore từ sales_history.txt cũ
+     * để báo cáo có đủ dữ liệu (SalesStore.migrate). Trả về số sale đã nạp, -1 nếu kho đã dựng trước đó.
+     */
+    public static int migrateStore() throws IOException {
+        return STORE.migrate(new File(FILE_NAME));
+    }
+
+    /** Kho bán hàng theo ngày (đã gồm các sale đã flush). */
+    public static SalesStore getStore() {
+        return STORE;
+    }
+
+    /** Chờ tới khi các sale đã ghi nhận trước đó nằm trong file (và trong SalesStore). */
+    public static void flush() {
+        WRITER.flush();
+    }
 }
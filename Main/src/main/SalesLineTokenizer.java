@@ -0,0 +1,220 @@
+package main;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+
+/**
+ * Tách 1 dòng sales_history.txt (SalesHistoryWriter.formatLine) trực tiếp trên byte UTF-8:
+ * "yyyy-MM-dd HH:mm:ss... | ID=.. | Type=.. | Name=.. | Qty=.. | Origin=.. | ProdDiscount=.. | TotalDiscount=.. | Final=.."
+ * - ID / Type tách từ đầu dòng, các trường số tách từ cuối dòng (tên sản phẩm có thể chứa " | ")
+ * - chỉ lưu vị trí byte của ID / Type / Name, số tiền đọc thẳng thành cent
+ * Dùng chung cho SalesHistoryAnalyzer (không tạo String mỗi dòng) và SalesStore.importText (toSale),
+ * nên 2 nơi luôn nhận / bỏ cùng các dòng.
+ * Không thread-safe: mỗi luồng dùng 1 tokenizer riêng.
+ */
+public class SalesLineTokenizer {
+
+    public static final int ID = 0;
+    public static final int TYPE = 1;
+    public static final int NAME = 2;
+
+    private static final byte[] ID_PREFIX = "ID=".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TYPE_PREFIX = "Type=".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NAME_PREFIX = "Name=".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] QTY_PREFIX = "Qty=".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ORIGIN_PREFIX = "Origin=".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PROD_DISCOUNT_PREFIX = "ProdDiscount=".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TOTAL_DISCOUNT_PREFIX = "TotalDiscount=".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FINAL_PREFIX = "Final=".getBytes(StandardCharsets.US_ASCII);
+    private static final int SEP_LENGTH = 3; // " | "
+
+    private static final long BAD_NUMBER = Long.MIN_VALUE;
+
+    private final int[] starts = new int[3];
+    private final int[] ends = new int[3];
+    private ByteBuffer src;
+    private int lineStart;
+    private int timeEnd;
+    private int day;
+    private int quantity;
+    private long origin;
+    private long productDiscount;
+    private long finalAmount;
+
+    /** Tách dòng src[start, end) (không gồm '\n'). Trả về false nếu sai định dạng. */
+    public boolean split(ByteBuffer b, int start, int end) {
+        src = b;
+        lineStart = start;
+        day = dayKey(b, start, end);
+        if (day < 0) return false;
+
+        int sepId = indexOfSep(b, start + 10, end);
+        if (sepId < 0 || !startsWith(b, sepId + SEP_LENGTH, end, ID_PREFIX)) return false;
+        int idFrom = sepId + SEP_LENGTH + ID_PREFIX.length;
+        int sepType = indexOfSep(b, idFrom, end);
+        if (sepType < 0 || sepType == idFrom || !startsWith(b, sepType + SEP_LENGTH, end, TYPE_PREFIX)) return false;
+        int typeFrom = sepType + SEP_LENGTH + TYPE_PREFIX.length;
+        int sepName = indexOfSep(b, typeFrom, end);
+        if (sepName < 0 || !startsWith(b, sepName + SEP_LENGTH, end, NAME_PREFIX)) return false;
+        int nameFrom = sepName + SEP_LENGTH + NAME_PREFIX.length;
+
+        int sepFinal = lastIndexOfSep(b, nameFrom, end);
+        int sepTotal = lastIndexOfSep(b, nameFrom, sepFinal);
+        int sepProd = lastIndexOfSep(b, nameFrom, sepTotal);
+        int sepOrigin = lastIndexOfSep(b, nameFrom, sepProd);
+        int sepQty = lastIndexOfSep(b, nameFrom, sepOrigin);
+        if (sepQty < 0
+                || !startsWith(b, sepQty + SEP_LENGTH, sepOrigin, QTY_PREFIX)
+                || !startsWith(b, sepOrigin + SEP_LENGTH, sepProd, ORIGIN_PREFIX)
+                || !startsWith(b, sepProd + SEP_LENGTH, sepTotal, PROD_DISCOUNT_PREFIX)
+                || !startsWith(b, sepTotal + SEP_LENGTH, sepFinal, TOTAL_DISCOUNT_PREFIX)
+                || !startsWith(b, sepFinal + SEP_LENGTH, end, FINAL_PREFIX)) {
+            return false;
+        }
+        long qty = parseCents(b, sepQty + SEP_LENGTH + QTY_PREFIX.length, sepOrigin, false);
+        origin = parseCents(b, sepOrigin + SEP_LENGTH + ORIGIN_PREFIX.length, sepProd, true);
+        productDiscount = parseCents(b, sepProd + SEP_LENGTH + PROD_DISCOUNT_PREFIX.length, sepTotal, true);
+        finalAmount = parseCents(b, sepFinal + SEP_LENGTH + FINAL_PREFIX.length, end, true);
+        if (qty == BAD_NUMBER || qty < 0 || qty > Integer.MAX_VALUE
+                || origin == BAD_NUMBER || productDiscount == BAD_NUMBER || finalAmount == BAD_NUMBER) {
+            return false;
+        }
+        quantity = (int) qty;
+        timeEnd = sepId;
+        starts[ID] = idFrom;
+        ends[ID] = sepType;
+        starts[TYPE] = typeFrom;
+        ends[TYPE] = sepName;
+        starts[NAME] = nameFrom;
+        ends[NAME] = sepQty;
+        return true;
+    }
+
+    /** Ngày của dòng dạng yyyyMMdd. */
+    public int dayKey() {
+        return day;
+    }
+
+    public int start(int field) {
+        return starts[field];
+    }
+
+    public int end(int field) {
+        return ends[field];
+    }
+
+    public int quantity() {
+        return quantity;
+    }
+
+    public long originCents() {
+        return origin;
+    }
+
+    public long productDiscountCents() {
+        return productDiscount;
+    }
+
+    public long finalCents() {
+        return finalAmount;
+    }
+
+    public String text(int field) {
+        return decode(starts[field], ends[field]);
+    }
+
+    /** Tạo Sale từ dòng vừa split, null nếu thời gian không đọc được. */
+    public SalesHistoryWriter.Sale toSale() {
+        LocalDateTime time;
+        try {
+            time = LocalDateTime.parse(decode(lineStart, timeEnd).replace(' ', 'T'));
+        } catch (DateTimeException e) {
+            return null;
+        }
+        return new SalesHistoryWriter.Sale(time, text(ID), text(TYPE), text(NAME),
+                quantity, origin, productDiscount, finalAmount);
+    }
+
+    private String decode(int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = src.get(from + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // "yyyy-MM-dd" đầu dòng -> yyyyMMdd, -1 nếu sai định dạng
+    private static int dayKey(ByteBuffer b, int start, int end) {
+        if (end - start < 10 || b.get(start + 4) != '-' || b.get(start + 7) != '-') return -1;
+        int y = digits(b, start, 4), m = digits(b, start + 5, 2), d = digits(b, start + 8, 2);
+        if (y < 0 || m < 1 || m > 12 || d < 1 || d > 31) return -1;
+        return y * 10000 + m * 100 + d;
+    }
+
+    private static int digits(ByteBuffer b, int from, int n) {
+        int v = 0;
+        for (int i = from; i < from + n; i++) {
+            int c = b.get(i) - '0';
+            if (c < 0 || c > 9) return -1;
+            v = v * 10 + c;
+        }
+        return v;
+    }
+
+    /**
+     * Số nguyên (decimal = false) hoặc số tiền %.2f -> đơn vị 1/100 (chấp nhận '.' hoặc ','
+     * làm dấu thập phân: file do bản cũ ghi bằng String.format theo locale), BAD_NUMBER nếu sai định dạng.
+     */
+    private static long parseCents(ByteBuffer b, int from, int to, boolean decimal) {
+        if (from >= to) return BAD_NUMBER;
+        boolean negative = b.get(from) == '-';
+        int i = negative ? from + 1 : from;
+        long v = 0;
+        int intDigits = 0, fracDigits = -1;
+        for (; i < to; i++) {
+            int c = b.get(i);
+            if (decimal && fracDigits < 0 && (c == '.' || c == ',')) {
+                fracDigits = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') return BAD_NUMBER;
+            if (fracDigits >= 0) {
+                if (++fracDigits > 2) return BAD_NUMBER;
+            } else if (++intDigits > 16) {
+                return BAD_NUMBER;
+            }
+            v = v * 10 + (c - '0');
+        }
+        if (intDigits == 0) return BAD_NUMBER;
+        if (decimal) {
+            if (fracDigits <= 0) v *= 100; // "12" hoặc "12."
+            else if (fracDigits == 1) v *= 10;
+        }
+        return negative ? -v : v;
+    }
+
+    private static boolean startsWith(ByteBuffer b, int from, int to, byte[] prefix) {
+        if (to - from < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (b.get(from + i) != prefix[i]) return false;
+        }
+        return true;
+    }
+
+    private static int indexOfSep(ByteBuffer b, int from, int to) {
+        for (int i = from; i + SEP_LENGTH <= to; i++) {
+            if (b.get(i) == ' ' && b.get(i + 1) == '|' && b.get(i + 2) == ' ') return i;
+        }
+        return -1;
+    }
+
+    // " | " cuối cùng nằm trong [from, to), -1 nếu không có (hoặc to < 0)
+    private static int lastIndexOfSep(ByteBuffer b, int from, int to) {
+        for (int i = to - SEP_LENGTH; i >= from; i--) {
+            if (b.get(i) == ' ' && b.get(i + 1) == '|' && b.get(i + 2) == ' ') return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,393 @@
+package main;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Kho lịch sử bán hàng nhị phân, chia segment theo ngày (đọc lại được, khác sales_history.txt):
+ * - mỗi ngày 1 file sales-yyyy-MM-dd.seg, chỉ ghi thêm; tên file chính là index thời gian,
+ *   truy vấn khoảng [from, to) chỉ mở segment của các ngày nằm trong khoảng
+ * - bản ghi: time (long, nano giây từ epoch theo giờ địa phương), type (byte, ProductDictionary.TYPE_*),
+ *   qty (int), origin / prodDiscount / final (long, cent như Money), id, name (UTF)
+ *   (tổng báo cáo cộng bằng long nên không trôi số)
+ * - bản ghi ghi dở ở cuối segment (crash) bị cắt bỏ khi mở lại để ghi tiếp, bỏ qua khi đọc
+ * Ghi từ luồng nền của SalesHistoryWriter (theo lô), đọc được từ luồng khác cùng lúc.
+ */
+public class SalesStore {
+
+    public static final String DIR_NAME = "sales";
+    // có file này trong thư mục kho = đã nạp xong sales_history.txt cũ (migrate)
+    static final String MIGRATED_MARKER = "migrated";
+
+    private static final int MAGIC = 0x53414C32; // "SAL2" (SAL1 lưu tiền bằng double, không đọc nữa)
+    private static final String PREFIX = "sales-";
+    private static final String SUFFIX = ".seg";
+    // time + type + qty + origin + prodDiscount + final (chưa tính id / name)
+    private static final int RECORD_FIXED = 8 + 1 + 4 + 8 + 8 + 8;
+
+    /** Gom nhóm kết quả báo cáo. */
+    public enum GroupBy { DAY, TYPE, PRODUCT }
+
+    private final File dir;
+    // segment đang ghi (ngày gần nhất)
+    private DataOutputStream out;
+    private LocalDate outDay;
+
+    public SalesStore(File dir) {
+        this.dir = dir;
+    }
+
+    public File getDir() {
+        return dir;
+    }
+
+    /** Tổng của 1 nhóm (hoặc cả báo cáo). */
+    public static class Totals {
+        String label;           // tên sản phẩm (nhóm PRODUCT)
+        long sales;             // số dòng bán
+        long units;
+        long originAmount;      // cent
+        long productDiscount;
+        long finalAmount;
+
+        void add(long qty, long origin, long prodDiscount, long fin) {
+            sales++;
+            units += qty;
+            originAmount += origin;
+            productDiscount += prodDiscount;
+            finalAmount += fin;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public long getSales() {
+            return sales;
+        }
+
+        public long getUnits() {
+            return units;
+        }
+
+        public long getOriginAmount() {
+            return originAmount;
+        }
+
+        public long getProductDiscount() {
+            return productDiscount;
+        }
+
+        // giảm giá theo loại + giảm giá sinh viên
+        public long getTotalDiscount() {
+            return originAmount - finalAmount;
+        }
+
+        public long getStudentDiscount() {
+            return getTotalDiscount() - productDiscount;
+        }
+
+        // doanh thu
+        public long getFinalAmount() {
+            return finalAmount;
+        }
+    }
+
+    /** Kết quả 1 truy vấn: các nhóm theo key tăng dần + tổng. */
+    public static class Report {
+        final Map<String, Totals> groups = new TreeMap<>();
+        final Totals total = new Totals();
+        int segmentsRead;
+        long recordsScanned;
+
+        public Map<String, Totals> getGroups() {
+            return Collections.unmodifiableMap(groups);
+        }
+
+        public Totals getTotal() {
+            return total;
+        }
+
+        public int getSegmentsRead() {
+            return segmentsRead;
+        }
+
+        public long getRecordsScanned() {
+            return recordsScanned;
+        }
+    }
+
+    // ===== GHI =====
+
+    /** Ghi thêm các sale (theo thứ tự), flush 1 lần cuối lô. */
+    public synchronized void append(List<SalesHistoryWriter.Sale> sales) throws IOException {
+        for (SalesHistoryWriter.Sale s : sales) {
+            LocalDate day = s.time.toLocalDate();
+            if (!day.equals(outDay)) open(day);
+            out.writeLong(encode(s.time));
+            out.writeByte(ProductDictionary.typeCode(s.type));
+            out.writeInt(s.quantity);
+            out.writeLong(s.originAmount);
+            out.writeLong(s.productDiscount);
+            out.writeLong(s.finalAmount);
+            out.writeUTF(s.id);
+            out.writeUTF(s.name);
+        }
+        if (out != null) out.flush();
+    }
+
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+            outDay = null;
+        }
+    }
+
+    private void open(LocalDate day) throws IOException {
+        close();
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create directory " + dir);
+        File f = segmentFile(day);
+        long valid = f.exists() ? validLength(f) : 0;
+        if (f.exists() && valid < f.length()) {
+            try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+                raf.setLength(valid); // bỏ bản ghi ghi dở
+            }
+        }
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f, true), 1 << 16));
+        outDay = day;
+        if (valid == 0) out.writeInt(MAGIC);
+    }
+
+    // độ dài phần hợp lệ (header + các bản ghi đọc trọn vẹn); 0 nếu header sai
+    private static long validLength(File f) throws IOException {
+        long valid = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), 1 << 16))) {
+            if (in.readInt() != MAGIC) return 0;
+            valid = 4;
+            byte[] scratch = new byte[0xFFFF];
+            while (true) {
+                in.readFully(scratch, 0, RECORD_FIXED);
+                int idLen = in.readUnsignedShort();
+                in.readFully(scratch, 0, idLen);
+                int nameLen = in.readUnsignedShort();
+                in.readFully(scratch, 0, nameLen);
+                valid += RECORD_FIXED + 2 + idLen + 2 + nameLen;
+            }
+        } catch (EOFException e) {
+            return valid; // hết file (có thể giữa bản ghi)
+        }
+    }
+
+    // ===== ĐỌC =====
+
+    /** Báo cáo doanh thu / số lượng / giảm giá trong [from, to), chỉ đọc segment của các ngày liên quan. */
+    public Report query(LocalDateTime from, LocalDateTime to, GroupBy by) throws IOException {
+        Report report = new Report();
+        long fromNanos = encode(from), toNanos = encode(to);
+        if (!to.isAfter(from)) return report;
+        for (File f : segments(from.toLocalDate(), to.minusNanos(1).toLocalDate())) {
+            report.segmentsRead++;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), 1 << 16))) {
+                if (in.readInt() != MAGIC) throw new IOException("Not a sales segment: " + f);
+                while (true) {
+                    long time = in.readLong();
+                    int type = in.readByte();
+                    int qty = in.readInt();
+                    long origin = in.readLong();
+                    long prodDiscount = in.readLong();
+                    long fin = in.readLong();
+                    String id = in.readUTF();
+                    String name = in.readUTF();
+                    report.recordsScanned++;
+                    if (time < fromNanos || time >= toNanos) continue;
+
+                    String key;
+                    switch (by) {
+                        case DAY:
+                            key = decode(time).toLocalDate().toString();
+                            break;
+                        case TYPE:
+                            key = typeName(type);
+                            break;
+                        default:
+                            key = id;
+                    }
+                    Totals t = report.groups.get(key);
+                    if (t == null) {
+                        t = new Totals();
+                        report.groups.put(key, t);
+                    }
+                    if (by == GroupBy.PRODUCT) t.label = name;
+                    t.add(qty, origin, prodDiscount, fin);
+                    report.total.add(qty, origin, prodDiscount, fin);
+                }
+            } catch (EOFException e) {
+                // hết segment (bản ghi cuối có thể đang được ghi dở)
+            }
+        }
+        return report;
+    }
+
+    // segment của các ngày trong [fromDay, toDay], theo ngày tăng dần
+    List<File> segments(LocalDate fromDay, LocalDate toDay) {
+        List<File> result = new ArrayList<>();
+        String[] names = dir.list();
+        if (names == null) return result;
+        List<String> sorted = new ArrayList<>();
+        for (String n : names) {
+            if (!n.startsWith(PREFIX) || !n.endsWith(SUFFIX)) continue;
+            try {
+                LocalDate day = LocalDate.parse(n.substring(PREFIX.length(), n.length() - SUFFIX.length()));
+                if (!day.isBefore(fromDay) && !day.isAfter(toDay)) sorted.add(n);
+            } catch (DateTimeParseException e) {
+                // file lạ trong thư mục, bỏ qua
+            }
+        }
+        Collections.sort(sorted);
+        for (String n : sorted) {
+            result.add(new File(dir, n));
+        }
+        return result;
+    }
+
+    private File segmentFile(LocalDate day) {
+        return new File(dir, PREFIX + day + SUFFIX);
+    }
+
+    private static String typeName(int type) {
+        if (type == ProductDictionary.TYPE_LAPTOP) return "Laptop";
+        if (type == ProductDictionary.TYPE_PHONE) return "Phone";
+        return "Other";
+    }
+
+    private static long encode(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + t.getNano();
+    }
+
+    private static LocalDateTime decode(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    // ===== CHUYỂN TỪ sales_history.txt =====
+
+    /**
+     * Dựng kho từ sales_history.txt nếu chưa làm (chưa có file đánh dấu MIGRATED_MARKER trong thư mục kho).
+     * Nạp vào thư mục tạm DIR.tmp, fsync, ghi file đánh dấu rồi mới đổi tên thành thư mục kho, nên crash giữa chừng
+     * chỉ để lại thư mục tạm / kho chưa đánh dấu và lần khởi động sau dựng lại từ đầu (file text là bản gốc,
+     * có đủ mọi sale, nên dựng lại không bị trùng).
+     * Gọi lúc khởi động, trước khi có sale mới. Trả về số sale đã nạp, -1 nếu kho đã dựng trước đó.
+     */
+    public synchronized int migrate(File history) throws IOException {
+        if (new File(dir, MIGRATED_MARKER).exists()) return -1;
+        close();
+        File tmp = new File(dir.getPath() + ".tmp");
+        File old = new File(dir.getPath() + ".old");
+        deleteDir(tmp);
+        deleteDir(old);
+
+        SalesStore staging = new SalesStore(tmp);
+        int imported = history.exists() ? staging.importText(history) : 0;
+        staging.close();
+        if (!tmp.isDirectory() && !tmp.mkdirs()) throw new IOException("Cannot create directory " + tmp);
+        Files.write(new File(tmp, MIGRATED_MARKER).toPath(), new byte[0]);
+        File[] files = tmp.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.WRITE)) {
+                    ch.force(true);
+                }
+            }
+        }
+
+        if (dir.exists()) Files.move(dir.toPath(), old.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        Files.move(tmp.toPath(), dir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        deleteDir(old);
+        return imported;
+    }
+
+    // thư mục segment chỉ có file, không có thư mục con
+    private static void deleteDir(File d) throws IOException {
+        File[] files = d.listFiles();
+        if (files == null) return;
+        for (File f : files) {
+            Files.deleteIfExists(f.toPath());
+        }
+        Files.deleteIfExists(d.toPath());
+    }
+
+    /**
+     * Nạp các dòng cũ của sales_history.txt (định dạng của SalesHistoryWriter) vào kho.
+     * Tách dòng bằng SalesLineTokenizer như SalesHistoryAnalyzer, dòng không đọc được bị bỏ qua.
+     * Trả về số dòng đã nạp.
+     */
+    public int importText(File history) throws IOException {
+        List<SalesHistoryWriter.Sale> batch = new ArrayList<>();
+        SalesLineTokenizer tk = new SalesLineTokenizer();
+        int imported = 0;
+        try (FileInputStream in = new FileInputStream(history)) {
+            FileChannel ch = in.getChannel();
+            ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+            boolean eof = false;
+            while (!eof) {
+                eof = ch.read(buf) < 0;
+                buf.flip();
+                int lineStart = 0, len = buf.limit();
+                for (int i = 0; i < len; i++) {
+                    if (buf.get(i) != '\n') continue;
+                    addLine(tk, buf, lineStart, i, batch);
+                    lineStart = i + 1;
+                }
+                if (eof) {
+                    addLine(tk, buf, lineStart, len, batch); // dòng cuối không có '\n'
+                } else if (lineStart == 0 && len == buf.capacity()) {
+                    // 1 dòng dài hơn buffer
+                    ByteBuffer bigger = ByteBuffer.allocate(buf.capacity() * 2);
+                    bigger.put(buf);
+                    buf = bigger;
+                } else {
+                    buf.position(lineStart);
+                    buf.compact();
+                }
+                if (batch.size() >= 4096) {
+                    append(batch);
+                    imported += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        append(batch);
+        return imported + batch.size();
+    }
+
+    private static void addLine(SalesLineTokenizer tk, ByteBuffer buf, int start, int end,
+                                List<SalesHistoryWriter.Sale> batch) {
+        if (end > start && buf.get(end - 1) == '\r') end--;
+        if (end <= start || !tk.split(buf, start, end)) return;
+        SalesHistoryWriter.Sale s = tk.toSale();
+        if (s != null) batch.add(s);
+    }
+}
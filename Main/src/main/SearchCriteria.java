@@ -0,0 +1,70 @@
+package main;
+
+/**
+ * Điều kiện tìm kiếm sản phẩm.
+ * - keyword: tìm trong "name brand" (không phân biệt hoa thường), rỗng = bỏ qua
+ * - type: "Laptop" / "Phone", null = tất cả
+ * - minPrice / maxPrice: cent (Money), < 0 = không giới hạn; so với Product.getPriceCents
+ */
+public class SearchCriteria {
+
+    private final String keyword;
+    private final String type;
+    private final int typeCode; // -1 = tất cả
+    private final long minPrice;
+    private final long maxPrice;
+
+    public SearchCriteria(String keyword, String type, long minPrice, long maxPrice) {
+        this.keyword = keyword == null ? "" : keyword.trim().toLowerCase();
+        this.type = type;
+        this.typeCode = type == null ? -1 : ProductDictionary.typeCode(type);
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    /** ProductDictionary.TYPE_*, -1 nếu không lọc theo type. */
+    public int getTypeCode() {
+        return typeCode;
+    }
+
+    /** Cent, < 0 = không giới hạn. */
+    public long getMinPrice() {
+        return minPrice;
+    }
+
+    /** Cent, < 0 = không giới hạn. */
+    public long getMaxPrice() {
+        return maxPrice;
+    }
+
+    public boolean matches(Product p) {
+        if (!keyword.isEmpty() && !KeywordIndex.text(p).contains(keyword)) return false;
+        return matchesFilters(p);
+    }
+
+    // chỉ type + khoảng giá (keyword đã được lọc qua KeywordIndex)
+    public boolean matchesFilters(Product p) {
+        if (typeCode >= 0 && p.getTypeCode() != typeCode) return false;
+        if (minPrice >= 0 && p.getPriceCents() < minPrice) return false;
+        if (maxPrice >= 0 && p.getPriceCents() > maxPrice) return false;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "keyword='" + keyword + "', type=" + (type == null ? "ALL" : type)
+                + ", min=" + limitText(minPrice) + ", max=" + limitText(maxPrice);
+    }
+
+    private static String limitText(long cents) {
+        return cents < 0 ? "-1" : Money.toString(cents);
+    }
+}
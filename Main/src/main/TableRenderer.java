@@ -0,0 +1,222 @@
+package main;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Vẽ bảng ASCII cột cố định (danh sách sản phẩm, export inventory) vào 1 buffer dùng lại,
+ * đẩy ra theo khối BLOCK ký tự thay vì printf từng dòng:
+ * - không parse format string, không tạo String cho mỗi ô (cắt chuỗi như cutString ngay trong buffer)
+ * - tiền %.2f tự làm tròn HALF_UP trên các chữ số của Double.toString, giống hệt Formatter
+ * - console: 1 lần PrintStream.append cho mỗi khối; file: encode rồi 1 lần FileChannel.write cho mỗi khối
+ * Kết quả giống từng byte với printf / PrintWriter cũ (cùng charset mặc định, cùng locale, %n).
+ * Không thread-safe.
+ */
+public class TableRenderer implements Closeable {
+
+    private static final int BLOCK = 64 * 1024;
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private final StringBuilder buf = new StringBuilder(BLOCK + 1024);
+    // chữ số của Double.toString và kết quả %.2f cho cell tiền
+    private final StringBuilder money = new StringBuilder(32);
+    private final PrintStream console;
+    private final FileOutputStream fileOut;
+    private final FileChannel channel;
+    private final CharsetEncoder encoder;
+    private final ByteBuffer bytes;
+    private final Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+    private final char decimalSeparator;
+    // locale có chữ số khác '0'..'9' thì cell tiền quay về String.format
+    private final boolean asciiDigits;
+    private int cellStart = -1;
+
+    private TableRenderer(PrintStream console, File file) throws IOException {
+        this.console = console;
+        if (file != null) {
+            fileOut = new FileOutputStream(file);
+            channel = fileOut.getChannel();
+            // như FileWriter: charset mặc định, ký tự không encode được thay bằng '?'
+            encoder = Charset.defaultCharset().newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            bytes = ByteBuffer.allocate((int) (BLOCK * Math.ceil(encoder.maxBytesPerChar())) + 4096);
+        } else {
+            fileOut = null;
+            channel = null;
+            encoder = null;
+            bytes = null;
+        }
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        decimalSeparator = symbols.getDecimalSeparator();
+        asciiDigits = symbols.getZeroDigit() == '0';
+    }
+
+    /** Ghi ra System.out. */
+    public static TableRenderer console() {
+        try {
+            return new TableRenderer(System.out, null);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // không mở file nên không xảy ra
+        }
+    }
+
+    /** Ghi đè file (như new PrintWriter(new FileWriter(file))). */
+    public static TableRenderer file(File file) throws IOException {
+        return new TableRenderer(null, file);
+    }
+
+    // ===== DÒNG =====
+
+    /** 1 dòng nguyên văn + xuống dòng. */
+    public TableRenderer line(String s) throws IOException {
+        buf.append(s).append(NEW_LINE);
+        return rowDone();
+    }
+
+    /** Kết thúc dòng bảng: "|" + xuống dòng. */
+    public TableRenderer endRow() throws IOException {
+        buf.append('|').append(NEW_LINE);
+        return rowDone();
+    }
+
+    // ===== CELL: "| " + nội dung + " " =====
+
+    /** Như "| %-{width}s " (không cắt). */
+    public TableRenderer cell(String s, int width) {
+        return startCell().append(s).endCell(Integer.MAX_VALUE, width);
+    }
+
+    /** Như "| %-{width}s " của cutString(s, maxLen): dài hơn maxLen thì cắt còn maxLen - 3 ký tự + "...". */
+    public TableRenderer cell(String s, int maxLen, int width) {
+        return startCell().append(s == null ? "" : s).endCell(maxLen, width);
+    }
+
+    /** Như "| %-{width}d ". */
+    public TableRenderer cell(long v, int width) {
+        return startCell().append(v).endCell(Integer.MAX_VALUE, width);
+    }
+
+    /** Như "| %{width}.2f " (căn phải) của số tiền tính bằng cent. */
+    public TableRenderer moneyCell(long cents, int width) {
+        money.setLength(0);
+        appendMoney(money, cents);
+        buf.append("| ");
+        for (int len = money.length(); len < width; len++) {
+            buf.append(' ');
+        }
+        buf.append(money).append(' ');
+        return this;
+    }
+
+    /** Bắt đầu cell tự ghép nội dung (append ... rồi endCell). */
+    public TableRenderer startCell() {
+        buf.append("| ");
+        cellStart = buf.length();
+        return this;
+    }
+
+    public TableRenderer append(String s) {
+        buf.append(s);
+        return this;
+    }
+
+    public TableRenderer append(char c) {
+        buf.append(c);
+        return this;
+    }
+
+    public TableRenderer append(long v) {
+        buf.append(v);
+        return this;
+    }
+
+    /** Cắt nội dung cell như cutString(.., maxLen) rồi thêm khoảng trắng cho đủ width (căn trái). */
+    public TableRenderer endCell(int maxLen, int width) {
+        int len = buf.length() - cellStart;
+        if (len > maxLen) {
+            buf.setLength(cellStart + maxLen - 3);
+            buf.append("...");
+            len = maxLen;
+        }
+        for (; len < width; len++) {
+            buf.append(' ');
+        }
+        buf.append(' ');
+        cellStart = -1;
+        return this;
+    }
+
+    // ===== OUTPUT =====
+
+    public void flush() throws IOException {
+        if (buf.length() == 0) return;
+        if (console != null) {
+            console.append(buf); // 1 lần lock PrintStream cho cả khối
+            console.flush();
+        } else {
+            writeFile();
+        }
+        buf.setLength(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            if (fileOut != null) fileOut.close();
+        }
+    }
+
+    private TableRenderer rowDone() throws IOException {
+        if (buf.length() >= BLOCK) flush();
+        return this;
+    }
+
+    private void writeFile() throws IOException {
+        CharBuffer chars = CharBuffer.wrap(buf);
+        encoder.reset();
+        CoderResult r;
+        do {
+            r = encoder.encode(chars, bytes, true);
+            writeBytes();
+        } while (r.isOverflow());
+        do {
+            r = encoder.flush(bytes);
+            writeBytes();
+        } while (r.isOverflow());
+    }
+
+    private void writeBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    // ===== %.2f =====
+
+    /** Giống Formatter "%.2f" của số tiền (cent): ghép thẳng bằng Money.append, không qua double. */
+    void appendMoney(StringBuilder out, long cents) {
+        if (!asciiDigits) {
+            out.append(String.format(locale, "%.2f", BigDecimal.valueOf(cents, 2)));
+            return;
+        }
+        Money.append(out, cents, decimalSeparator);
+    }
+}